@@ -0,0 +1,25 @@
+package net.javaguides.springboot.audit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "employees.audit.enabled", havingValue = "true")
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfig {
+
+    @Bean
+    public AuditLog auditLog(AuditProperties properties) throws IOException {
+        return new AuditLog(properties.getDirectory(), Math.toIntExact(properties.getSegmentSize().toBytes()),
+                properties.getFlushInterval());
+    }
+
+    @Bean
+    public EmployeeAuditListener employeeAuditListener(AuditLog auditLog, AuditProperties properties) {
+        return new EmployeeAuditListener(auditLog, properties.isSync());
+    }
+}
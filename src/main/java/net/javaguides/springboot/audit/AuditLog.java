@@ -0,0 +1,405 @@
+package net.javaguides.springboot.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import net.javaguides.springboot.audit.AuditRecord.Operation;
+import net.javaguides.springboot.model.Employee;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of employee changes, kept in memory-mapped segment files next to (not in) the database.
+ * <p>
+ * Each segment is pre-allocated to the segment size and named after the sequence of its first record; a new one is
+ * started when a record no longer fits. Records are {@code [payload length][crc32c][payload]}, and the zeroed tail
+ * of a segment marks where the log ends.
+ * Appending copies a record into the mapping under a lock, which takes microseconds; a flusher thread forces
+ * everything appended since its previous run to disk with a single fsync (group commit), so a crash loses at most one
+ * flush interval of records, unless writers wait for theirs with {@link #awaitDurable(long)}.
+ * On open, the last segment is scanned and a torn record at its end (a crash mid-append) is discarded.
+ */
+@Slf4j
+public class AuditLog implements AutoCloseable {
+    private static final String SEGMENT_SUFFIX = ".audit";
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    // NOTE: sequence, timestamp, id, version, operation, and the lengths of first name, last name and email
+    private static final int FIXED_PAYLOAD_BYTES = 4 * Long.BYTES + 1 + 3 * Short.BYTES;
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Lock appendLock = new ReentrantLock();
+    // NOTE: one flush at a time, so a sequence is only reported durable once every fsync before it has completed
+    private final Lock flushLock = new ReentrantLock();
+    private final Object durability = new Object();
+    private final ScheduledExecutorService flusher;
+
+    // NOTE: guarded by appendLock
+    private Segment segment;
+    private long nextSequence;
+    private boolean closed;
+
+    // NOTE: guarded by durability
+    private long durableSequence;
+
+    public AuditLog(Path directory, int segmentSize, Duration flushInterval) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        openLastSegment();
+        durableSequence = nextSequence - 1;
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-audit-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = flushInterval.toNanos();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Appends a change to the log; it reaches the disk with the next group flush.
+     *
+     * @param employee the employee after the change; only its ID is recorded for a {@code DELETE}
+     * @return the sequence of the new record
+     * @throws UncheckedIOException if a new segment is needed and cannot be created
+     * @throws IllegalStateException if the log is closed
+     */
+    public long append(Operation operation, Employee employee) {
+        boolean deleted = operation == Operation.DELETE;
+        byte[] firstName = encode(deleted ? null : employee.getFirstName());
+        byte[] lastName = encode(deleted ? null : employee.getLastName());
+        byte[] email = encode(deleted ? null : employee.getEmail());
+        int payloadLength = FIXED_PAYLOAD_BYTES + length(firstName) + length(lastName) + length(email);
+        if (HEADER_BYTES + payloadLength > segmentSize) {
+            throw new IllegalArgumentException("Audit record of " + payloadLength + " bytes does not fit in a segment");
+        }
+        long timestamp = toMicros(Instant.now());
+
+        appendLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Audit log is closed");
+            }
+            if (segment.buffer.remaining() < HEADER_BYTES + payloadLength) {
+                roll();
+            }
+            long sequence = nextSequence++;
+            MappedByteBuffer buffer = segment.buffer;
+            int start = buffer.position();
+            buffer.position(start + HEADER_BYTES);
+            buffer.putLong(sequence)
+                    .putLong(timestamp)
+                    .putLong(employee.getId())
+                    .putLong(deleted ? 0 : employee.getVersion())
+                    .put((byte) operation.ordinal());
+            putString(buffer, firstName);
+            putString(buffer, lastName);
+            putString(buffer, email);
+
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(start + HEADER_BYTES, payloadLength));
+            buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+            // NOTE: the length goes in last, so a reader of the mapping never sees a length without its record
+            buffer.putInt(start, payloadLength);
+            return sequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the record with the given sequence (and every one before it) has been forced to disk.
+     */
+    public void awaitDurable(long sequence) throws InterruptedException {
+        synchronized (durability) {
+            while (durableSequence < sequence) {
+                durability.wait();
+            }
+        }
+    }
+
+    /**
+     * Forces every record appended so far to disk, without waiting for the flusher.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Segment target;
+            int from;
+            int to;
+            long sequence;
+            appendLock.lock();
+            try {
+                target = segment;
+                from = target.flushedPosition;
+                to = target.buffer.position();
+                sequence = nextSequence - 1;
+                target.flushedPosition = to;
+            } finally {
+                appendLock.unlock();
+            }
+            if (to > from) {
+                target.buffer.force(from, to - from);
+            }
+            markDurable(sequence);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the records of this log, oldest first, as far as they have been appended when each segment is reached.
+     *
+     * @return the sequence to replay from next time, to only get the records appended since
+     */
+    public long replay(long fromSequence, Consumer<AuditRecord> consumer) throws IOException {
+        return replay(directory, fromSequence, consumer);
+    }
+
+    /**
+     * Reads the records of the log in {@code directory}, oldest first; the log may be open in this or another process.
+     *
+     * @return the sequence to replay from next time, to only get the records appended since
+     */
+    public static long replay(Path directory, long fromSequence, Consumer<AuditRecord> consumer) throws IOException {
+        List<Path> segments = segments(directory);
+        long nextSequence = fromSequence;
+        for (int i = 0; i < segments.size(); i++) {
+            // NOTE: skip the segments that end before the requested sequence, as the next one starts after it
+            if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= fromSequence) {
+                continue;
+            }
+            long firstSequence = firstSequence(segments.get(i));
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            long end = read(buffer, firstSequence, record -> {
+                if (record.sequence() >= fromSequence) {
+                    consumer.accept(record);
+                }
+            });
+            nextSequence = Math.max(nextSequence, end);
+        }
+        return nextSequence;
+    }
+
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            appendLock.unlock();
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // NOTE: the mapping itself is released when the buffer is garbage collected, there is no public unmap
+        flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Could not flush the employee audit log", e);
+        }
+    }
+
+    private void markDurable(long sequence) {
+        synchronized (durability) {
+            if (sequence > durableSequence) {
+                durableSequence = sequence;
+                durability.notifyAll();
+            }
+        }
+    }
+
+    private void roll() {
+        Segment full = segment;
+        try {
+            // NOTE: rare (once per segment), so the full segment is simply forced by the writer that fills it
+            full.buffer.force();
+            full.flushedPosition = full.buffer.position();
+            segment = Segment.create(directory, nextSequence, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        markDurable(nextSequence - 1);
+    }
+
+    private void openLastSegment() throws IOException {
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            segment = Segment.create(directory, 1, segmentSize);
+            nextSequence = 1;
+            return;
+        }
+        Path last = segments.get(segments.size() - 1);
+        segment = Segment.open(last, firstSequence(last), segmentSize);
+        nextSequence = read(segment.buffer, segment.firstSequence, record -> {});
+        int end = segment.buffer.position();
+        if (segment.buffer.remaining() >= Integer.BYTES && segment.buffer.getInt(end) != 0) {
+            log.warn("Discarding a torn record at the end of audit segment {}", last);
+            for (int position = end; position < segment.buffer.limit(); position++) {
+                segment.buffer.put(position, (byte) 0);
+            }
+            segment.buffer.force();
+        }
+        segment.flushedPosition = end;
+    }
+
+    /**
+     * Reads the valid records from the start of a segment, and leaves the buffer positioned after the last one.
+     *
+     * @return the sequence the next record should have
+     */
+    private static long read(ByteBuffer buffer, long firstSequence, Consumer<AuditRecord> consumer) {
+        long expectedSequence = firstSequence;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int payloadLength = buffer.getInt(start);
+            // NOTE: a zero length is the unwritten tail, anything else invalid is a record torn by a crash
+            if (payloadLength < FIXED_PAYLOAD_BYTES || payloadLength > buffer.remaining() - HEADER_BYTES) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(start + HEADER_BYTES, payloadLength);
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(start + Integer.BYTES) || payload.getLong(0) != expectedSequence) {
+                break;
+            }
+            consumer.accept(decode(payload));
+            expectedSequence++;
+            buffer.position(start + HEADER_BYTES + payloadLength);
+        }
+        return expectedSequence;
+    }
+
+    private static AuditRecord decode(ByteBuffer payload) {
+        long sequence = payload.getLong();
+        long timestamp = payload.getLong();
+        long id = payload.getLong();
+        long version = payload.getLong();
+        Operation operation = OPERATIONS[payload.get()];
+        Employee employee = Employee.builder()
+                .id(id)
+                .firstName(getString(payload))
+                .lastName(getString(payload))
+                .email(getString(payload))
+                .version(version)
+                .build();
+        return new AuditRecord(sequence, Instant.EPOCH.plus(timestamp, ChronoUnit.MICROS), operation, employee);
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            // NOTE: names are zero-padded sequences, so name order is log order
+            return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static long toMicros(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+
+    private static byte[] encode(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Audited value of " + bytes.length + " bytes is too long");
+        }
+        return bytes;
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+        } else {
+            buffer.putShort((short) value.length).put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Segment {
+        final long firstSequence;
+        final MappedByteBuffer buffer;
+        // NOTE: guarded by the log's appendLock
+        int flushedPosition;
+
+        private Segment(long firstSequence, MappedByteBuffer buffer) {
+            this.firstSequence = firstSequence;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path directory, long firstSequence, int size) throws IOException {
+            Path path = directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // NOTE: mapping past the end grows the (sparse, zero-filled) file to the full segment size
+                return new Segment(firstSequence, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        static Segment open(Path path, long firstSequence, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // NOTE: never map less than the file, in case the segment size was lowered since it was created
+                long mappedSize = Math.max(channel.size(), size);
+                return new Segment(firstSequence, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize));
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package net.javaguides.springboot.audit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("employees.audit")
+public class AuditProperties {
+    /**
+     * Whether every committed create, update and delete made through the {@code EmployeeService} is appended to the audit log.
+     */
+    private boolean enabled = false;
+    /**
+     * Directory holding the segment files; it must survive restarts (and is never cleaned up by the application).
+     */
+    private Path directory = Path.of("audit");
+    /**
+     * Size of each memory-mapped segment file; a new one is started when the current one is full.
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    /**
+     * How often appended records are forced to disk, all of them with a single fsync.
+     */
+    private Duration flushInterval = Duration.ofMillis(10);
+    /**
+     * Whether a write waits for the fsync covering its record before returning, instead of only appending it.
+     * Trades the per-write overhead (microseconds) for at most one flush interval of latency.
+     */
+    private boolean sync = false;
+}
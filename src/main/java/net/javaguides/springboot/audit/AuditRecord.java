@@ -0,0 +1,20 @@
+package net.javaguides.springboot.audit;
+
+import net.javaguides.springboot.model.Employee;
+
+import java.time.Instant;
+
+/**
+ * One entry of the {@link AuditLog}: an employee as it was right after a create or update, or the ID of a deleted one.
+ *
+ * @param sequence  position in the log, starting at 1 and without gaps
+ * @param timestamp when the change was appended, to the microsecond
+ * @param operation what happened to the employee
+ * @param employee  the employee after the change, with only the ID set for a delete
+ */
+public record AuditRecord(long sequence, Instant timestamp, Operation operation, Employee employee) {
+
+    public enum Operation {
+        CREATE, UPDATE, DELETE
+    }
+}
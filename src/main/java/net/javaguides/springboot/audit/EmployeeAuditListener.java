@@ -0,0 +1,62 @@
+package net.javaguides.springboot.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import net.javaguides.springboot.audit.AuditRecord.Operation;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.event.EmployeeChangedEvent;
+import net.javaguides.springboot.service.event.EmployeesChangedEvent;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Appends every committed change made through the {@code EmployeeService} to the {@link AuditLog}.
+ */
+@Slf4j
+public class EmployeeAuditListener {
+    private final AuditLog auditLog;
+    private final boolean sync;
+
+    public EmployeeAuditListener(AuditLog auditLog, boolean sync) {
+        this.auditLog = auditLog;
+        this.sync = sync;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        audit(List.of(event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeesChanged(EmployeesChangedEvent event) {
+        audit(event.changes());
+    }
+
+    private void audit(List<EmployeeChangedEvent> changes) {
+        long lastSequence = -1;
+        for (EmployeeChangedEvent change : changes) {
+            try {
+                lastSequence = append(change);
+            } catch (RuntimeException e) {
+                // NOTE: the change is already committed, so failing the request would only misreport it to the client
+                log.error("Could not audit the change of employee {}", change.id(), e);
+            }
+        }
+        if (!sync || lastSequence < 0) {
+            return;
+        }
+        // NOTE: once for the whole batch; its last record is durable only when every one before it is
+        try {
+            auditLog.awaitDurable(lastSequence);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long append(EmployeeChangedEvent change) {
+        return change.isDeleted()
+                ? auditLog.append(Operation.DELETE, Employee.builder().id(change.id()).build())
+                // NOTE: every storage engine starts versions at 0, so version 0 is the employee as created
+                : auditLog.append(change.employee().getVersion() == 0 ? Operation.CREATE : Operation.UPDATE, change.employee());
+    }
+}
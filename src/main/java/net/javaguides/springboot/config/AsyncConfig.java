@@ -0,0 +1,57 @@
+package net.javaguides.springboot.config;
+
+import io.micrometer.context.ContextSnapshot;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration(proxyBeanMethods = false)
+public class AsyncConfig {
+
+    public static final String EMPLOYEE_DB_EXECUTOR = "employeeDbExecutor";
+
+    /**
+     * Runs the blocking DB calls behind {@code EmployeeAsyncService}.
+     * <p>
+     * NOTE: sized to the connection pool, since a thread beyond that would only wait for a connection.
+     * Work beyond the queue capacity is rejected (and answered with 503) rather than piling up.
+     * Tasks run with the submitter's observation (trace) context, so their spans belong to the request's trace.
+     */
+    @Bean(EMPLOYEE_DB_EXECUTOR)
+    @Qualifier(EMPLOYEE_DB_EXECUTOR)
+    public ThreadPoolTaskExecutor employeeDbExecutor(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                                     @Value("${employees.async.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("employee-db-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setTaskDecorator(task -> ContextSnapshot.captureAll().wrap(task));
+        return executor;
+    }
+
+    /**
+     * Boot's general purpose executor, configured by {@code spring.task.execution.*}. Spring MVC runs the async
+     * request handling (the {@code StreamingResponseBody} of the export, {@code Callable}s) on it.
+     * <p>
+     * NOTE: Boot only creates this bean when there is no other {@code Executor}, and the employeeDbExecutor is one;
+     * without it MVC falls back to a {@code SimpleAsyncTaskExecutor}, one new thread per async request.
+     * It stays the primary executor, the employeeDbExecutor is only injected by its qualifier.
+     */
+    @Lazy
+    @Primary
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder taskExecutorBuilder) {
+        return taskExecutorBuilder
+                .taskDecorator(task -> ContextSnapshot.captureAll().wrap(task))
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package net.javaguides.springboot.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import net.javaguides.springboot.deadline.DeadlineStatementListener;
+import net.javaguides.springboot.tracing.JdbcObservationListener;
+import net.ttddyy.dsproxy.listener.logging.SLF4JLogLevel;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps every {@link DataSource} (the bean ones, and the shards) in a datasource-proxy so JDBC statements can be observed.
+ * <ul>
+ *     <li>{@code employees.jdbc.slow-query-threshold} (default 1s): statements slower than this are logged
+ *     at WARN by the {@code SlowQuery} logger.</li>
+ *     <li>{@code employees.jdbc.count-statements} (default false): counts statements per thread and type in
+ *     {@link net.ttddyy.dsproxy.QueryCountHolder}, which tests use to assert the SQL issued per request.</li>
+ * </ul>
+ * Every statement is also observed by the {@link JdbcObservationListener}, which traces it, and gets its query timeout
+ * capped at the request's deadline by the {@link DeadlineStatementListener}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class DataSourceProxyConfig {
+
+    @Bean
+    public static DataSourceProxies dataSourceProxies(Environment environment,
+                                                      ObjectProvider<ObservationRegistry> observationRegistry) {
+        Duration slowQueryThreshold = environment.getProperty("employees.jdbc.slow-query-threshold", Duration.class, Duration.ofSeconds(1));
+        boolean countStatements = environment.getProperty("employees.jdbc.count-statements", Boolean.class, false);
+        JdbcObservationListener observationListener = new JdbcObservationListener(
+                () -> observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+        return new DataSourceProxies(slowQueryThreshold, countStatements, observationListener);
+    }
+
+    // NOTE: static, so the post processor is registered before (and without initializing) this configuration class
+    @Bean
+    public static BeanPostProcessor dataSourceProxyBeanPostProcessor(DataSourceProxies dataSourceProxies) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? dataSourceProxies.proxy(dataSource, beanName) : bean;
+            }
+        };
+    }
+
+    /**
+     * Wraps data sources with the listeners above; the ones that are not beans (e.g. the shards of the sharded engine)
+     * are wrapped with it by whoever builds them.
+     */
+    public static class DataSourceProxies {
+        private final Duration slowQueryThreshold;
+        private final boolean countStatements;
+        private final JdbcObservationListener observationListener;
+
+        DataSourceProxies(Duration slowQueryThreshold, boolean countStatements, JdbcObservationListener observationListener) {
+            this.slowQueryThreshold = slowQueryThreshold;
+            this.countStatements = countStatements;
+            this.observationListener = observationListener;
+        }
+
+        public DataSource proxy(DataSource dataSource, String name) {
+            if (dataSource instanceof ProxyDataSource) {
+                return dataSource;
+            }
+            ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                    .name(name)
+                    .logSlowQueryBySlf4j(slowQueryThreshold.toMillis(), TimeUnit.MILLISECONDS, SLF4JLogLevel.WARN, "SlowQuery")
+                    .listener(observationListener)
+                    .listener(new DeadlineStatementListener());
+            if (countStatements) {
+                builder.countQuery();
+            }
+            return builder.build();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package net.javaguides.springboot.config;
+
+/**
+ * Profiles that select the storage engine behind {@code EmployeeRepository}.
+ * <p>
+ * With none of them active the application uses Spring Data JPA on the configured {@code spring.datasource}.
+ */
+public final class StorageProfiles {
+    /** Process-local engine, for local runs and fast tests. */
+    public static final String IN_MEMORY = "inmemory";
+    /** Employees spread over several databases by id, see {@code employees.sharding.*}. */
+    public static final String SHARDED = "sharded";
+    /** Profile expression for beans that need the Spring Data JPA engine's {@code DataSource}. */
+    public static final String JPA = "!" + IN_MEMORY + " & !" + SHARDED;
+
+    private StorageProfiles() {
+    }
+}
@@ -0,0 +1,27 @@
+package net.javaguides.springboot.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Validation shared by the endpoints taking a list of ids or employees, see {@code employees.bulk.max-size}.
+ */
+final class BulkRequests {
+
+    private BulkRequests() {
+    }
+
+    /**
+     * @throws ResponseStatusException 400, when there are more than {@code maxSize} elements or one of them is null
+     */
+    static void checkElements(List<?> elements, int maxSize, String name) {
+        if (elements.size() > maxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxSize + " " + name + " per request");
+        }
+        if (elements.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The " + name + " can't contain null");
+        }
+    }
+}
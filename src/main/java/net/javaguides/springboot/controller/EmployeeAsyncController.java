@@ -0,0 +1,46 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.dto.EmployeeBatch;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeAsyncService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// NOTE: returning a CompletableFuture makes Spring MVC release the servlet thread while the DB call runs,
+// and the response is written once the future completes
+@RestController
+@RequestMapping("/api/async/employees")
+public class EmployeeAsyncController {
+
+    private EmployeeAsyncService employeeAsyncService;
+    private int maxBulkSize;
+
+    public EmployeeAsyncController(EmployeeAsyncService employeeAsyncService,
+                                   @Value("${employees.bulk.max-size:1000}") int maxBulkSize) {
+        this.employeeAsyncService = employeeAsyncService;
+        this.maxBulkSize = maxBulkSize;
+    }
+
+    @GetMapping
+    public CompletableFuture<List<Employee>> getAllEmployees() {
+        return employeeAsyncService.getAllEmployeesAsync();
+    }
+
+    @GetMapping(params = "ids")
+    public CompletableFuture<EmployeeBatch> getEmployeesByIds(@RequestParam("ids") List<Long> ids) {
+        BulkRequests.checkElements(ids, maxBulkSize, "ids");
+        return employeeAsyncService.getEmployeesByIdsAsync(ids);
+    }
+
+    @GetMapping("{id}")
+    public CompletableFuture<ResponseEntity<Employee>> getEmployeeById(@PathVariable("id") long id) {
+        return employeeAsyncService.getEmployeeByIdAsync(id)
+                .thenApply(employee -> employee
+                        .map(found -> ResponseEntity.ok().eTag(Long.toString(found.getVersion())).body(found))
+                        .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+}
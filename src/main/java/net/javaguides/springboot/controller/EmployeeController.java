@@ -1,10 +1,22 @@
 package net.javaguides.springboot.controller;
 
+import net.javaguides.springboot.dto.EmployeeBatch;
+import net.javaguides.springboot.dto.EmployeeFilter;
+import net.javaguides.springboot.dto.EmployeeStats;
+import net.javaguides.springboot.dto.EmployeeUpsertCounts;
+import net.javaguides.springboot.json.EmployeeResponseCache;
+import net.javaguides.springboot.json.EmployeeResponseCache.EmployeeResponse;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,9 +26,21 @@ import java.util.Optional;
 public class EmployeeController {
 
     private EmployeeService employeeService;
+    // NOTE: when true, PUT without If-Match is rejected instead of overwriting whatever version is current
+    private boolean requireIfMatch;
+    // NOTE: only available when employees.response-cache.enabled is not false
+    private ObjectProvider<EmployeeResponseCache> responseCache;
+    // NOTE: most ids or employees a single bulk request may carry; clients split larger sets
+    private int maxBulkSize;
 
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService,
+                              @Value("${employees.update.require-if-match:false}") boolean requireIfMatch,
+                              ObjectProvider<EmployeeResponseCache> responseCache,
+                              @Value("${employees.bulk.max-size:1000}") int maxBulkSize) {
         this.employeeService = employeeService;
+        this.requireIfMatch = requireIfMatch;
+        this.responseCache = responseCache;
+        this.maxBulkSize = maxBulkSize;
     }
 
     @PostMapping
@@ -25,17 +49,53 @@ public class EmployeeController {
         return employeeService.saveEmployee(employee);
     }
 
+    // NOTE: filters (lastName=, emailDomain=) and sort=property,direction are applied by the database;
+    // without any of them this is the full listing, which may be served from the snapshot
     @GetMapping
-    public List<Employee> getAllEmployees(){
-        return employeeService.getAllEmployees();
+    public List<Employee> getAllEmployees(EmployeeFilter filter, Sort sort){
+        if (filter.isEmpty() && sort.isUnsorted()) {
+            return employeeService.getAllEmployees();
+        }
+        for (Sort.Order order : sort) {
+            if (!EmployeeFilter.SORTABLE_PROPERTIES.contains(order.getProperty()) || order.isIgnoreCase()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Employees can only be sorted by "
+                        + String.join(", ", EmployeeFilter.SORTABLE_PROPERTIES.stream().sorted().toList()) + ", case-sensitively");
+            }
+        }
+        return employeeService.searchEmployees(filter, sort);
+    }
+
+    // NOTE: only matches when the ids parameter is present, otherwise GET /api/employees lists every employee
+    @GetMapping(params = "ids")
+    public EmployeeBatch getEmployeesByIds(@RequestParam("ids") List<Long> ids) {
+        BulkRequests.checkElements(ids, maxBulkSize, "ids");
+        return employeeService.getEmployeesByIds(ids);
+    }
+
+    // NOTE: same as above, for id sets too large to fit in a URL
+    @PostMapping("lookup")
+    public EmployeeBatch lookupEmployees(@RequestBody List<Long> ids) {
+        BulkRequests.checkElements(ids, maxBulkSize, "ids");
+        return employeeService.getEmployeesByIds(ids);
+    }
+
+    // NOTE: headcounts by last name and email domain, kept up to date by the writes instead of read from the table
+    @GetMapping("stats")
+    public EmployeeStats getEmployeeStats() {
+        return employeeService.getEmployeeStats();
     }
 
     @GetMapping("{id}")
-    // NOTE: return type must be ResponseEntity so that we can control the response status
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long id){
+    // NOTE: return type must be ResponseEntity so that we can control the response status;
+    // the body is the employee's already encoded JSON (gzipped if accepted) when the response cache is enabled
+    public ResponseEntity<?> getEmployeeById(@PathVariable("id") long id,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
         Optional<Employee> employee = employeeService.getEmployeeById(id);
+        EmployeeResponseCache cache = responseCache.getIfAvailable();
         return employee
-                .map(ResponseEntity::ok)
+                .map(found -> cache == null
+                        ? ResponseEntity.ok().eTag(eTag(found)).body(found)
+                        : encodedResponse(found, cache.get(found), acceptsGzip(acceptEncoding)))
                 .orElseGet(() -> ResponseEntity.notFound().build()) // NOTE: orElseGet gets passed a callback that runs only of Optional is empty
 //                .orElse(ResponseEntity.notFound().build())        // method orElse() gets passed a value, which is evaluated every time
                 ;
@@ -43,21 +103,90 @@ public class EmployeeController {
 
     @PutMapping("{id}")
     public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                    @RequestBody Employee employeeObject) {
+        if (ifMatch == null && requireIfMatch) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
         return employeeService.getEmployeeById(employeeId)
                 .map(savedEmployee -> {
-                    // NOTE: the update below would overwrite every provided field to the DB record, including fields
-                    // we wouldn't want to overwrite (like the ID). Ideally, we should check for that.
+                    if (ifMatch != null && !ifMatchAccepts(ifMatch, savedEmployee)) {
+                        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(eTag(savedEmployee)).<Employee>build();
+                    }
+                    // NOTE: the ID comes from the path and the version from If-Match (or the row we just read),
+                    // never from the body; the UPDATE then only applies if nobody bumped the version in between
+                    employeeObject.setId(employeeId);
+                    employeeObject.setVersion(savedEmployee.getVersion());
                     Employee updatedEmployee = employeeService.updateEmployee(employeeObject);
-                    return ResponseEntity.ok(updatedEmployee);
+                    return ResponseEntity.ok().eTag(eTag(updatedEmployee)).body(updatedEmployee);
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // NOTE: creates or updates employees by email, for sync jobs pushing whole lists; IDs and versions are ignored
+    @PutMapping
+    public EmployeeUpsertCounts upsertEmployees(@RequestBody List<Employee> employees) {
+        BulkRequests.checkElements(employees, maxBulkSize, "employees");
+        for (Employee employee : employees) {
+            if (employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Every employee needs a first name, last name and email");
+            }
+        }
+        return employeeService.upsertEmployees(employees);
+    }
+
     @DeleteMapping("{id}")
     public String deleteEmployee(@PathVariable("id") long employeeId){
         employeeService.deleteEmployee(employeeId);
 
         return "Employee deleted successfully";
     }
+
+    private static ResponseEntity<byte[]> encodedResponse(Employee employee, EmployeeResponse response, boolean gzipAccepted) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(eTag(employee))
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (response.isGzipped(gzipAccepted)) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(response.body(gzipAccepted));
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.trim().split(";");
+            String coding = parts[0].trim();
+            if (coding.equalsIgnoreCase("gzip") || coding.equals("*")) {
+                // NOTE: q=0 means "not acceptable"
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].replace(" ", "");
+                    if (parameter.matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String eTag(Employee employee) {
+        return Long.toString(employee.getVersion());
+    }
+
+    private static boolean ifMatchAccepts(String ifMatch, Employee employee) {
+        // NOTE: If-Match uses strong comparison, so weak (W/) tags never match
+        String current = "\"" + eTag(employee) + "\"";
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,42 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.export.EmployeeArrowExporter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/employees/export")
+public class EmployeeExportController {
+
+    // NOTE: only the storage engines backed by JDBC can export, the in-memory one has no exporter
+    private ObjectProvider<EmployeeArrowExporter> employeeArrowExporter;
+
+    public EmployeeExportController(ObjectProvider<EmployeeArrowExporter> employeeArrowExporter) {
+        this.employeeArrowExporter = employeeArrowExporter;
+    }
+
+    // NOTE: parallel=true reads id ranges on several connections at once; with ordered=false their batches are
+    // interleaved as they are ready, otherwise each range is written in turn, in id order
+    @GetMapping(produces = "application/vnd.apache.arrow.stream")
+    public ResponseEntity<StreamingResponseBody> exportArrow(@RequestParam(value = "parallel", defaultValue = "false") boolean parallel,
+                                                             @RequestParam(value = "ordered", defaultValue = "true") boolean ordered) {
+        EmployeeArrowExporter exporter = employeeArrowExporter.getIfAvailable();
+        if (exporter == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "The storage engine in use does not support exports");
+        }
+        // NOTE: streamed from the cursor as it is read, so there is no Content-Length and the response starts right away
+        return ResponseEntity.ok()
+                .contentType(EmployeeArrowExporter.ARROW_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("employees.arrows").build().toString())
+                .body(parallel ? outputStream -> exporter.exportParallel(outputStream, ordered) : exporter::export);
+    }
+}
@@ -0,0 +1,40 @@
+package net.javaguides.springboot.dataset;
+
+import lombok.extern.slf4j.Slf4j;
+import net.javaguides.springboot.config.StorageProfiles;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Loads a synthetic dataset into the database at startup, for load tests against a running application:
+ * {@code employees.dataset.size=medium}. NOTE: only into an empty employees table, so restarting does not load it twice
+ * and a database with real data is never touched.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@Profile(StorageProfiles.JPA)
+@ConditionalOnProperty(name = "employees.dataset.size")
+@EnableConfigurationProperties(DatasetProperties.class)
+public class DatasetConfig {
+
+    // NOTE: ahead of the other runners, so the warm-up already sees the dataset
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public ApplicationRunner datasetLoader(JdbcTemplate jdbcTemplate, DatasetProperties properties) {
+        return arguments -> {
+            Long rows = jdbcTemplate.queryForObject("select count(*) from employees", Long.class);
+            if (rows != null && rows > 0) {
+                log.info("Not loading the {} dataset, the employees table already has {} rows", properties.getSize(), rows);
+                return;
+            }
+            new EmployeeDatasetGenerator(jdbcTemplate, properties.getSeed()).load(properties.getSize(), properties.getBatchSize());
+        };
+    }
+}
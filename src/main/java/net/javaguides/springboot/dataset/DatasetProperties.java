@@ -0,0 +1,23 @@
+package net.javaguides.springboot.dataset;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("employees.dataset")
+public class DatasetProperties {
+    /**
+     * Synthetic employees to load into an empty employees table at startup; nothing is loaded when not set.
+     */
+    private DatasetSize size;
+    /**
+     * Seed of the generated names, so every load of a size produces the same employees.
+     */
+    private long seed = EmployeeDatasetGenerator.DEFAULT_SEED;
+    /**
+     * Rows per multi-row INSERT statement; must be positive.
+     */
+    private int batchSize = 1000;
+}
@@ -0,0 +1,22 @@
+package net.javaguides.springboot.dataset;
+
+/**
+ * The named sizes benchmarks and load tests pick from, so results taken at "medium" are comparable between runs.
+ */
+public enum DatasetSize {
+    TINY(1_000),
+    SMALL(10_000),
+    MEDIUM(100_000),
+    LARGE(1_000_000),
+    HUGE(10_000_000);
+
+    private final int rows;
+
+    DatasetSize(int rows) {
+        this.rows = rows;
+    }
+
+    public int rows() {
+        return rows;
+    }
+}
@@ -0,0 +1,116 @@
+package net.javaguides.springboot.deadline;
+
+import io.micrometer.context.ContextRegistry;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * The point in time by which the current request must be answered.
+ * <p>
+ * The {@link DeadlineInterceptor} sets one per request on the handling thread; everything below the controller reads
+ * it from there instead of having it passed down: the transaction manager caps transaction timeouts with it, the
+ * {@link DeadlineStatementListener} caps JDBC query timeouts with it, and callers that wait on other threads bound
+ * their wait with it. Without a current deadline none of them change their behavior.
+ * <p>
+ * NOTE: registered with the context-propagation library, so tasks submitted to the {@code employeeDbExecutor} (and the
+ * queries of a shard fan-out) carry their request's deadline along with its trace.
+ */
+public final class Deadline {
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(Deadline.class.getName(),
+                CURRENT::get, CURRENT::set, CURRENT::remove);
+    }
+
+    private final Duration budget;
+    private final long expiresAtNanos;
+
+    private Deadline(Duration budget) {
+        this.budget = budget;
+        this.expiresAtNanos = System.nanoTime() + budget.toNanos();
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(budget);
+    }
+
+    /**
+     * @return the deadline of the request running on this thread, or {@code null} when it has none
+     */
+    @Nullable
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs {@code action} with {@code deadline} as the current one, restoring the previous deadline afterwards.
+     */
+    public static <T> T callWithin(Deadline deadline, Supplier<T> action) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Throws {@link DeadlineExceededException} when the current deadline has passed, before any more work is done for
+     * a request that can no longer be answered in time.
+     */
+    public static void checkCurrent() {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.check();
+        }
+    }
+
+    public Duration budget() {
+        return budget;
+    }
+
+    /**
+     * @return the time left, negative once the deadline has passed
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(expiresAtNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @return the time left in whole seconds, rounded up, as JDBC and transaction timeouts only take seconds
+     * @throws DeadlineExceededException when the deadline has passed
+     */
+    public int remainingSeconds() {
+        long remainingNanos = expiresAtNanos - System.nanoTime();
+        if (remainingNanos <= 0) {
+            throw new DeadlineExceededException(budget);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (remainingNanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    public void check() {
+        if (isExpired()) {
+            throw new DeadlineExceededException(budget);
+        }
+    }
+
+    static void set(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    static void restore(@Nullable Deadline previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
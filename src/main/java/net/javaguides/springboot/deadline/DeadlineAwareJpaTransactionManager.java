@@ -0,0 +1,35 @@
+package net.javaguides.springboot.deadline;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * A {@link JpaTransactionManager} whose transactions time out no later than the current {@link Deadline}.
+ * <p>
+ * Hibernate applies the transaction timeout to every statement it issues in the transaction, and {@code JdbcTemplate}
+ * does the same for the connection the transaction exposes, so work done through either is cancelled by the driver
+ * once the request's budget is used up (give or take the second JDBC timeouts are rounded to). A transaction begun
+ * after the deadline has passed fails with {@link DeadlineExceededException} before it takes a connection from the pool.
+ */
+public class DeadlineAwareJpaTransactionManager extends JpaTransactionManager {
+
+    // NOTE: checked up front, as anything thrown from within doBegin is wrapped in a CannotCreateTransactionException
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        Deadline.checkCurrent();
+        super.doBegin(transaction, definition);
+    }
+
+    @Override
+    protected int determineTimeout(TransactionDefinition definition) {
+        int timeout = super.determineTimeout(definition);
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return timeout;
+        }
+        // NOTE: one second more than is left, as Hibernate rounds the time left down and fails statements once that
+        // reaches 0, i.e. up to a second early; the DeadlineStatementListener still caps each statement precisely
+        int remainingSeconds = (deadline.isExpired() ? 0 : deadline.remainingSeconds()) + 1;
+        return timeout == TransactionDefinition.TIMEOUT_DEFAULT ? remainingSeconds : Math.min(timeout, remainingSeconds);
+    }
+}
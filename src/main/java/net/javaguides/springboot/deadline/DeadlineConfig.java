@@ -0,0 +1,23 @@
+package net.javaguides.springboot.deadline;
+
+import net.javaguides.springboot.config.StorageProfiles;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+// NOTE: the interceptor is registered by DeadlineWebConfig, so @WebMvcTest slices get it without a transaction manager
+@Configuration(proxyBeanMethods = false)
+@Profile(StorageProfiles.JPA)
+public class DeadlineConfig {
+
+    // NOTE: replaces Spring Boot's JpaTransactionManager, customized the same way
+    @Bean
+    public JpaTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        JpaTransactionManager transactionManager = new DeadlineAwareJpaTransactionManager();
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+}
@@ -0,0 +1,18 @@
+package net.javaguides.springboot.deadline;
+
+import org.springframework.dao.TransientDataAccessException;
+
+import java.time.Duration;
+
+/**
+ * The request's {@link Deadline} passed before (or while) it reached the database.
+ * <p>
+ * NOTE: a {@link TransientDataAccessException}, like the {@code QueryTimeoutException} the driver's cancellation
+ * surfaces as, so callers that already handle transient database failures handle this one too.
+ */
+public class DeadlineExceededException extends TransientDataAccessException {
+
+    public DeadlineExceededException(Duration budget) {
+        super("Request deadline of " + budget.toMillis() + "ms exceeded");
+    }
+}
@@ -0,0 +1,46 @@
+package net.javaguides.springboot.deadline;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Starts the {@link Deadline} of every request to a controller method when the request reaches it, with the budget
+ * configured for that method, and clears it once the handler returns.
+ * <p>
+ * NOTE: the deadline is cleared when an asynchronous handler releases the request thread too; the work it handed to
+ * the {@code employeeDbExecutor} keeps its own copy.
+ */
+public class DeadlineInterceptor implements AsyncHandlerInterceptor {
+    private final DeadlineProperties properties;
+
+    public DeadlineInterceptor(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            Duration budget = properties.budgetFor(handlerMethod.getBeanType().getSimpleName() + "#" + handlerMethod.getMethod().getName());
+            if (!budget.isZero() && !budget.isNegative()) {
+                Deadline.set(Deadline.after(budget));
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Deadline.restore(null);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                @Nullable Exception ex) {
+        Deadline.restore(null);
+    }
+}
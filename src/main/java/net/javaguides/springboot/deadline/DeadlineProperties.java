@@ -0,0 +1,32 @@
+package net.javaguides.springboot.deadline;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties("employees.deadline")
+public class DeadlineProperties {
+    /**
+     * Time a request may take before its database work is cancelled and it is answered with 503.
+     * Zero disables the deadline.
+     */
+    private Duration defaultBudget = Duration.ofSeconds(5);
+    /**
+     * Budgets overriding the default, by controller and method name (e.g. {@code EmployeeController#getEmployeeById},
+     * bound as {@code endpoints[EmployeeController#getEmployeeById]}). Zero disables the deadline of that endpoint.
+     */
+    private Map<String, Duration> endpoints = new HashMap<>();
+
+    /**
+     * @param handlerMethod the controller's simple class name and the method name, separated by {@code #}
+     */
+    public Duration budgetFor(String handlerMethod) {
+        return endpoints.getOrDefault(handlerMethod, defaultBudget);
+    }
+}
@@ -0,0 +1,43 @@
+package net.javaguides.springboot.deadline;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Caps the query timeout of every JDBC statement at the time left until the current {@link Deadline}, so the driver
+ * cancels a statement that would outlive its request (MySQL Connector/J sends a {@code KILL QUERY} for it) and the
+ * connection goes back to the pool.
+ * <p>
+ * Statements issued after the deadline has passed are not sent at all: {@link DeadlineExceededException} is thrown
+ * instead. Statements issued without a deadline keep whatever timeout they were given.
+ */
+public class DeadlineStatementListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return;
+        }
+        int remainingSeconds = deadline.remainingSeconds();
+        Statement statement = execInfo.getStatement();
+        try {
+            int timeout = statement.getQueryTimeout();
+            // NOTE: keep a shorter timeout set by Hibernate or JdbcTemplate from the (deadline capped) transaction
+            if (timeout == 0 || timeout > remainingSeconds) {
+                statement.setQueryTimeout(remainingSeconds);
+            }
+        } catch (SQLException e) {
+            // NOTE: a driver that cannot time statements out still runs them, the transaction timeout applies
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+}
@@ -0,0 +1,25 @@
+package net.javaguides.springboot.deadline;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(DeadlineProperties.class)
+public class DeadlineWebConfig implements WebMvcConfigurer {
+    private final DeadlineProperties properties;
+
+    public DeadlineWebConfig(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // NOTE: an export streams for as long as employees.export.timeout allows; a deadline would be carried into the
+        // StreamingResponseBody with the request's context and cancel its query after the default budget
+        registry.addInterceptor(new DeadlineInterceptor(properties))
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/employees/export");
+    }
+}
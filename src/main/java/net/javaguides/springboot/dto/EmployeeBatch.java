@@ -0,0 +1,11 @@
+package net.javaguides.springboot.dto;
+
+import net.javaguides.springboot.model.Employee;
+
+import java.util.List;
+
+/**
+ * Result of a multi-get: the employees found, in the order their ids were requested, and the ids that were not found.
+ */
+public record EmployeeBatch(List<Employee> employees, List<Long> missingIds) {
+}
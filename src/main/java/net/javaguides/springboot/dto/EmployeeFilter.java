@@ -0,0 +1,36 @@
+package net.javaguides.springboot.dto;
+
+import net.javaguides.springboot.model.Employee;
+import org.springframework.lang.Nullable;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Criteria of an employee search; {@code null} criteria match every employee.
+ *
+ * @param lastName    exact last name
+ * @param emailDomain domain of the email address, after the {@code @}, compared case-insensitively
+ */
+public record EmployeeFilter(@Nullable String lastName, @Nullable String emailDomain) {
+    /**
+     * Properties a search may be sorted by: those backed by an index, so the database never sorts a full table scan.
+     */
+    public static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "lastName", "email");
+
+    public boolean isEmpty() {
+        return lastName == null && emailDomain == null;
+    }
+
+    public boolean matches(Employee employee) {
+        return (lastName == null || lastName.equals(employee.getLastName()))
+                && (emailDomain == null || employee.getEmail().toLowerCase(Locale.ROOT).endsWith(emailSuffix()));
+    }
+
+    /**
+     * @return the lower-cased {@code @domain} every matching email ends with
+     */
+    public String emailSuffix() {
+        return "@" + emailDomain.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,13 @@
+package net.javaguides.springboot.dto;
+
+import java.util.Map;
+
+/**
+ * Headcounts of the employees, served by {@code GET /api/employees/stats}.
+ *
+ * @param total         how many employees there are
+ * @param byLastName    how many employees share each last name, sorted by last name
+ * @param byEmailDomain how many employees share each email domain (lower-cased), sorted by domain
+ */
+public record EmployeeStats(long total, Map<String, Long> byLastName, Map<String, Long> byEmailDomain) {
+}
@@ -0,0 +1,7 @@
+package net.javaguides.springboot.dto;
+
+/**
+ * Result of a bulk upsert: how many of the employees sent were created, updated, or already up to date.
+ */
+public record EmployeeUpsertCounts(int created, int updated, int unchanged) {
+}
@@ -0,0 +1,45 @@
+package net.javaguides.springboot.exception;
+
+import net.javaguides.springboot.deadline.DeadlineExceededException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    // NOTE: another request updated the employee between our read and our write, so the client's copy is stale
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ProblemDetail handleOptimisticLockingFailure(OptimisticLockingFailureException exception) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED,
+                "Employee was modified concurrently, fetch it again and retry");
+    }
+
+    // NOTE: the bounded DB executor or the export connections are saturated; shed load instead of queueing requests
+    // without limit. The content type is set so the problem is written even where the endpoint only produces Arrow
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ProblemDetail> handleTaskRejected(TaskRejectedException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent requests, retry later"));
+    }
+
+    // NOTE: the request used up its deadline (see Deadline) and its statement was cancelled, or never sent
+    @ExceptionHandler({DeadlineExceededException.class, QueryTimeoutException.class, TransactionTimedOutException.class})
+    public ProblemDetail handleDeadlineExceeded(RuntimeException exception) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, "Request took too long, retry later");
+    }
+
+    // NOTE: the operation exists, but the active storage engine cannot do it safely (see StorageProfiles)
+    @ExceptionHandler(UnsupportedOperationException.class)
+    public ProblemDetail handleUnsupportedOperation(UnsupportedOperationException exception) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_IMPLEMENTED, exception.getMessage());
+    }
+}
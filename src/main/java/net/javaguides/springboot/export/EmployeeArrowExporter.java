@@ -0,0 +1,423 @@
+package net.javaguides.springboot.export;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.WriteChannel;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exports the {@code employees} table as an Apache Arrow IPC stream: one schema message, then record batches of
+ * {@code batchSize} rows, each column stored contiguously.
+ * <p>
+ * Rows are copied straight from a forward-only JDBC cursor into the Arrow vectors; no {@code Employee} is built and
+ * at most one batch is held in (off-heap) memory, whatever the size of the table. With several data sources
+ * (the sharded engine) they are exported one after the other into the same stream, so rows are not in id order.
+ * <p>
+ * {@link #exportParallel} splits the id range of every data source into {@code partitions} ranges instead, and reads
+ * them on up to {@code parallelism} connections at once, each with its own forward-only cursor and Arrow buffers;
+ * the request thread only copies the encoded record batches to the stream. Ordered, the partitions are written one
+ * after the other, each in id order (so a single data source comes out in id order); unordered, batches are written
+ * as soon as any partition fills one, which keeps every connection busy.
+ * <p>
+ * All exports share {@code maxConnections} connections and the threads reading them: an export takes a connection
+ * (a parallel one, up to {@code parallelism}) for as long as it runs, and is rejected with a
+ * {@link TaskRejectedException} when they are all taken, rather than waiting for one with the request thread.
+ * NOTE: Arrow's memory module needs {@code --add-opens=java.base/java.nio=ALL-UNNAMED} on Java 17+.
+ */
+public class EmployeeArrowExporter implements AutoCloseable {
+    public static final MediaType ARROW_STREAM = MediaType.parseMediaType("application/vnd.apache.arrow.stream");
+    public static final Schema SCHEMA = new Schema(List.of(
+            new Field("id", FieldType.notNullable(new ArrowType.Int(64, true)), null),
+            new Field("first_name", FieldType.nullable(ArrowType.Utf8.INSTANCE), null),
+            new Field("last_name", FieldType.nullable(ArrowType.Utf8.INSTANCE), null),
+            new Field("email", FieldType.nullable(ArrowType.Utf8.INSTANCE), null),
+            new Field("version", FieldType.notNullable(new ArrowType.Int(64, true)), null)
+    ));
+    private static final String SELECT_EMPLOYEES = "select id, first_name, last_name, email, version from employees where deleted_at is null";
+    // NOTE: encoded batches a partition may have waiting for the stream, which bounds the memory of a parallel export
+    private static final int QUEUED_BATCHES_PER_PARTITION = 2;
+    private static final Object END_OF_PARTITION = new Object();
+
+    private final List<JdbcTemplate> sources = new ArrayList<>();
+    private final BufferAllocator allocator;
+    private final int batchSize;
+    private final int parallelism;
+    private final int partitions;
+    private final Semaphore connections;
+    // NOTE: never queues a worker for long: every worker submitted holds one of the connections, there are as many threads
+    private final ExecutorService workers;
+
+    public EmployeeArrowExporter(List<DataSource> dataSources, int batchSize, long memoryLimit) {
+        this(dataSources, batchSize, memoryLimit, 1, 1, 1);
+    }
+
+    public EmployeeArrowExporter(List<DataSource> dataSources, int batchSize, long memoryLimit, int parallelism, int partitions,
+                                 int maxConnections) {
+        for (DataSource dataSource : dataSources) {
+            sources.add(streamingJdbcTemplate(dataSource, batchSize));
+        }
+        this.allocator = new RootAllocator(memoryLimit);
+        this.batchSize = batchSize;
+        this.parallelism = Math.min(parallelism, maxConnections);
+        this.partitions = partitions;
+        this.connections = new Semaphore(maxConnections);
+        this.workers = Executors.newFixedThreadPool(maxConnections, new CustomizableThreadFactory("employee-export-"));
+    }
+
+    /**
+     * Writes every employee to the stream, which is left open.
+     *
+     * @return the number of rows exported
+     */
+    public long export(OutputStream outputStream) throws IOException {
+        acquire(1);
+        try (BufferAllocator exportAllocator = allocator.newChildAllocator("employee-export", 0, allocator.getLimit());
+             VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, exportAllocator);
+             ArrowStreamWriter writer = new ArrowStreamWriter(root, null, Channels.newChannel(StreamUtils.nonClosing(outputStream)))) {
+            writer.start();
+            BatchWriter batchWriter = new BatchWriter(root, batch -> writer.writeBatch());
+            try {
+                for (JdbcTemplate source : sources) {
+                    source.query(SELECT_EMPLOYEES, batchWriter);
+                }
+                batchWriter.flush();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.end();
+            return batchWriter.exported;
+        } finally {
+            connections.release();
+        }
+    }
+
+    /**
+     * Writes every employee to the stream, which is left open, reading id ranges in parallel on their own connections.
+     *
+     * @param ordered whether to write the partitions in id order, rather than as their batches are ready
+     * @return the number of rows exported
+     */
+    public long exportParallel(OutputStream outputStream, boolean ordered) throws IOException {
+        List<IdRange> ranges = partition();
+        List<BlockingQueue<Object>> queues = new ArrayList<>();
+        if (ordered) {
+            ranges.forEach(range -> queues.add(new ArrayBlockingQueue<>(QUEUED_BATCHES_PER_PARTITION)));
+        } else {
+            queues.add(new ArrayBlockingQueue<>(QUEUED_BATCHES_PER_PARTITION * Math.max(1, ranges.size())));
+        }
+        int readers = Math.max(1, Math.min(parallelism, ranges.size()));
+        acquire(readers);
+
+        List<PartitionReader> partitionReaders = new ArrayList<>();
+        CountDownLatch finished = new CountDownLatch(readers);
+        try (BufferAllocator exportAllocator = allocator.newChildAllocator("employee-export", 0, allocator.getLimit());
+             VectorSchemaRoot schemaOnly = VectorSchemaRoot.create(SCHEMA, exportAllocator);
+             ArrowStreamWriter writer = new ArrowStreamWriter(schemaOnly, null, Channels.newChannel(StreamUtils.nonClosing(outputStream)))) {
+            try {
+                // NOTE: each reader takes the next range in order, so the one being written is always being read
+                AtomicInteger nextRange = new AtomicInteger();
+                for (int i = 0; i < readers; i++) {
+                    partitionReaders.add(new PartitionReader(finished));
+                }
+                for (PartitionReader partitionReader : partitionReaders) {
+                    partitionReader.future = workers.submit(() -> partitionReader.run(() -> {
+                        int next;
+                        while (!Thread.currentThread().isInterrupted() && (next = nextRange.getAndIncrement()) < ranges.size()) {
+                            exportPartition(ranges.get(next), ordered, exportAllocator, ordered ? queues.get(next) : queues.get(0));
+                        }
+                    }));
+                }
+                writer.start();
+                long exported = 0;
+                // NOTE: unordered, every partition ends in the one shared queue
+                int endsPerQueue = ordered ? 1 : ranges.size();
+                for (BlockingQueue<Object> queue : queues) {
+                    exported += drain(queue, endsPerQueue, outputStream);
+                }
+                writer.end();
+                return exported;
+            } finally {
+                // NOTE: on failure (e.g. the client went away) the readers still reading stop at their next batch;
+                // their buffers must be released before the export's allocator is closed
+                partitionReaders.forEach(PartitionReader::stop);
+                awaitUninterruptibly(finished);
+            }
+        } finally {
+            connections.release(readers);
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        allocator.close();
+    }
+
+    private void acquire(int permits) {
+        if (!connections.tryAcquire(permits)) {
+            throw new TaskRejectedException("Every export connection is in use");
+        }
+    }
+
+    private List<IdRange> partition() {
+        List<IdRange> ranges = new ArrayList<>();
+        for (JdbcTemplate source : sources) {
+            long[] bounds = source.queryForObject("select min(id), max(id) from employees where deleted_at is null",
+                    (resultSet, rowNum) -> resultSet.getObject(1) == null ? null : new long[]{resultSet.getLong(1), resultSet.getLong(2)});
+            if (bounds == null) {
+                continue;
+            }
+            // NOTE: equal id ranges; with auto-increment ids and few deletes that is close to equal row counts
+            long span = bounds[1] - bounds[0] + 1;
+            long size = Math.max(1, (span + partitions - 1) / partitions);
+            for (long from = bounds[0]; from <= bounds[1]; from += size) {
+                ranges.add(new IdRange(source, from, Math.min(bounds[1], from + size - 1)));
+            }
+        }
+        return ranges;
+    }
+
+    private void exportPartition(IdRange range, boolean ordered, BufferAllocator exportAllocator, BlockingQueue<Object> queue) {
+        Object last = END_OF_PARTITION;
+        try (BufferAllocator partitionAllocator = exportAllocator.newChildAllocator("employee-export-partition", 0, exportAllocator.getLimit());
+             VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, partitionAllocator)) {
+            BatchWriter batchWriter = new BatchWriter(root, batch -> put(queue, encode(batch)));
+            range.source().query(SELECT_EMPLOYEES + " and id between ? and ?" + (ordered ? " order by id" : ""),
+                    batchWriter, range.from(), range.to());
+            batchWriter.flush();
+        } catch (RuntimeException | Error e) {
+            // NOTE: a failed partition fails the whole export, on the thread writing it
+            last = new PartitionFailure(e instanceof UncheckedIOException unchecked ? unchecked.getCause() : e);
+        }
+        try {
+            put(queue, last);
+        } catch (InterruptedIOException e) {
+            // NOTE: the export was abandoned, nobody reads the queue anymore
+        }
+    }
+
+    private static long drain(BlockingQueue<Object> queue, int ends, OutputStream outputStream) throws IOException {
+        long exported = 0;
+        while (ends > 0) {
+            Object next;
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Employee export interrupted");
+            }
+            if (next == END_OF_PARTITION) {
+                ends--;
+            } else if (next instanceof EncodedBatch batch) {
+                outputStream.write(batch.bytes());
+                exported += batch.rows();
+            } else if (next instanceof PartitionFailure failure) {
+                if (failure.cause() instanceof IOException ioException) {
+                    throw ioException;
+                }
+                if (failure.cause() instanceof Error error) {
+                    throw error;
+                }
+                throw (RuntimeException) failure.cause();
+            }
+        }
+        return exported;
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static EncodedBatch encode(VectorSchemaRoot root) throws IOException {
+        // NOTE: an encapsulated IPC message is padded to 8 bytes, so encoded batches can be concatenated as they are
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ArrowRecordBatch batch = new VectorUnloader(root).getRecordBatch()) {
+            MessageSerializer.serialize(new WriteChannel(Channels.newChannel(bytes)), batch);
+        }
+        return new EncodedBatch(bytes.toByteArray(), root.getRowCount());
+    }
+
+    private static void put(BlockingQueue<Object> queue, Object item) throws InterruptedIOException {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            // NOTE: stays interrupted, so a partition stopping here does not block again putting its failure
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Employee export abandoned");
+        }
+    }
+
+    private static JdbcTemplate streamingJdbcTemplate(DataSource dataSource, int batchSize) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            // NOTE: MySQL Connector/J reads the whole result into memory unless asked to stream it row by row
+            jdbcTemplate.setFetchSize("MySQL".equalsIgnoreCase(product) ? Integer.MIN_VALUE : batchSize);
+        } catch (MetaDataAccessException e) {
+            jdbcTemplate.setFetchSize(batchSize);
+        }
+        return jdbcTemplate;
+    }
+
+    private record IdRange(JdbcTemplate source, long from, long to) {
+    }
+
+    private record EncodedBatch(byte[] bytes, int rows) {
+    }
+
+    private record PartitionFailure(Throwable cause) {
+    }
+
+    /**
+     * One reader of a parallel export on the shared workers, which counts down {@code finished} once, whether it ran
+     * or was stopped before it started.
+     */
+    private static class PartitionReader {
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CountDownLatch finished;
+        private volatile Future<?> future;
+
+        PartitionReader(CountDownLatch finished) {
+            this.finished = finished;
+        }
+
+        void run(Runnable read) {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                read.run();
+            } finally {
+                finished.countDown();
+            }
+        }
+
+        void stop() {
+            if (started.compareAndSet(false, true)) {
+                finished.countDown();
+            } else {
+                // NOTE: the future interrupts its thread only while this reader runs on it, never the next task
+                future.cancel(true);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchSink {
+        void write(VectorSchemaRoot root) throws IOException;
+    }
+
+    private class BatchWriter implements RowCallbackHandler {
+        private final VectorSchemaRoot root;
+        private final BatchSink sink;
+        private final BigIntVector id;
+        private final VarCharVector firstName;
+        private final VarCharVector lastName;
+        private final VarCharVector email;
+        private final BigIntVector version;
+        private int rows;
+        private long exported;
+
+        BatchWriter(VectorSchemaRoot root, BatchSink sink) {
+            this.root = root;
+            this.sink = sink;
+            this.id = (BigIntVector) root.getVector("id");
+            this.firstName = (VarCharVector) root.getVector("first_name");
+            this.lastName = (VarCharVector) root.getVector("last_name");
+            this.email = (VarCharVector) root.getVector("email");
+            this.version = (BigIntVector) root.getVector("version");
+            root.allocateNew();
+        }
+
+        @Override
+        public void processRow(ResultSet resultSet) throws SQLException {
+            id.setSafe(rows, resultSet.getLong(1));
+            setString(firstName, resultSet.getString(2));
+            setString(lastName, resultSet.getString(3));
+            setString(email, resultSet.getString(4));
+            version.setSafe(rows, resultSet.getLong(5));
+            if (++rows == batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (rows == 0) {
+                return;
+            }
+            root.setRowCount(rows);
+            try {
+                sink.write(root);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            exported += rows;
+            rows = 0;
+            // NOTE: keeps the buffers allocated for the first batch, they are reused by all the following ones
+            for (FieldVector vector : root.getFieldVectors()) {
+                vector.reset();
+            }
+        }
+
+        private void setString(VarCharVector vector, String value) {
+            if (value == null) {
+                vector.setNull(rows);
+            } else {
+                vector.setSafe(rows, value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package net.javaguides.springboot.export;
+
+import net.javaguides.springboot.config.StorageProfiles;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+// NOTE: the sharded engine declares its own exporter over the shards, see ShardingConfig
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ExportProperties.class)
+public class ExportConfig {
+
+    @Bean
+    @Profile(StorageProfiles.JPA)
+    public EmployeeArrowExporter employeeArrowExporter(DataSource dataSource, ExportProperties properties) {
+        return new EmployeeArrowExporter(List.of(dataSource), properties.getBatchSize(), properties.getMemoryLimit().toBytes(),
+                properties.getParallelism(), properties.getPartitions(), properties.getMaxConnections());
+    }
+}
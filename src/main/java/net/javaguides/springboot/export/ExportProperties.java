@@ -0,0 +1,41 @@
+package net.javaguides.springboot.export;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("employees.export")
+public class ExportProperties {
+    /**
+     * Rows per Arrow record batch: larger batches compress and scan better, smaller ones use less memory.
+     */
+    private int batchSize = 8192;
+    /**
+     * Off-heap memory the Arrow exports may use, all running exports together.
+     */
+    private DataSize memoryLimit = DataSize.ofMegabytes(256);
+    /**
+     * Connections (and threads) a parallel export reads with at once; each takes a connection from the pool.
+     */
+    private int parallelism = 4;
+    /**
+     * Id ranges each data source is split into for a parallel export; more than {@link #parallelism}, so a range
+     * that happens to be dense does not leave the other connections idle at the end.
+     */
+    private int partitions = 16;
+    /**
+     * Connections all running exports may read with together, below the connection pool size (10 by default) so the
+     * other requests still get one; an export that would take more is rejected.
+     */
+    private int maxConnections = 8;
+    /**
+     * How long an export may take to stream, in place of {@code spring.mvc.async.request-timeout} (30s by default),
+     * past which the container would cut the response short.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+}
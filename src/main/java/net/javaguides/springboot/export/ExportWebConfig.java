@@ -0,0 +1,52 @@
+package net.javaguides.springboot.export;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ExportProperties.class)
+public class ExportWebConfig implements WebMvcConfigurer {
+    private final ExportProperties properties;
+
+    public ExportWebConfig(ExportProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new ExportTimeoutInterceptor(properties.getTimeout().toMillis()));
+    }
+
+    /**
+     * Gives the exports their own async timeout. A {@code StreamingResponseBody} is run as a {@code Callable} with the
+     * default timeout, which this replaces before the async processing (and its timer) starts.
+     */
+    static class ExportTimeoutInterceptor implements CallableProcessingInterceptor {
+        private final long timeoutMillis;
+
+        ExportTimeoutInterceptor(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            // NOTE: the export mappings are the ones producing an Arrow stream
+            Object producible = request.getAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (request instanceof AsyncWebRequest asyncWebRequest
+                    && producible instanceof Collection<?> mediaTypes
+                    && mediaTypes.contains(EmployeeArrowExporter.ARROW_STREAM)) {
+                asyncWebRequest.setTimeout(timeoutMillis);
+            }
+        }
+    }
+}
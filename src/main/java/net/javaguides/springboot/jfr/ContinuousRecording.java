@@ -0,0 +1,58 @@
+package net.javaguides.springboot.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.ParseException;
+
+/**
+ * A flight recording running for the lifetime of the application, with the JDK's low-overhead {@code default}
+ * settings plus the employee events; enabled with {@code employees.jfr.recording=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "employees.jfr.recording", havingValue = "true")
+@EnableConfigurationProperties(JfrProperties.class)
+public class ContinuousRecording implements SmartLifecycle {
+    private final JfrProperties properties;
+    private Recording recording;
+
+    public ContinuousRecording(JfrProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public synchronized void start() {
+        try {
+            recording = new Recording(Configuration.getConfiguration("default"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid JDK default flight recorder settings", e);
+        }
+        recording.setName("employees");
+        recording.setToDisk(true);
+        recording.setMaxAge(properties.getMaxAge());
+        recording.enable(EmployeeServiceEvent.class).withThreshold(properties.getServiceThreshold());
+        recording.enable(EmployeeRepositoryEvent.class).withThreshold(properties.getRepositoryThreshold());
+        recording.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return recording != null;
+    }
+}
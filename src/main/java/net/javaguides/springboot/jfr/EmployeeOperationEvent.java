@@ -0,0 +1,30 @@
+package net.javaguides.springboot.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Common fields of the employee operation events shown by Java Flight Recorder under the "Employees" category.
+ * NOTE: stack traces are off, the operation name already tells where the event comes from.
+ */
+@Category("Employees")
+@StackTrace(false)
+abstract class EmployeeOperationEvent extends Event {
+    @Label("Operation")
+    @Description("Interface and method called, e.g. EmployeeService.getEmployeeById")
+    String operation;
+
+    @Label("Key")
+    @Description("ID or email the operation was called with, if any")
+    String key;
+
+    @Label("Rows")
+    @Description("Employees returned, or -1 when the result is not made of employees")
+    int rows;
+
+    @Label("Failed")
+    boolean failed;
+}
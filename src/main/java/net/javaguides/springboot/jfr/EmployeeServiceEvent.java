@@ -0,0 +1,11 @@
+package net.javaguides.springboot.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("net.javaguides.employees.ServiceOperation")
+@Label("Employee Service Operation")
+@Threshold("1 ms")
+class EmployeeServiceEvent extends EmployeeOperationEvent {
+}
@@ -0,0 +1,71 @@
+package net.javaguides.springboot.jfr;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * {@code GET /actuator/jfr} downloads a snapshot of every flight recording currently running, as a {@code .jfr} file
+ * to open in JDK Mission Control or {@code jfr print}. Answers 404 when nothing is being recorded.
+ * <p>
+ * NOTE: not exposed by default, a recording reveals a lot about the application; expose it on a management port that
+ * is not reachable from outside ({@code management.server.port}), or behind authentication.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class FlightRecordingEndpoint {
+
+    @ReadOperation(produces = "application/octet-stream")
+    public Resource dump() throws IOException {
+        if (!FlightRecorder.isAvailable() || FlightRecorder.getFlightRecorder().getRecordings().isEmpty()) {
+            return null;
+        }
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            if (snapshot.getSize() == 0) {
+                return null;
+            }
+            Path file = Files.createTempFile("employees-", ".jfr");
+            try {
+                snapshot.dump(file);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+            return new TemporaryFileResource(file);
+        }
+    }
+
+    /**
+     * Streams the dump from disk rather than loading it in the heap (it can hold minutes of events), and deletes
+     * the file once the response has been written.
+     */
+    private static class TemporaryFileResource extends FileSystemResource {
+        TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package net.javaguides.springboot.jfr;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.tracing.ResultRows;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emits an {@link EmployeeServiceEvent} around every {@code EmployeeService} call and an {@link EmployeeRepositoryEvent}
+ * around every {@code EmployeeRepository} call.
+ * <p>
+ * When no recording has the events enabled, {@code isEnabled()} is false and the call goes straight through; the
+ * event fields (key, rows) are only computed for events that last longer than their threshold and get committed.
+ */
+@Aspect
+@Component
+public class JfrEventAspect {
+
+    @Around("net.javaguides.springboot.tracing.LayerPointcuts.service()")
+    public Object recordService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(new EmployeeServiceEvent(), "EmployeeService", joinPoint);
+    }
+
+    @Around("net.javaguides.springboot.tracing.LayerPointcuts.repository()")
+    public Object recordRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(new EmployeeRepositoryEvent(), "EmployeeRepository", joinPoint);
+    }
+
+    private static Object record(EmployeeOperationEvent event, String type, ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.begin();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = type + "." + joinPoint.getSignature().getName();
+                event.key = key(joinPoint.getArgs());
+                event.rows = failed ? -1 : ResultRows.of(result).orElse(-1);
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    private static String key(Object[] args) {
+        if (args.length == 0) {
+            return null;
+        }
+        Object first = args[0];
+        if (first instanceof Number || first instanceof String) {
+            return first.toString();
+        } else if (first instanceof Employee employee) {
+            return employee.getId() != 0 ? Long.toString(employee.getId()) : employee.getEmail();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,30 @@
+package net.javaguides.springboot.jfr;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("employees.jfr")
+public class JfrProperties {
+    /**
+     * Whether to keep a continuous flight recording running, which the {@code jfr} actuator endpoint dumps.
+     * Without it the endpoint dumps whatever recordings were started otherwise (e.g. {@code -XX:StartFlightRecording}).
+     */
+    private boolean recording = false;
+    /**
+     * How much history the continuous recording keeps.
+     */
+    private Duration maxAge = Duration.ofMinutes(10);
+    /**
+     * Minimum duration of an {@code EmployeeService} call to be recorded.
+     */
+    private Duration serviceThreshold = Duration.ofMillis(1);
+    /**
+     * Minimum duration of an {@code EmployeeRepository} call to be recorded.
+     */
+    private Duration repositoryThreshold = Duration.ofMillis(1);
+}
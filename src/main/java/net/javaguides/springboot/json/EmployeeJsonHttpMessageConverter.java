@@ -0,0 +1,94 @@
+package net.javaguides.springboot.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.dto.EmployeeBatch;
+import net.javaguides.springboot.model.Employee;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * Writes {@link Employee} response bodies (single, collections and {@link EmployeeBatch}) with the {@link EmployeeJsonWriter}.
+ * <p>
+ * Spring Boot registers {@code HttpMessageConverter} beans ahead of its defaults, so this converter wins over the
+ * Jackson one for these types and every other body is still handled by Jackson. Request bodies are left to Jackson too.
+ * Bodies that are {@link PreSerializedJson} are copied to the response as they are.
+ */
+@Component
+public class EmployeeJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    private final EmployeeJsonWriter employeeJsonWriter;
+
+    public EmployeeJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.employeeJsonWriter = new EmployeeJsonWriter(objectMapper);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Employee.class.isAssignableFrom(clazz) || EmployeeBatch.class == clazz;
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (supports(clazz)) {
+            return true;
+        }
+        if (type == null || !Collection.class.isAssignableFrom(clazz)) {
+            return false;
+        }
+        // NOTE: collections are only claimed when the declared element type is known to be Employee
+        Class<?> elementType = ResolvableType.forType(type).asCollection().resolveGeneric(0);
+        return elementType != null && Employee.class.isAssignableFrom(elementType);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(@Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (body instanceof PreSerializedJson preSerialized) {
+            outputMessage.getBody().write(preSerialized.json());
+        } else if (body instanceof Employee employee) {
+            employeeJsonWriter.write(employee, outputMessage.getBody());
+        } else if (body instanceof EmployeeBatch batch) {
+            employeeJsonWriter.write(batch, outputMessage.getBody());
+        } else {
+            employeeJsonWriter.write((Collection<? extends Employee>) body, outputMessage.getBody());
+        }
+    }
+
+    @Override
+    protected Long getContentLength(Object body, @Nullable MediaType contentType) {
+        return body instanceof PreSerializedJson preSerialized ? (long) preSerialized.json().length : null;
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Employee bodies are read by the Jackson converter", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Employee bodies are read by the Jackson converter", inputMessage);
+    }
+}
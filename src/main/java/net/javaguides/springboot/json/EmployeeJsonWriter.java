@@ -0,0 +1,116 @@
+package net.javaguides.springboot.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.dto.EmployeeBatch;
+import net.javaguides.springboot.model.Employee;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+
+/**
+ * Hand-written JSON serialization of {@link Employee} and the DTOs built from it.
+ * <p>
+ * Produces exactly what the application {@link ObjectMapper} produces, but streams straight to the output with
+ * pre-encoded field names and no reflection or per-call serializer lookup. Jackson's generator recycles its
+ * byte buffer per thread, so a response costs little more than the bytes it writes.
+ * NOTE: a new Employee field must be added here too; {@code EmployeeJsonWriterTests} compares both outputs.
+ */
+public class EmployeeJsonWriter {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString FIRST_NAME = new SerializedString("firstName");
+    private static final SerializedString LAST_NAME = new SerializedString("lastName");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString VERSION = new SerializedString("version");
+    private static final SerializedString EMPLOYEES = new SerializedString("employees");
+    private static final SerializedString MISSING_IDS = new SerializedString("missingIds");
+
+    private final JsonFactory jsonFactory;
+
+    public EmployeeJsonWriter(ObjectMapper objectMapper) {
+        // NOTE: shares the mapper's factory, so generator features (escaping, pretty printing...) stay consistent
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public void write(Employee employee, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = createGenerator(outputStream)) {
+            writeEmployee(employee, generator);
+        }
+    }
+
+    public void write(Collection<? extends Employee> employees, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = createGenerator(outputStream)) {
+            writeEmployees(employees, generator);
+        }
+    }
+
+    public void write(EmployeeBatch batch, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeFieldName(EMPLOYEES);
+            writeEmployees(batch.employees(), generator);
+            generator.writeFieldName(MISSING_IDS);
+            generator.writeStartArray();
+            for (Long id : batch.missingIds()) {
+                generator.writeNumber(id);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    public byte[] toBytes(Employee employee) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try {
+            write(employee, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public byte[] toBytes(Collection<? extends Employee> employees) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(2, employees.size() * 96));
+        try {
+            write(employees, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private JsonGenerator createGenerator(OutputStream outputStream) throws IOException {
+        // NOTE: the caller owns the stream (e.g. the servlet response), so closing the generator only flushes it
+        return jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private static void writeEmployees(Collection<? extends Employee> employees, JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        for (Employee employee : employees) {
+            writeEmployee(employee, generator);
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeEmployee(Employee employee, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        generator.writeNumber(employee.getId());
+        generator.writeFieldName(FIRST_NAME);
+        generator.writeString(employee.getFirstName());
+        generator.writeFieldName(LAST_NAME);
+        generator.writeString(employee.getLastName());
+        generator.writeFieldName(EMAIL);
+        generator.writeString(employee.getEmail());
+        generator.writeFieldName(VERSION);
+        generator.writeNumber(employee.getVersion());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,162 @@
+package net.javaguides.springboot.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.event.EmployeeChangedEvent;
+import net.javaguides.springboot.service.event.EmployeesChangedEvent;
+import net.javaguides.springboot.service.invalidation.EmployeeInvalidatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the encoded single-employee response (plain JSON and gzip compressed) of recently served employees, so a
+ * repeated {@code GET /api/employees/{id}} copies bytes to the response instead of serializing (and compressing) again.
+ * Enabled unless {@code employees.response-cache.enabled=false}.
+ * <p>
+ * Entries are keyed by id and checked against the version of the employee being served, so a response is never
+ * served for another version than the one just read, whichever order reads and writes race in. Writes made through
+ * any node evict their entry ({@link EmployeeChangedEvent}, {@link EmployeeInvalidatedEvent}), which only frees
+ * the memory early. NOTE: at most {@code employees.response-cache.max-entries} employees are cached; once full, caching
+ * another one evicts the least recently served, so the hot employees stay as the traffic moves on.
+ */
+@Component
+@ConditionalOnProperty(name = "employees.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class EmployeeResponseCache implements MeterBinder {
+    private final EmployeeJsonWriter employeeJsonWriter;
+    private final int maxEntries;
+    // NOTE: guarded by itself; in access order, so the eldest entry is the least recently served
+    private final Map<Long, EmployeeResponse> responses;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public EmployeeResponseCache(ObjectMapper objectMapper,
+                                 @Value("${employees.response-cache.max-entries:10000}") int maxEntries) {
+        this.employeeJsonWriter = new EmployeeJsonWriter(objectMapper);
+        this.maxEntries = maxEntries;
+        this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, EmployeeResponse> eldest) {
+                return size() > EmployeeResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return the encoded response for this version of the employee, from the cache or encoded (and cached) now
+     */
+    public EmployeeResponse get(Employee employee) {
+        EmployeeResponse cached;
+        synchronized (responses) {
+            cached = responses.get(employee.getId());
+        }
+        if (cached != null && cached.version() == employee.getVersion()) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        // NOTE: encoded outside the lock; a concurrent reader may have cached another version meanwhile, either is
+        // right for its version
+        EmployeeResponse response = encode(employee);
+        synchronized (responses) {
+            responses.put(employee.getId(), response);
+        }
+        return response;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        synchronized (responses) {
+            responses.remove(event.id());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeesChanged(EmployeesChangedEvent event) {
+        event.changes().forEach(this::onEmployeeChanged);
+    }
+
+    @EventListener
+    public void onEmployeesInvalidated(EmployeeInvalidatedEvent event) {
+        synchronized (responses) {
+            if (event.isAll()) {
+                responses.clear();
+            } else {
+                event.ids().forEach(responses::remove);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("employees.response.cache.hits", hits, LongAdder::sum)
+                .description("Employee responses served from already encoded bytes")
+                .register(registry);
+        FunctionCounter.builder("employees.response.cache.misses", misses, LongAdder::sum)
+                .description("Employee responses that had to be encoded")
+                .register(registry);
+        Gauge.builder("employees.response.cache.size", this, EmployeeResponseCache::size)
+                .description("Employees whose encoded response is cached")
+                .register(registry);
+    }
+
+    private int size() {
+        synchronized (responses) {
+            return responses.size();
+        }
+    }
+
+    private EmployeeResponse encode(Employee employee) {
+        byte[] json = employeeJsonWriter.toBytes(employee);
+        byte[] gzip = gzip(json);
+        // NOTE: a single employee is small enough that gzip framing can outweigh the savings; then JSON it is
+        return new EmployeeResponse(employee.getVersion(), json, gzip.length < json.length ? gzip : null);
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * The encoded representations of one version of an employee.
+     *
+     * @param gzip the gzip compressed JSON, or {@code null} when it is not smaller than the JSON itself
+     */
+    public record EmployeeResponse(long version, byte[] json, @Nullable byte[] gzip) {
+
+        /**
+         * @return whether {@link #body} is compressed for a client that does (or does not) accept gzip
+         */
+        public boolean isGzipped(boolean gzipAccepted) {
+            return gzipAccepted && gzip != null;
+        }
+
+        /**
+         * @return the bytes to send, compressed when the client accepts gzip and compressing paid off
+         */
+        public byte[] body(boolean gzipAccepted) {
+            return isGzipped(gzipAccepted) ? gzip : json;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package net.javaguides.springboot.json;
+
+/**
+ * A response body whose JSON was produced ahead of time; {@link EmployeeJsonHttpMessageConverter} copies
+ * the bytes to the response as they are instead of serializing the object again.
+ */
+public interface PreSerializedJson {
+
+    /**
+     * @return the UTF-8 JSON representation of this object; must not be modified by the caller
+     */
+    byte[] json();
+}
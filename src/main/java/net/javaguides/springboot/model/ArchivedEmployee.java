@@ -0,0 +1,34 @@
+package net.javaguides.springboot.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An employee deleted long enough ago to be moved out of the {@code employees} table, so that table and its indexes
+ * only hold live rows. Only written by the archiver's native SQL; mapped so the schema is managed with the rest.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name="employees_archive")
+public class ArchivedEmployee {
+    @Id
+    private long id;
+
+    @Column(name="first_name", nullable = false)
+    private String firstName;
+    @Column(name="last_name", nullable = false)
+    private String lastName;
+    @Column(nullable = false)
+    private String email;
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name="deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+    @Column(name="archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -1,15 +1,29 @@
 package net.javaguides.springboot.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.Where;
+
+import java.time.LocalDateTime;
 
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity
-@Table(name="employees")
+// NOTE: the indexes back the search filters and sort orders (see EmployeeFilter); email is also the upsert key,
+// and deleted_at drives the archiver
+@Table(name="employees", indexes = {
+        @Index(name = "idx_employees_last_name", columnList = "last_name"),
+        @Index(name = "uk_employees_email", columnList = "email", unique = true),
+        @Index(name = "idx_employees_deleted_at", columnList = "deleted_at")
+})
+// NOTE: soft delete; deleted rows are invisible to every entity query and load, until the archiver moves them out
+@SQLDelete(sql = "update employees set deleted_at = localtimestamp, version = version + 1 where id = ? and version = ?")
+@Where(clause = "deleted_at is null")
 public class Employee {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,4 +35,13 @@ public class Employee {
     private String lastName;
     @Column(nullable = false)
     private String email;
+
+    // NOTE: optimistic locking; every update checks and bumps it, and clients see it as the ETag
+    @Version
+    private long version;
+
+    // NOTE: database time (localtimestamp), which the archiver also measures retention against
+    @JsonIgnore
+    @Column(name="deleted_at")
+    private LocalDateTime deletedAt;
 }
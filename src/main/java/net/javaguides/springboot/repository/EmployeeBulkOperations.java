@@ -0,0 +1,37 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.Employee;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk writes of {@link EmployeeRepository} that Spring Data cannot derive; JPA gets them from
+ * {@link EmployeeBulkOperationsImpl}, the other storage engines implement them themselves.
+ */
+public interface EmployeeBulkOperations {
+
+    /**
+     * Creates the employees whose email is unknown and updates the names (and version) of the others,
+     * in a single transaction; employees that would not change are left untouched.
+     *
+     * @param employees at most one per email; IDs and versions are ignored
+     */
+    EmployeeUpsert upsertByEmail(List<Employee> employees);
+
+    /**
+     * Moves a batch of the employees deleted longer than {@code retention} ago out of the employees table,
+     * in a single transaction (per database); engines that delete rows outright have nothing to archive.
+     *
+     * @return how many employees were archived, {@code 0} once none is left
+     */
+    int archiveDeleted(Duration retention, int batchSize);
+
+    /**
+     * Archives the deleted employees holding any of the emails right away, so they can be used again.
+     *
+     * @return how many employees were archived
+     */
+    int archiveDeletedByEmail(Collection<String> emails);
+}
@@ -0,0 +1,163 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.support.JdbcEmployeeArchive;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * JPA engine's {@link EmployeeBulkOperations}, picked up by Spring Data through its name.
+ * <p>
+ * Upserts are native batched statements keyed on the unique email column: {@code INSERT ... ON DUPLICATE KEY UPDATE}
+ * on MySQL, a standard {@code MERGE} elsewhere. One select before them leaves out the employees that would not change;
+ * one select after them returns the stored rows, IDs included, told created from updated by the upserts' results.
+ * Soft-deleted rows are archived by plain JDBC too, see {@link JdbcEmployeeArchive}.
+ */
+public class EmployeeBulkOperationsImpl implements EmployeeBulkOperations {
+    private static final String COLUMNS = "id, first_name, last_name, email, version, deleted_at";
+    private static final RowMapper<Employee> EMPLOYEE_ROW_MAPPER = (resultSet, rowNum) -> Employee.builder()
+            .id(resultSet.getLong("id"))
+            .firstName(resultSet.getString("first_name"))
+            .lastName(resultSet.getString("last_name"))
+            .email(resultSet.getString("email"))
+            .version(resultSet.getLong("version"))
+            .deletedAt(resultSet.getObject("deleted_at", LocalDateTime.class))
+            .build();
+
+    private static final String MYSQL_UPSERT = "insert into employees (first_name, last_name, email, version) values (?, ?, ?, 0)"
+            + " on duplicate key update first_name = values(first_name), last_name = values(last_name), version = version + 1";
+    private static final String MERGE_UPSERT = "merge into employees e"
+            + " using (select cast(? as varchar(255)) as first_name, cast(? as varchar(255)) as last_name,"
+            + " cast(? as varchar(255)) as email) s on e.email = s.email"
+            + " when matched then update set first_name = s.first_name, last_name = s.last_name, version = e.version + 1"
+            + " when not matched then insert (first_name, last_name, email, version) values (s.first_name, s.last_name, s.email, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    // NOTE: the JPA transaction manager, so a batch joins (or starts) the same transaction the repository methods use
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcEmployeeArchive archive;
+    private volatile String upsertSql;
+
+    public EmployeeBulkOperationsImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archive = new JdbcEmployeeArchive(jdbcTemplate);
+    }
+
+    @Override
+    public EmployeeUpsert upsertByEmail(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return new EmployeeUpsert(List.of(), List.of(), 0);
+        }
+        return transactionTemplate.execute(status -> {
+            Map<String, Employee> existing = new HashMap<>();
+            List<String> deletedEmails = new ArrayList<>();
+            for (Employee employee : findAllByEmail(employees.stream().map(Employee::getEmail).toList())) {
+                if (employee.getDeletedAt() == null) {
+                    existing.put(employee.getEmail(), employee);
+                } else {
+                    deletedEmails.add(employee.getEmail());
+                }
+            }
+            // NOTE: a soft-deleted row still holds its email's unique key, and the upsert would update it in place
+            archive.archiveDeletedByEmail(deletedEmails);
+
+            List<Employee> changed = new ArrayList<>();
+            for (Employee employee : employees) {
+                Employee current = existing.get(employee.getEmail());
+                if (current == null || !sameNames(current, employee)) {
+                    changed.add(employee);
+                }
+            }
+            if (changed.isEmpty()) {
+                return new EmployeeUpsert(List.of(), List.of(), employees.size());
+            }
+
+            String sql = upsertSql();
+            int[][] affectedRows = jdbcTemplate.batchUpdate(sql, changed, changed.size(), (statement, employee) -> {
+                statement.setString(1, employee.getFirstName());
+                statement.setString(2, employee.getLastName());
+                statement.setString(3, employee.getEmail());
+            });
+            Map<String, Integer> affectedRowsByEmail = new HashMap<>();
+            int index = 0;
+            for (int[] batch : affectedRows) {
+                for (int rows : batch) {
+                    affectedRowsByEmail.put(changed.get(index++).getEmail(), rows);
+                }
+            }
+
+            // NOTE: classified by what the upsert did, not by the select above: a row inserted or deleted by another
+            // transaction in between would otherwise be reported the wrong way
+            List<Employee> created = new ArrayList<>();
+            List<Employee> updated = new ArrayList<>();
+            for (Employee stored : findAllByEmail(changed.stream().map(Employee::getEmail).toList())) {
+                (inserted(sql, affectedRowsByEmail.getOrDefault(stored.getEmail(), Statement.SUCCESS_NO_INFO), stored)
+                        ? created : updated).add(stored);
+            }
+            return new EmployeeUpsert(created, updated, employees.size() - changed.size());
+        });
+    }
+
+    @Override
+    public int archiveDeleted(Duration retention, int batchSize) {
+        Integer archived = transactionTemplate.execute(status -> archive.archiveDeletedBefore(retention, batchSize));
+        return archived == null ? 0 : archived;
+    }
+
+    @Override
+    public int archiveDeletedByEmail(Collection<String> emails) {
+        Integer archived = transactionTemplate.execute(status -> archive.archiveDeletedByEmail(emails));
+        return archived == null ? 0 : archived;
+    }
+
+    // NOTE: native, so soft-deleted rows are included; callers tell them apart by their deletedAt
+    private List<Employee> findAllByEmail(List<String> emails) {
+        return namedJdbcTemplate.query("select " + COLUMNS + " from employees where email in (:emails)",
+                Map.of("emails", emails), EMPLOYEE_ROW_MAPPER);
+    }
+
+    private String upsertSql() {
+        String sql = upsertSql;
+        if (sql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            // NOTE: MariaDB reports itself as such, but shares MySQL's upsert syntax
+            sql = "MySQL".equalsIgnoreCase(product) || "MariaDB".equalsIgnoreCase(product) ? MYSQL_UPSERT : MERGE_UPSERT;
+            upsertSql = sql;
+        }
+        return sql;
+    }
+
+    /**
+     * MySQL reports 1 affected row for an insert and 2 for an update. {@code MERGE} reports 1 either way, as does a
+     * driver rewriting the batch ({@code SUCCESS_NO_INFO}); then the version tells, as only this batch's inserts are
+     * still at version 0 (updates, this batch's included, increment it).
+     */
+    private static boolean inserted(String sql, int affectedRows, Employee stored) {
+        if (MYSQL_UPSERT.equals(sql) && (affectedRows == 1 || affectedRows == 2)) {
+            return affectedRows == 1;
+        }
+        return stored.getVersion() == 0;
+    }
+
+    private static boolean sameNames(Employee current, Employee employee) {
+        return Objects.equals(current.getFirstName(), employee.getFirstName())
+                && Objects.equals(current.getLastName(), employee.getLastName());
+    }
+}
@@ -0,0 +1,20 @@
+package net.javaguides.springboot.repository;
+
+import java.util.Locale;
+
+/**
+ * One group of an aggregation over the employees table, see {@link EmployeeRepository#headcountsByLastName}.
+ *
+ * @param key       the value the employees were grouped by
+ * @param employees how many (live) employees share it
+ */
+public record EmployeeHeadcount(String key, long employees) {
+
+    /**
+     * @return the lower-cased part of the email after the {@code @} (the whole email if there is none), which is
+     * what {@link EmployeeRepository#headcountsByEmailDomain} groups by
+     */
+    public static String emailDomainOf(String email) {
+        return email.substring(email.indexOf('@') + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,13 +1,23 @@
 package net.javaguides.springboot.repository;
 
+import net.javaguides.springboot.dto.EmployeeFilter;
 import net.javaguides.springboot.model.Employee;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+/**
+ * What every storage engine provides; Spring Data JPA implements it through {@link JpaEmployeeRepository}, the other
+ * engines through {@code EmployeeRepositoryAdapter}.
+ */
+// NOTE: native queries bypass the soft delete filter on Employee, so they must exclude deleted rows themselves
+@NoRepositoryBean
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeBulkOperations {
     Optional<Employee> findByEmail(String email);
 
     @Query("select e from Employee e where e.firstName = ?1 and e.lastName = ?2")
@@ -16,9 +26,31 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     @Query("select e from Employee e where e.firstName = :firstNameParam and e.lastName = :lastNameParam")
     Employee findByJpqlNamedParams(@Param("firstNameParam") String firstName, @Param("lastNameParam") String lastName);
 
-    @Query(value = "select * from employees e where e.first_name = ?1 and last_name = ?2", nativeQuery = true)
+    @Query(value = "select * from employees e where e.first_name = ?1 and last_name = ?2 and deleted_at is null", nativeQuery = true)
     Employee findByNativeSql(String firstName, String lastName);
 
-    @Query(value = "select * from employees e where e.first_name = :firstNameParam and last_name = :lastNameParam", nativeQuery = true)
+    @Query(value = "select * from employees e where e.first_name = :firstNameParam and last_name = :lastNameParam and deleted_at is null", nativeQuery = true)
     Employee findByNativeSqlNamedParams(@Param("firstNameParam") String firstName, @Param("lastNameParam") String lastName);
+
+    /**
+     * Every employee, as plain objects rather than managed entities: the persistence context keeps neither them nor
+     * their dirty-checking snapshots, which is what bulk reads that never modify the result should use.
+     */
+    @Query("select new net.javaguides.springboot.model.Employee(e.id, e.firstName, e.lastName, e.email, e.version, e.deletedAt)"
+            + " from Employee e")
+    List<Employee> findAllDetached();
+
+    @Query("select new net.javaguides.springboot.repository.EmployeeHeadcount(e.lastName, count(e))"
+            + " from Employee e group by e.lastName")
+    List<EmployeeHeadcount> headcountsByLastName();
+
+    // NOTE: grouped by the same lower-cased domain EmployeeFilter matches on, see EmployeeHeadcount.emailDomainOf
+    @Query("select new net.javaguides.springboot.repository.EmployeeHeadcount(lower(substring(e.email, locate('@', e.email) + 1)), count(e))"
+            + " from Employee e group by lower(substring(e.email, locate('@', e.email) + 1))")
+    List<EmployeeHeadcount> headcountsByEmailDomain();
+
+    /**
+     * Every employee matching the filter, sorted by the storage engine.
+     */
+    List<Employee> search(EmployeeFilter filter, Sort sort);
 }
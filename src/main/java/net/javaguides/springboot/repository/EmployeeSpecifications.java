@@ -0,0 +1,41 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.dto.EmployeeFilter;
+import net.javaguides.springboot.model.Employee;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Criteria predicates for {@link JpaEmployeeRepository#search}, evaluated by the database.
+ */
+public final class EmployeeSpecifications {
+    // NOTE: not a backslash, which MySQL string literals would treat as an escape of their own
+    public static final char LIKE_ESCAPE = '!';
+
+    private EmployeeSpecifications() {
+    }
+
+    public static Specification<Employee> matching(EmployeeFilter filter) {
+        Specification<Employee> specification = Specification.where(null);
+        if (filter.lastName() != null) {
+            specification = specification.and(lastNameIs(filter.lastName()));
+        }
+        if (filter.emailDomain() != null) {
+            specification = specification.and(emailEndsWith(filter.emailSuffix()));
+        }
+        return specification;
+    }
+
+    // NOTE: equality on the indexed last_name column, so MySQL reads only the matching rows
+    public static Specification<Employee> lastNameIs(String lastName) {
+        return (root, query, builder) -> builder.equal(root.get("lastName"), lastName);
+    }
+
+    // NOTE: a suffix match cannot use the email index, it only narrows the rows the other predicates selected
+    public static Specification<Employee> emailEndsWith(String suffix) {
+        return (root, query, builder) -> builder.like(builder.lower(root.get("email")), "%" + escapeLike(suffix), LIKE_ESCAPE);
+    }
+
+    public static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
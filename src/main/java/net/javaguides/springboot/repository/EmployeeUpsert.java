@@ -0,0 +1,15 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.Employee;
+
+import java.util.List;
+
+/**
+ * Outcome of {@link EmployeeBulkOperations#upsertByEmail}.
+ *
+ * @param created   the new employees, as stored
+ * @param updated   the employees whose names changed, as stored
+ * @param unchanged how many employees already matched what was stored
+ */
+public record EmployeeUpsert(List<Employee> created, List<Employee> updated, int unchanged) {
+}
@@ -0,0 +1,22 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.dto.EmployeeFilter;
+import net.javaguides.springboot.model.Employee;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.List;
+
+/**
+ * The Spring Data JPA storage engine. JPA specifications are only available here, since they need a criteria query:
+ * code outside this engine goes through {@link EmployeeRepository#search}.
+ */
+// NOTE: Spring Data only looks for fragment implementations (EmployeeBulkOperationsImpl) among the interfaces a
+// repository extends directly, hence EmployeeBulkOperations again
+public interface JpaEmployeeRepository extends EmployeeRepository, JpaSpecificationExecutor<Employee>, EmployeeBulkOperations {
+
+    @Override
+    default List<Employee> search(EmployeeFilter filter, Sort sort) {
+        return findAll(EmployeeSpecifications.matching(filter), sort);
+    }
+}
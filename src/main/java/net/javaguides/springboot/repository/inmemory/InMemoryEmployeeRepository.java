@@ -0,0 +1,213 @@
+package net.javaguides.springboot.repository.inmemory;
+
+import net.javaguides.springboot.config.StorageProfiles;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeUpsert;
+import net.javaguides.springboot.repository.support.EmployeeRepositoryAdapter;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory storage engine for the {@code employees} table, active with the {@code inmemory} profile.
+ * <p>
+ * Rows live in a sorted concurrent map keyed by id (so {@link #findAll()} comes back in primary key order,
+ * like MySQL), with hash indexes on email and on first/last name for the custom finders.
+ * Reads are lock-free; writes are serialized so a row and its index entries always change together.
+ * Callers only ever see copies of the stored rows, the same way a detached JPA entity behaves, and updates
+ * are checked against the stored {@code version} just like Hibernate's optimistic locking.
+ */
+@Repository
+@Profile(StorageProfiles.IN_MEMORY)
+public class InMemoryEmployeeRepository extends EmployeeRepositoryAdapter {
+
+    private final ConcurrentSkipListMap<Long, Employee> rows = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<Long>> emailIndex = new ConcurrentHashMap<>();
+    private final Map<NameKey, Set<Long>> nameIndex = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+    private final Lock writeLock = new ReentrantLock();
+
+    @Override
+    public Optional<Employee> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        List<Employee> matches = lookup(emailIndex.get(email), employee -> employee.getEmail().equals(email));
+        if (matches.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, matches.size());
+        }
+        return matches.stream().findFirst();
+    }
+
+    @Override
+    protected List<Employee> findAllByName(String firstName, String lastName) {
+        if (firstName == null || lastName == null) {
+            return Collections.emptyList();
+        }
+        return lookup(nameIndex.get(new NameKey(firstName, lastName)),
+                employee -> employee.getFirstName().equals(firstName) && employee.getLastName().equals(lastName));
+    }
+
+    @Override
+    public <S extends Employee> S save(S entity) {
+        checkNotNull(entity);
+        writeLock.lock();
+        try {
+            Employee previous = entity.getId() == 0 ? null : rows.get(entity.getId());
+            if (previous == null) {
+                // NOTE: like an IDENTITY column, unknown ids are ignored and a fresh one is generated
+                entity.setId(idSequence.incrementAndGet());
+                entity.setVersion(0);
+            } else if (entity.getVersion() != previous.getVersion()) {
+                throw new ObjectOptimisticLockingFailureException(Employee.class, previous.getId());
+            } else {
+                entity.setVersion(previous.getVersion() + 1);
+            }
+            Employee stored = copy(entity);
+            rows.put(stored.getId(), stored);
+            index(stored);
+            if (previous != null) {
+                unindexChangedKeys(previous, stored);
+            }
+            return entity;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public EmployeeUpsert upsertByEmail(List<Employee> employees) {
+        // NOTE: the write lock is reentrant, holding it makes the whole batch atomic for other writers
+        writeLock.lock();
+        try {
+            return super.upsertByEmail(employees);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Employee> findById(Long id) {
+        return Optional.ofNullable(rows.get(id)).map(InMemoryEmployeeRepository::copy);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return rows.containsKey(id);
+    }
+
+    @Override
+    public List<Employee> findAll() {
+        List<Employee> employees = new ArrayList<>(rows.size());
+        for (Employee employee : rows.values()) {
+            employees.add(copy(employee));
+        }
+        return employees;
+    }
+
+    @Override
+    public long count() {
+        return rows.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        writeLock.lock();
+        try {
+            Employee removed = rows.remove(id);
+            if (removed != null) {
+                unindex(removed);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        writeLock.lock();
+        try {
+            rows.clear();
+            emailIndex.clear();
+            nameIndex.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private List<Employee> lookup(Set<Long> ids, Predicate<Employee> stillMatches) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Employee> matches = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Employee employee = rows.get(id);
+            // NOTE: a concurrent write may have changed the row since the index was read, so re-check it
+            if (employee != null && stillMatches.test(employee)) {
+                matches.add(copy(employee));
+            }
+        }
+        matches.sort(Comparator.comparingLong(Employee::getId));
+        return matches;
+    }
+
+    private void index(Employee employee) {
+        emailIndex.computeIfAbsent(employee.getEmail(), key -> ConcurrentHashMap.newKeySet()).add(employee.getId());
+        nameIndex.computeIfAbsent(NameKey.of(employee), key -> ConcurrentHashMap.newKeySet()).add(employee.getId());
+    }
+
+    private void unindex(Employee employee) {
+        removeFromIndex(emailIndex, employee.getEmail(), employee.getId());
+        removeFromIndex(nameIndex, NameKey.of(employee), employee.getId());
+    }
+
+    private void unindexChangedKeys(Employee previous, Employee current) {
+        // NOTE: keys that did not change stay indexed throughout, so concurrent readers never miss the row
+        if (!previous.getEmail().equals(current.getEmail())) {
+            removeFromIndex(emailIndex, previous.getEmail(), previous.getId());
+        }
+        if (!NameKey.of(previous).equals(NameKey.of(current))) {
+            removeFromIndex(nameIndex, NameKey.of(previous), previous.getId());
+        }
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<Long>> index, K key, long id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static void checkNotNull(Employee employee) {
+        // NOTE: mirrors the nullable = false constraints on the employees columns
+        if (employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null) {
+            throw new DataIntegrityViolationException("not-null property references a null or transient value: " + Employee.class.getName());
+        }
+    }
+
+    private static Employee copy(Employee employee) {
+        return employee.toBuilder().build();
+    }
+
+    private record NameKey(String firstName, String lastName) {
+        static NameKey of(Employee employee) {
+            return new NameKey(employee.getFirstName(), employee.getLastName());
+        }
+    }
+}
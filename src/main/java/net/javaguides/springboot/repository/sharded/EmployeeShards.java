@@ -0,0 +1,127 @@
+package net.javaguides.springboot.repository.sharded;
+
+import io.micrometer.context.ContextSnapshot;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The shard databases of the {@code employees} table and the routing between them.
+ * <p>
+ * Single-row operations go to {@link #forId(long)}; queries that need every shard go through
+ * {@link #fanOut(Function)}, which runs the first shard's query on the calling thread and the others in parallel on
+ * a shared pool. The pool has {@code concurrency} threads per other shard, so that many fan-outs (typically the
+ * connection pool size of a shard) run at once; beyond its queue they are rejected with a
+ * {@link org.springframework.core.task.TaskRejectedException} (503) rather than piling up.
+ * Forked queries run with the caller's context, so they keep its {@code Deadline} and trace.
+ */
+public class EmployeeShards implements AutoCloseable {
+    private final List<DataSource> dataSources;
+    private final List<JdbcTemplate> jdbcTemplates = new ArrayList<>();
+    private final List<TransactionTemplate> transactionTemplates = new ArrayList<>();
+    private final ThreadPoolTaskExecutor fanOutExecutor;
+
+    /**
+     * Shards that run one fan-out at a time, queueing the others without limit.
+     */
+    public EmployeeShards(List<DataSource> dataSources) {
+        this(dataSources, 1, Integer.MAX_VALUE);
+    }
+
+    public EmployeeShards(List<DataSource> dataSources, int concurrency, int queueCapacity) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.dataSources = List.copyOf(dataSources);
+        for (DataSource dataSource : this.dataSources) {
+            jdbcTemplates.add(new JdbcTemplate(dataSource));
+            transactionTemplates.add(new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        }
+        int threads = Math.max(1, (dataSources.size() - 1) * concurrency);
+        this.fanOutExecutor = new ThreadPoolTaskExecutor();
+        fanOutExecutor.setThreadNamePrefix("employee-shard-fan-out-");
+        fanOutExecutor.setDaemon(true);
+        fanOutExecutor.setCorePoolSize(threads);
+        fanOutExecutor.setMaxPoolSize(threads);
+        fanOutExecutor.setQueueCapacity(queueCapacity);
+        fanOutExecutor.setTaskDecorator(task -> ContextSnapshot.captureAll().wrap(task));
+        fanOutExecutor.initialize();
+    }
+
+    public int count() {
+        return jdbcTemplates.size();
+    }
+
+    public int indexOf(long id) {
+        return (int) Math.floorMod(id, (long) jdbcTemplates.size());
+    }
+
+    public JdbcTemplate forId(long id) {
+        return shard(indexOf(id));
+    }
+
+    public JdbcTemplate shard(int index) {
+        return jdbcTemplates.get(index);
+    }
+
+    public TransactionTemplate transactionTemplate(int index) {
+        return transactionTemplates.get(index);
+    }
+
+    public DataSource dataSource(int index) {
+        return dataSources.get(index);
+    }
+
+    /**
+     * Runs the query on every shard in parallel.
+     *
+     * @return one result per shard, in shard order
+     */
+    public <T> List<T> fanOut(Function<JdbcTemplate, T> query) {
+        return fanOut((index, jdbcTemplate) -> query.apply(jdbcTemplate));
+    }
+
+    /**
+     * Same as {@link #fanOut(Function)}, for queries that depend on the shard index.
+     */
+    public <T> List<T> fanOut(BiFunction<Integer, JdbcTemplate, T> query) {
+        List<CompletableFuture<T>> calls = new ArrayList<>(jdbcTemplates.size() - 1);
+        for (int index = 1; index < jdbcTemplates.size(); index++) {
+            int shard = index;
+            calls.add(CompletableFuture.supplyAsync(() -> query.apply(shard, jdbcTemplates.get(shard)), fanOutExecutor));
+        }
+        // NOTE: the caller queries the first shard itself meanwhile, so a single shard never leaves the calling thread
+        List<T> results = new ArrayList<>(jdbcTemplates.size());
+        results.add(query.apply(0, jdbcTemplates.get(0)));
+        for (CompletableFuture<T> call : calls) {
+            try {
+                results.add(call.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void close() throws Exception {
+        fanOutExecutor.shutdown();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
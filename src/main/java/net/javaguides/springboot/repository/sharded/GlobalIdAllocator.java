@@ -0,0 +1,67 @@
+package net.javaguides.springboot.repository.sharded;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hands out employee ids that are unique across all shards and all application instances.
+ * <p>
+ * Ids come from the single-row {@code employee_id_allocator} table on one shard, reserved a block at a time:
+ * one short transaction bumps the counter by the block size, and the ids in the block are then handed out from
+ * memory. Ids are unique but not gap-free, since a restart abandons the rest of the current block.
+ */
+public class GlobalIdAllocator {
+    // NOTE: the key of the one counter row, so a second insert fails instead of adding a second counter
+    private static final int COUNTER_ID = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+
+    private long nextId;
+    private long blockEnd;
+
+    /**
+     * Seeds the counter on a fresh database; run once at startup, before any instance allocates.
+     */
+    public static void initialize(JdbcTemplate jdbcTemplate) {
+        Integer rows = jdbcTemplate.queryForObject("select count(*) from employee_id_allocator where id = " + COUNTER_ID, Integer.class);
+        if (rows == null || rows == 0) {
+            try {
+                jdbcTemplate.update("insert into employee_id_allocator (id, next_id) values (" + COUNTER_ID + ", 1)");
+            } catch (DuplicateKeyException e) {
+                // NOTE: another instance starting on the same empty database seeded it in between; one row it is
+            }
+        }
+    }
+
+    public GlobalIdAllocator(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.blockSize = blockSize;
+    }
+
+    public synchronized long nextId() {
+        if (nextId == blockEnd) {
+            reserveBlock();
+        }
+        return nextId++;
+    }
+
+    private void reserveBlock() {
+        Long end = transactionTemplate.execute(status -> {
+            // NOTE: the UPDATE row-locks the counter, so concurrent instances reserve disjoint blocks
+            int updated = jdbcTemplate.update("update employee_id_allocator set next_id = next_id + ? where id = " + COUNTER_ID, blockSize);
+            if (updated != 1) {
+                throw new IllegalStateException("employee_id_allocator has no counter row, run initialize() first");
+            }
+            return jdbcTemplate.queryForObject("select next_id from employee_id_allocator where id = " + COUNTER_ID, Long.class);
+        });
+        blockEnd = end;
+        nextId = end - blockSize;
+    }
+}
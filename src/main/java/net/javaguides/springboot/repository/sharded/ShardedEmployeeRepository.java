@@ -0,0 +1,241 @@
+package net.javaguides.springboot.repository.sharded;
+
+import net.javaguides.springboot.dto.EmployeeFilter;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeHeadcount;
+import net.javaguides.springboot.repository.EmployeeSpecifications;
+import net.javaguides.springboot.repository.EmployeeUpsert;
+import net.javaguides.springboot.repository.support.JdbcEmployeeArchive;
+import net.javaguides.springboot.repository.support.EmployeeRepositoryAdapter;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Storage engine that spreads the {@code employees} table over several databases, active with the {@code sharded} profile.
+ * <p>
+ * A row lives on shard {@code id % shards}, so lookups and writes by id touch a single database; ids come from the
+ * {@link GlobalIdAllocator} because per-shard auto-increment columns would collide. Lookups by any other column
+ * ({@code findAll}, {@code findByEmail}, the name finders) fan out to all shards in parallel and merge the results
+ * in id order, which is the order a single MySQL table returns them in.
+ * Deletes are soft, and every query skips deleted rows; {@link #archiveDeleted} moves them out shard by shard.
+ */
+public class ShardedEmployeeRepository extends EmployeeRepositoryAdapter {
+    private static final String COLUMNS = "id, first_name, last_name, email, version";
+    // NOTE: soft delete, like the JPA engine: deleted rows stay (invisible) until the archiver moves them out
+    private static final String LIVE = "deleted_at is null";
+    private static final String SOFT_DELETE = "update employees set deleted_at = localtimestamp, version = version + 1";
+    private static final RowMapper<Employee> EMPLOYEE_ROW_MAPPER = (resultSet, rowNum) -> Employee.builder()
+            .id(resultSet.getLong("id"))
+            .firstName(resultSet.getString("first_name"))
+            .lastName(resultSet.getString("last_name"))
+            .email(resultSet.getString("email"))
+            .version(resultSet.getLong("version"))
+            .build();
+
+    private final EmployeeShards shards;
+    private final GlobalIdAllocator idAllocator;
+
+    public ShardedEmployeeRepository(EmployeeShards shards, GlobalIdAllocator idAllocator) {
+        this.shards = shards;
+        this.idAllocator = idAllocator;
+    }
+
+    @Override
+    public Optional<Employee> findByEmail(String email) {
+        List<Employee> matches = merge(shards.fanOut(jdbcTemplate -> jdbcTemplate.query(
+                "select " + COLUMNS + " from employees where email = ? and " + LIVE, EMPLOYEE_ROW_MAPPER, email)));
+        if (matches.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, matches.size());
+        }
+        return matches.stream().findFirst();
+    }
+
+    /**
+     * Not supported: rows are placed by id, so nothing keeps an email unique across shards, and a batch spanning
+     * shards cannot be applied atomically; upserting would silently create duplicates under concurrent writers.
+     */
+    @Override
+    public EmployeeUpsert upsertByEmail(List<Employee> employees) {
+        throw new UnsupportedOperationException("Upserts by email are not supported by the sharded employee storage engine,"
+                + " as emails are not unique across shards");
+    }
+
+    @Override
+    protected List<Employee> findAllByName(String firstName, String lastName) {
+        return merge(shards.fanOut(jdbcTemplate -> jdbcTemplate.query(
+                "select " + COLUMNS + " from employees where first_name = ? and last_name = ? and " + LIVE,
+                EMPLOYEE_ROW_MAPPER, firstName, lastName)));
+    }
+
+    @Override
+    public List<Employee> search(EmployeeFilter filter, Sort sort) {
+        StringBuilder sql = new StringBuilder("select " + COLUMNS + " from employees where " + LIVE);
+        List<Object> args = new ArrayList<>();
+        if (filter.lastName() != null) {
+            sql.append(" and last_name = ?");
+            args.add(filter.lastName());
+        }
+        if (filter.emailDomain() != null) {
+            sql.append(" and lower(email) like ? escape '").append(EmployeeSpecifications.LIKE_ESCAPE).append("'");
+            args.add("%" + EmployeeSpecifications.escapeLike(filter.emailSuffix()));
+        }
+        // NOTE: each shard filters on its own indexes; the (much smaller) merged result is then sorted once here
+        List<Employee> matches = merge(shards.fanOut(jdbcTemplate -> jdbcTemplate.query(
+                sql.toString(), EMPLOYEE_ROW_MAPPER, args.toArray())));
+        matches.sort(comparatorFor(sort));
+        return matches;
+    }
+
+    @Override
+    public List<EmployeeHeadcount> headcountsByLastName() {
+        return headcounts("last_name");
+    }
+
+    @Override
+    public List<EmployeeHeadcount> headcountsByEmailDomain() {
+        return headcounts("lower(substring(email, locate('@', email) + 1))");
+    }
+
+    @Override
+    public <S extends Employee> S save(S entity) {
+        checkNotNull(entity);
+        if (entity.getId() != 0) {
+            JdbcTemplate shard = shards.forId(entity.getId());
+            int updated = shard.update("update employees set first_name = ?, last_name = ?, email = ?, version = version + 1"
+                            + " where id = ? and version = ? and " + LIVE,
+                    entity.getFirstName(), entity.getLastName(), entity.getEmail(), entity.getId(), entity.getVersion());
+            if (updated == 1) {
+                entity.setVersion(entity.getVersion() + 1);
+                return entity;
+            }
+            // NOTE: nothing updated means either a stale version or a row that does not exist (yet)
+            if (exists(shard, entity.getId())) {
+                throw new ObjectOptimisticLockingFailureException(Employee.class, entity.getId());
+            }
+        }
+
+        // NOTE: like an IDENTITY column, unknown ids are ignored and a fresh one is generated
+        long id = idAllocator.nextId();
+        shards.forId(id).update("insert into employees (" + COLUMNS + ") values (?, ?, ?, ?, 0)",
+                id, entity.getFirstName(), entity.getLastName(), entity.getEmail());
+        entity.setId(id);
+        entity.setVersion(0);
+        return entity;
+    }
+
+    @Override
+    public Optional<Employee> findById(Long id) {
+        return shards.forId(id).query("select " + COLUMNS + " from employees where id = ? and " + LIVE, EMPLOYEE_ROW_MAPPER, id)
+                .stream().findFirst();
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return exists(shards.forId(id), id);
+    }
+
+    @Override
+    public List<Employee> findAllById(Iterable<Long> ids) {
+        // NOTE: one IN-list query per shard that owns any of the ids, instead of one query per id
+        Map<Integer, List<Long>> idsByShard = new TreeMap<>();
+        for (Long id : ids) {
+            idsByShard.computeIfAbsent(shards.indexOf(id), shard -> new ArrayList<>()).add(id);
+        }
+        return merge(shards.fanOut((shard, jdbcTemplate) -> {
+            List<Long> shardIds = idsByShard.get(shard);
+            if (shardIds == null) {
+                return List.of();
+            }
+            return new NamedParameterJdbcTemplate(jdbcTemplate).query(
+                    "select " + COLUMNS + " from employees where id in (:ids) and " + LIVE, Map.of("ids", shardIds), EMPLOYEE_ROW_MAPPER);
+        }));
+    }
+
+    @Override
+    public List<Employee> findAll() {
+        return merge(shards.fanOut(jdbcTemplate -> jdbcTemplate.query(
+                "select " + COLUMNS + " from employees where " + LIVE, EMPLOYEE_ROW_MAPPER)));
+    }
+
+    @Override
+    public long count() {
+        return shards.fanOut(jdbcTemplate -> jdbcTemplate.queryForObject("select count(*) from employees where " + LIVE, Long.class))
+                .stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        shards.forId(id).update(SOFT_DELETE + " where id = ? and " + LIVE, id);
+    }
+
+    @Override
+    public int archiveDeleted(Duration retention, int batchSize) {
+        return archivePerShard(archive -> archive.archiveDeletedBefore(retention, batchSize));
+    }
+
+    @Override
+    public int archiveDeletedByEmail(Collection<String> emails) {
+        return archivePerShard(archive -> archive.archiveDeletedByEmail(emails));
+    }
+
+    @Override
+    public void deleteAll() {
+        shards.fanOut(jdbcTemplate -> jdbcTemplate.update(SOFT_DELETE + " where " + LIVE));
+    }
+
+    // NOTE: each shard groups its own rows, so only one row per key and shard crosses the network; the sums are added here
+    private List<EmployeeHeadcount> headcounts(String key) {
+        Map<String, Long> counts = new TreeMap<>();
+        shards.fanOut(jdbcTemplate -> jdbcTemplate.query("select " + key + " as group_key, count(*) as employees from employees"
+                                + " where " + LIVE + " group by " + key,
+                        (resultSet, rowNum) -> new EmployeeHeadcount(resultSet.getString("group_key"), resultSet.getLong("employees"))))
+                .forEach(shardCounts -> shardCounts.forEach(headcount -> counts.merge(headcount.key(), headcount.employees(), Long::sum)));
+        List<EmployeeHeadcount> headcounts = new ArrayList<>(counts.size());
+        counts.forEach((value, employees) -> headcounts.add(new EmployeeHeadcount(value, employees)));
+        return headcounts;
+    }
+
+    private int archivePerShard(ToIntFunction<JdbcEmployeeArchive> operation) {
+        int archived = 0;
+        for (int shard = 0; shard < shards.count(); shard++) {
+            JdbcEmployeeArchive archive = new JdbcEmployeeArchive(shards.shard(shard));
+            Integer archivedOnShard = shards.transactionTemplate(shard).execute(status -> operation.applyAsInt(archive));
+            archived += archivedOnShard == null ? 0 : archivedOnShard;
+        }
+        return archived;
+    }
+
+    private static boolean exists(JdbcTemplate shard, long id) {
+        Integer rows = shard.queryForObject("select count(*) from employees where id = ? and " + LIVE, Integer.class, id);
+        return rows != null && rows > 0;
+    }
+
+    private static List<Employee> merge(List<List<Employee>> resultsPerShard) {
+        List<Employee> merged = new ArrayList<>();
+        resultsPerShard.forEach(merged::addAll);
+        merged.sort(Comparator.comparingLong(Employee::getId));
+        return merged;
+    }
+
+    private static void checkNotNull(Employee employee) {
+        // NOTE: mirrors the nullable = false constraints on the employees columns, before an id is spent on the row
+        if (employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null) {
+            throw new DataIntegrityViolationException("not-null property references a null or transient value: " + Employee.class.getName());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package net.javaguides.springboot.repository.sharded;
+
+import net.javaguides.springboot.config.DataSourceProxyConfig.DataSourceProxies;
+import net.javaguides.springboot.config.StorageProfiles;
+import net.javaguides.springboot.export.EmployeeArrowExporter;
+import net.javaguides.springboot.export.ExportProperties;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration(proxyBeanMethods = false)
+@Profile(StorageProfiles.SHARDED)
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public EmployeeShards employeeShards(ShardingProperties properties, DataSourceProxies dataSourceProxies) {
+        List<DataSource> dataSources = new ArrayList<>();
+        List<DataSourceProperties> shards = properties.getShards();
+        for (int index = 0; index < shards.size(); index++) {
+            // NOTE: not beans, so they are proxied here for the slow query log, JDBC spans and deadlines
+            DataSource dataSource = dataSourceProxies.proxy(shards.get(index).initializeDataSourceBuilder().build(), "employeeShard" + index);
+            if (properties.isInitializeSchema()) {
+                new ResourceDatabasePopulator(new ClassPathResource("db/sharding/schema.sql")).execute(dataSource);
+                new ResourceDatabasePopulator(true, false, null, new ClassPathResource("db/sharding/upgrade.sql")).execute(dataSource);
+            }
+            dataSources.add(dataSource);
+        }
+        return new EmployeeShards(dataSources, properties.getFanOutConcurrency(), properties.getFanOutQueueCapacity());
+    }
+
+    @Bean
+    public GlobalIdAllocator globalIdAllocator(EmployeeShards employeeShards, ShardingProperties properties) {
+        // NOTE: the counter lives on the first shard, which therefore can never be removed
+        if (properties.isInitializeSchema()) {
+            GlobalIdAllocator.initialize(employeeShards.shard(0));
+        }
+        return new GlobalIdAllocator(employeeShards.shard(0), employeeShards.transactionTemplate(0), properties.getIdBlockSize());
+    }
+
+    @Bean
+    public EmployeeArrowExporter employeeArrowExporter(EmployeeShards employeeShards, ExportProperties properties) {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int shard = 0; shard < employeeShards.count(); shard++) {
+            dataSources.add(employeeShards.dataSource(shard));
+        }
+        return new EmployeeArrowExporter(dataSources, properties.getBatchSize(), properties.getMemoryLimit().toBytes(),
+                properties.getParallelism(), properties.getPartitions(), properties.getMaxConnections());
+    }
+
+    @Bean
+    public ShardedEmployeeRepository shardedEmployeeRepository(EmployeeShards employeeShards, GlobalIdAllocator globalIdAllocator) {
+        return new ShardedEmployeeRepository(employeeShards, globalIdAllocator);
+    }
+}
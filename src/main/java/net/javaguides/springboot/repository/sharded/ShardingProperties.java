@@ -0,0 +1,36 @@
+package net.javaguides.springboot.repository.sharded;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties("employees.sharding")
+public class ShardingProperties {
+    /**
+     * Connection settings of each shard, in shard order. Employee {@code id} lives on shard {@code id % shards.size()},
+     * so shards can only be appended together with a data migration.
+     */
+    private List<DataSourceProperties> shards = new ArrayList<>();
+    /**
+     * Ids reserved from the global allocator per round trip.
+     */
+    private int idBlockSize = 100;
+    /**
+     * Whether to create the employees and allocator tables on every shard at startup when missing.
+     */
+    private boolean initializeSchema = true;
+    /**
+     * Fan-outs to every shard that may run at once, like the connection pool size of a shard (10 by default).
+     */
+    private int fanOutConcurrency = 10;
+    /**
+     * Fan-outs waiting for a thread past {@link #fanOutConcurrency}; any beyond these are rejected with 503.
+     */
+    private int fanOutQueueCapacity = 100;
+}
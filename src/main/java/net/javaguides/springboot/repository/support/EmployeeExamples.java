@@ -0,0 +1,81 @@
+package net.javaguides.springboot.repository.support;
+
+import net.javaguides.springboot.model.Employee;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.support.ExampleMatcherAccessor;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Evaluates a query-by-example probe against a single employee, the way Spring Data JPA turns it into a where clause:
+ * {@code null} properties are skipped (or must be {@code null} with {@link ExampleMatcher.NullHandler#INCLUDE}),
+ * strings honour the matcher's string matching and case sensitivity per path, everything else must be equal.
+ */
+final class EmployeeExamples {
+    private static final Map<String, Function<Employee, Object>> PROPERTIES = new LinkedHashMap<>();
+
+    static {
+        PROPERTIES.put("id", Employee::getId);
+        PROPERTIES.put("firstName", Employee::getFirstName);
+        PROPERTIES.put("lastName", Employee::getLastName);
+        PROPERTIES.put("email", Employee::getEmail);
+        PROPERTIES.put("version", Employee::getVersion);
+        PROPERTIES.put("deletedAt", Employee::getDeletedAt);
+    }
+
+    private EmployeeExamples() {
+    }
+
+    static boolean matches(Example<? extends Employee> example, Employee employee) {
+        ExampleMatcherAccessor matcher = new ExampleMatcherAccessor(example.getMatcher());
+        boolean allMatching = example.getMatcher().isAllMatching();
+        boolean anyConsidered = false;
+        for (Map.Entry<String, Function<Employee, Object>> property : PROPERTIES.entrySet()) {
+            String path = property.getKey();
+            if (matcher.isIgnoredPath(path)) {
+                continue;
+            }
+            Object expected = matcher.getValueTransformerForPath(path)
+                    .apply(Optional.ofNullable(property.getValue().apply(example.getProbe())))
+                    .orElse(null);
+            if (expected == null && matcher.getNullHandler() == ExampleMatcher.NullHandler.IGNORE) {
+                continue;
+            }
+            anyConsidered = true;
+            boolean matched = matches(matcher, path, expected, property.getValue().apply(employee));
+            if (matched != allMatching) {
+                // NOTE: one mismatch fails an all-matching example, one match satisfies an any-matching one
+                return matched;
+            }
+        }
+        // NOTE: like the empty where clause JPA generates, an example without any property matches everyone
+        return allMatching || !anyConsidered;
+    }
+
+    private static boolean matches(ExampleMatcherAccessor matcher, String path, Object expected, Object actual) {
+        if (expected == null || actual == null) {
+            return expected == actual;
+        }
+        if (!(expected instanceof String expectedString)) {
+            return Objects.equals(expected, actual);
+        }
+        String actualString = (String) actual;
+        if (matcher.isIgnoreCaseForPath(path)) {
+            expectedString = expectedString.toLowerCase(Locale.ROOT);
+            actualString = actualString.toLowerCase(Locale.ROOT);
+        }
+        return switch (matcher.getStringMatcherForPath(path)) {
+            case DEFAULT, EXACT -> actualString.equals(expectedString);
+            case STARTING -> actualString.startsWith(expectedString);
+            case ENDING -> actualString.endsWith(expectedString);
+            case CONTAINING -> actualString.contains(expectedString);
+            case REGEX -> actualString.matches(expectedString);
+        };
+    }
+}
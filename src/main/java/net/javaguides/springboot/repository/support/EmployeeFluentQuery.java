@@ -0,0 +1,136 @@
+package net.javaguides.springboot.repository.support;
+
+import net.javaguides.springboot.model.Employee;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * {@link FluentQuery.FetchableFluentQuery} over the employees an engine matched in memory, for
+ * {@link EmployeeRepositoryAdapter#findBy}.
+ * <p>
+ * Results are converted to the requested type like Spring Data does: instances of it are returned as they are,
+ * interfaces get a projection proxy. Property hints ({@link #project}) are accepted and ignored, as every row is
+ * read whole anyway.
+ */
+final class EmployeeFluentQuery<T> implements FluentQuery.FetchableFluentQuery<T> {
+    private static final ProjectionFactory PROJECTION_FACTORY = new SpelAwareProxyProjectionFactory();
+
+    private final Supplier<List<Employee>> matches;
+    private final Class<T> resultType;
+    private final Sort sort;
+    private final int limit;
+
+    private EmployeeFluentQuery(Supplier<List<Employee>> matches, Class<T> resultType, Sort sort, int limit) {
+        this.matches = matches;
+        this.resultType = resultType;
+        this.sort = sort;
+        this.limit = limit;
+    }
+
+    static <T> EmployeeFluentQuery<T> of(Supplier<List<Employee>> matches, Class<T> resultType) {
+        return new EmployeeFluentQuery<>(matches, resultType, Sort.unsorted(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public FetchableFluentQuery<T> sortBy(Sort sort) {
+        return new EmployeeFluentQuery<>(matches, resultType, this.sort.and(sort), limit);
+    }
+
+    @Override
+    public FetchableFluentQuery<T> limit(int limit) {
+        if (limit < 0) {
+            throw new InvalidDataAccessApiUsageException("Limit must not be negative");
+        }
+        return new EmployeeFluentQuery<>(matches, resultType, sort, limit);
+    }
+
+    @Override
+    public <R> FetchableFluentQuery<R> as(Class<R> resultType) {
+        if (!resultType.isAssignableFrom(Employee.class) && !resultType.isInterface()) {
+            throw new InvalidDataAccessApiUsageException("Employees can only be returned as " + Employee.class.getName()
+                    + " or projected onto an interface, not as " + resultType.getName());
+        }
+        return new EmployeeFluentQuery<>(matches, resultType, sort, limit);
+    }
+
+    @Override
+    public FetchableFluentQuery<T> project(Collection<String> properties) {
+        return this;
+    }
+
+    @Override
+    public T oneValue() {
+        List<Employee> employees = employees(2);
+        if (employees.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, employees.size());
+        }
+        return employees.isEmpty() ? null : convert(employees.get(0));
+    }
+
+    @Override
+    public T firstValue() {
+        List<Employee> employees = employees(1);
+        return employees.isEmpty() ? null : convert(employees.get(0));
+    }
+
+    @Override
+    public List<T> all() {
+        return employees(limit).stream().map(this::convert).toList();
+    }
+
+    @Override
+    public Page<T> page(Pageable pageable) {
+        List<Employee> employees = sorted(pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(employees.stream().map(this::convert).toList());
+        }
+        int from = (int) Math.min(pageable.getOffset(), employees.size());
+        int to = Math.min(from + pageable.getPageSize(), employees.size());
+        return new PageImpl<>(employees.subList(from, to).stream().map(this::convert).toList(), pageable, employees.size());
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return all().stream();
+    }
+
+    @Override
+    public long count() {
+        return Math.min(matches.get().size(), limit);
+    }
+
+    @Override
+    public boolean exists() {
+        return limit > 0 && !matches.get().isEmpty();
+    }
+
+    private List<Employee> employees(int maxResults) {
+        List<Employee> employees = sorted(Sort.unsorted());
+        return employees.subList(0, Math.min(Math.min(maxResults, limit), employees.size()));
+    }
+
+    private List<Employee> sorted(Sort pageSort) {
+        List<Employee> employees = new ArrayList<>(matches.get());
+        employees.sort(EmployeeRepositoryAdapter.comparatorFor(sort.and(pageSort)));
+        return employees;
+    }
+
+    private T convert(Employee employee) {
+        return resultType.isInstance(employee)
+                ? resultType.cast(employee)
+                : PROJECTION_FACTORY.createProjection(resultType, employee);
+    }
+}
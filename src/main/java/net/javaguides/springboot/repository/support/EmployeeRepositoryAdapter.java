@@ -0,0 +1,362 @@
+package net.javaguides.springboot.repository.support;
+
+import net.javaguides.springboot.dto.EmployeeFilter;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeHeadcount;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.repository.EmployeeUpsert;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Base class for storage engines that implement the {@link EmployeeRepository} contract without JPA.
+ * <p>
+ * Subclasses only provide the primitive operations (find, save, delete, name lookup); every other
+ * {@code JpaRepository} method is derived from those here, so each engine behaves the same way the
+ * Spring Data JPA implementation does from the caller's point of view.
+ * Query-by-example is evaluated in memory over {@link #findAll()}, see {@link EmployeeExamples}. JPA specifications
+ * are only part of {@code JpaEmployeeRepository}, as they need a JPA criteria query: engines implement {@link #search}.
+ */
+public abstract class EmployeeRepositoryAdapter implements EmployeeRepository {
+
+    private static final Map<String, Comparator<Employee>> SORTABLE_PROPERTIES = Map.of(
+            "id", Comparator.comparingLong(Employee::getId),
+            "firstName", Comparator.comparing(Employee::getFirstName),
+            "lastName", Comparator.comparing(Employee::getLastName),
+            "email", Comparator.comparing(Employee::getEmail)
+    );
+
+    /**
+     * @return every employee whose first and last name match exactly, in id order
+     */
+    protected abstract List<Employee> findAllByName(String firstName, String lastName);
+
+    @Override
+    public Employee findByJpql(String firstName, String lastName) {
+        return singleResult(findAllByName(firstName, lastName));
+    }
+
+    @Override
+    public Employee findByJpqlNamedParams(String firstName, String lastName) {
+        return singleResult(findAllByName(firstName, lastName));
+    }
+
+    @Override
+    public Employee findByNativeSql(String firstName, String lastName) {
+        return singleResult(findAllByName(firstName, lastName));
+    }
+
+    @Override
+    public Employee findByNativeSqlNamedParams(String firstName, String lastName) {
+        return singleResult(findAllByName(firstName, lastName));
+    }
+
+    @Override
+    public <S extends Employee> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        for (S entity : entities) {
+            saved.add(save(entity));
+        }
+        return saved;
+    }
+
+    /**
+     * Looks the employees up by email and saves the new or changed ones one by one; engines that need the whole
+     * batch to be atomic wrap this in their own lock or transaction.
+     */
+    @Override
+    public EmployeeUpsert upsertByEmail(List<Employee> employees) {
+        Map<String, Employee> existing = new HashMap<>();
+        for (Employee employee : findAllByEmail(employees.stream().map(Employee::getEmail).toList())) {
+            existing.put(employee.getEmail(), employee);
+        }
+        List<Employee> created = new ArrayList<>();
+        List<Employee> updated = new ArrayList<>();
+        int unchanged = 0;
+        for (Employee employee : employees) {
+            Employee current = existing.get(employee.getEmail());
+            if (current == null) {
+                created.add(save(employee.toBuilder().id(0).version(0).build()));
+            } else if (Objects.equals(current.getFirstName(), employee.getFirstName())
+                    && Objects.equals(current.getLastName(), employee.getLastName())) {
+                unchanged++;
+            } else {
+                updated.add(save(current.toBuilder().firstName(employee.getFirstName()).lastName(employee.getLastName()).build()));
+            }
+        }
+        return new EmployeeUpsert(created, updated, unchanged);
+    }
+
+    @Override
+    public int archiveDeleted(Duration retention, int batchSize) {
+        // NOTE: engines that do not override this delete rows outright, so there is never anything to archive
+        return 0;
+    }
+
+    @Override
+    public int archiveDeletedByEmail(Collection<String> emails) {
+        return 0;
+    }
+
+    /**
+     * @return the employees with any of the emails, in no particular order
+     */
+    protected List<Employee> findAllByEmail(List<String> emails) {
+        List<Employee> found = new ArrayList<>();
+        for (String email : emails) {
+            findByEmail(email).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    @Override
+    public <S extends Employee> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends Employee> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    @Override
+    public void flush() {
+        // NOTE: engines write through on every call, so there is nothing to flush
+    }
+
+    @Override
+    public List<Employee> findAllById(Iterable<Long> ids) {
+        List<Employee> found = new ArrayList<>();
+        for (Long id : ids) {
+            findById(id).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public List<Employee> findAll(Sort sort) {
+        List<Employee> employees = new ArrayList<>(findAll());
+        if (sort.isSorted()) {
+            employees.sort(comparatorFor(sort));
+        }
+        return employees;
+    }
+
+    @Override
+    public Page<Employee> findAll(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll());
+        }
+        List<Employee> sorted = findAll(pageable.getSort());
+        int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        int to = Math.min(from + pageable.getPageSize(), sorted.size());
+        return new PageImpl<>(sorted.subList(from, to), pageable, sorted.size());
+    }
+
+    @Override
+    public void delete(Employee entity) {
+        deleteById(entity.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        for (Long id : ids) {
+            deleteById(id);
+        }
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Employee> entities) {
+        for (Employee entity : entities) {
+            delete(entity);
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        deleteAll(findAll());
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<Employee> entities) {
+        deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    @Deprecated
+    public Employee getOne(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public Employee getById(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public Employee getReferenceById(Long id) {
+        // NOTE: there are no lazy proxies here, so the reference is resolved eagerly
+        return findById(id).orElseThrow(() -> new InvalidDataAccessApiUsageException(
+                "Unable to find " + Employee.class.getName() + " with id " + id));
+    }
+
+    /**
+     * Filters and sorts the whole table in memory; engines that can push the filter down to a database override this.
+     */
+    @Override
+    public List<Employee> search(EmployeeFilter filter, Sort sort) {
+        List<Employee> matches = new ArrayList<>();
+        for (Employee employee : findAll()) {
+            if (filter.matches(employee)) {
+                matches.add(employee);
+            }
+        }
+        matches.sort(comparatorFor(sort));
+        return matches;
+    }
+
+    // NOTE: engines return copies of their rows anyway, there is no persistence context to keep out of
+    @Override
+    public List<Employee> findAllDetached() {
+        return findAll();
+    }
+
+    /**
+     * Groups the whole table in memory; engines that can push the grouping down to a database override this.
+     */
+    @Override
+    public List<EmployeeHeadcount> headcountsByLastName() {
+        return headcounts(Employee::getLastName);
+    }
+
+    /**
+     * Groups the whole table in memory; engines that can push the grouping down to a database override this.
+     */
+    @Override
+    public List<EmployeeHeadcount> headcountsByEmailDomain() {
+        return headcounts(employee -> EmployeeHeadcount.emailDomainOf(employee.getEmail()));
+    }
+
+    @Override
+    public <S extends Employee> Optional<S> findOne(Example<S> example) {
+        return Optional.ofNullable(singleResult(findAll(example)));
+    }
+
+    /**
+     * Matches the example against the whole table in memory, with the semantics of Spring Data JPA: the primitive
+     * {@code id} and {@code version} of the probe take part like any other property unless the matcher ignores them.
+     */
+    @Override
+    public <S extends Employee> List<S> findAll(Example<S> example) {
+        List<S> matches = new ArrayList<>();
+        for (Employee employee : findAll()) {
+            if (EmployeeExamples.matches(example, employee)) {
+                matches.add(example.getProbeType().cast(employee));
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public <S extends Employee> List<S> findAll(Example<S> example, Sort sort) {
+        List<S> matches = findAll(example);
+        if (sort.isSorted()) {
+            matches.sort(comparatorFor(sort));
+        }
+        return matches;
+    }
+
+    @Override
+    public <S extends Employee> Page<S> findAll(Example<S> example, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(example));
+        }
+        List<S> sorted = findAll(example, pageable.getSort());
+        int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        int to = Math.min(from + pageable.getPageSize(), sorted.size());
+        return new PageImpl<>(sorted.subList(from, to), pageable, sorted.size());
+    }
+
+    @Override
+    public <S extends Employee> long count(Example<S> example) {
+        return findAll(example).size();
+    }
+
+    @Override
+    public <S extends Employee> boolean exists(Example<S> example) {
+        return !findAll(example).isEmpty();
+    }
+
+    @Override
+    public <S extends Employee, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        return queryFunction.apply(EmployeeFluentQuery.of(() -> List.copyOf(findAll(example)), example.getProbeType()));
+    }
+
+    /**
+     * Mirrors {@code getSingleResult()} semantics of the JPA queries: no match is {@code null}, more than one fails.
+     */
+    protected static <T> T singleResult(List<T> results) {
+        if (results.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, results.size());
+        }
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    private List<EmployeeHeadcount> headcounts(Function<Employee, String> key) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Employee employee : findAll()) {
+            counts.merge(key.apply(employee), 1L, Long::sum);
+        }
+        List<EmployeeHeadcount> headcounts = new ArrayList<>(counts.size());
+        counts.forEach((value, employees) -> headcounts.add(new EmployeeHeadcount(value, employees)));
+        return headcounts;
+    }
+
+    protected static Comparator<Employee> comparatorFor(Sort sort) {
+        Comparator<Employee> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Employee> next = SORTABLE_PROPERTIES.get(order.getProperty());
+            if (next == null) {
+                throw new InvalidDataAccessApiUsageException("No property '" + order.getProperty() + "' found for type 'Employee'");
+            }
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator == null ? SORTABLE_PROPERTIES.get("id") : comparator;
+    }
+}
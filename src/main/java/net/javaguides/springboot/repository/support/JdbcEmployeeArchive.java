@@ -0,0 +1,68 @@
+package net.javaguides.springboot.repository.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves soft-deleted rows of one database's {@code employees} table into its {@code employees_archive} table.
+ * <p>
+ * Plain JDBC, shared by the storage engines that soft delete; callers run each call in a transaction, so a row
+ * is never in both tables or in neither. Deletion times come from the database clock ({@code localtimestamp}),
+ * so retention is measured against that same clock.
+ */
+public class JdbcEmployeeArchive {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public JdbcEmployeeArchive(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Archives the oldest rows deleted longer than {@code retention} ago, at most {@code batchSize} of them.
+     *
+     * @return how many rows were archived
+     */
+    public int archiveDeletedBefore(Duration retention, int batchSize) {
+        LocalDateTime now = now();
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select id from employees where deleted_at < :deletedBefore order by deleted_at limit :batchSize",
+                Map.of("deletedBefore", now.minus(retention), "batchSize", batchSize), Long.class);
+        return moveToArchive(ids, now);
+    }
+
+    /**
+     * Archives the deleted rows holding any of the emails right away, so live employees can take the emails again.
+     *
+     * @return how many rows were archived
+     */
+    public int archiveDeletedByEmail(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select id from employees where email in (:emails) and deleted_at is not null",
+                Map.of("emails", emails), Long.class);
+        return moveToArchive(ids, now());
+    }
+
+    private int moveToArchive(List<Long> ids, LocalDateTime archivedAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Map<String, Object> params = Map.of("ids", ids, "archivedAt", archivedAt);
+        jdbcTemplate.update("insert into employees_archive (id, first_name, last_name, email, version, deleted_at, archived_at)"
+                + " select id, first_name, last_name, email, version, deleted_at, :archivedAt from employees"
+                + " where id in (:ids) and deleted_at is not null", params);
+        return jdbcTemplate.update("delete from employees where id in (:ids) and deleted_at is not null", params);
+    }
+
+    private LocalDateTime now() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject("select localtimestamp", LocalDateTime.class);
+    }
+}
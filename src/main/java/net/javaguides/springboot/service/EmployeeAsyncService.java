@@ -0,0 +1,18 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.EmployeeBatch;
+import net.javaguides.springboot.model.Employee;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of the {@link EmployeeService} reads, so callers can overlap several DB calls.
+ */
+public interface EmployeeAsyncService {
+    CompletableFuture<List<Employee>> getAllEmployeesAsync();
+    CompletableFuture<Optional<Employee>> getEmployeeByIdAsync(long id);
+    CompletableFuture<Optional<Employee>> getEmployeeByEmailAsync(String email);
+    CompletableFuture<EmployeeBatch> getEmployeesByIdsAsync(List<Long> ids);
+}
@@ -1,6 +1,11 @@
 package net.javaguides.springboot.service;
 
+import net.javaguides.springboot.dto.EmployeeBatch;
+import net.javaguides.springboot.dto.EmployeeFilter;
+import net.javaguides.springboot.dto.EmployeeStats;
+import net.javaguides.springboot.dto.EmployeeUpsertCounts;
 import net.javaguides.springboot.model.Employee;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
@@ -8,7 +13,12 @@ import java.util.Optional;
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
     List<Employee> getAllEmployees();
+    List<Employee> searchEmployees(EmployeeFilter filter, Sort sort);
     Optional<Employee> getEmployeeById(long id);
+    Optional<Employee> getEmployeeByEmail(String email);
+    EmployeeBatch getEmployeesByIds(List<Long> ids);
+    EmployeeStats getEmployeeStats();
     Employee updateEmployee(Employee updatedEmployee);
+    EmployeeUpsertCounts upsertEmployees(List<Employee> employees);
     void deleteEmployee(long id);
 }
@@ -0,0 +1,29 @@
+package net.javaguides.springboot.service.archive;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("employees.archive")
+public class ArchiveProperties {
+    /**
+     * Whether deleted employees are periodically moved out of the employees table.
+     */
+    private boolean enabled = true;
+    /**
+     * How long a deleted employee stays in the employees table (still restorable by hand) before being archived.
+     */
+    private Duration retention = Duration.ofDays(30);
+    /**
+     * Time between two archiving runs.
+     */
+    private Duration interval = Duration.ofHours(1);
+    /**
+     * Employees archived per transaction; a run keeps going, batch after batch, until none is left.
+     */
+    private int batchSize = 1000;
+}
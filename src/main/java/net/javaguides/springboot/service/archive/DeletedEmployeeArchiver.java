@@ -0,0 +1,54 @@
+package net.javaguides.springboot.service.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.IntervalTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically moves the employees deleted longer than the retention out of the employees table, in small
+ * transactions, so the table (and its indexes) only grows with live employees.
+ */
+@Slf4j
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "employees.archive.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(ArchiveProperties.class)
+public class DeletedEmployeeArchiver implements SchedulingConfigurer {
+    private final EmployeeRepository employeeRepository;
+    private final ArchiveProperties properties;
+
+    public DeletedEmployeeArchiver(EmployeeRepository employeeRepository, ArchiveProperties properties) {
+        this.employeeRepository = employeeRepository;
+        this.properties = properties;
+    }
+
+    // NOTE: registered here rather than with @Scheduled, which does not parse durations like 1h
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(new IntervalTask(this::archiveDeletedEmployees, properties.getInterval(), properties.getInterval()));
+    }
+
+    public void archiveDeletedEmployees() {
+        try {
+            int total = 0;
+            int archived;
+            do {
+                archived = employeeRepository.archiveDeleted(properties.getRetention(), properties.getBatchSize());
+                total += archived;
+            } while (archived > 0);
+            if (total > 0) {
+                log.info("Archived {} deleted employees", total);
+            }
+        } catch (DataAccessException e) {
+            // NOTE: whatever was archived stays archived, the rest is picked up by the next run
+            log.warn("Could not archive deleted employees", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package net.javaguides.springboot.service.event;
+
+import net.javaguides.springboot.model.Employee;
+import org.springframework.lang.Nullable;
+
+/**
+ * Published by the {@code EmployeeService} whenever an employee is created, updated or deleted.
+ * <p>
+ * Listeners that keep derived state (snapshots, caches...) should use
+ * {@code @TransactionalEventListener(fallbackExecution = true)}, so they only see changes once they are committed.
+ * Writes changing several employees at once publish an {@link EmployeesChangedEvent} with these instead.
+ *
+ * @param id       the ID of the changed employee
+ * @param employee a copy of the employee as saved, or {@code null} if it was deleted
+ */
+public record EmployeeChangedEvent(long id, @Nullable Employee employee) {
+
+    public static EmployeeChangedEvent saved(Employee employee) {
+        // NOTE: a copy, so listeners running later never see modifications made to the caller's (or Hibernate's) instance
+        return new EmployeeChangedEvent(employee.getId(), employee.toBuilder().build());
+    }
+
+    public static EmployeeChangedEvent deleted(long id) {
+        return new EmployeeChangedEvent(id, null);
+    }
+
+    public boolean isDeleted() {
+        return employee == null;
+    }
+}
@@ -0,0 +1,18 @@
+package net.javaguides.springboot.service.event;
+
+import java.util.List;
+
+/**
+ * Published by the {@code EmployeeService} instead of one {@link EmployeeChangedEvent} per employee when a single
+ * write changes several employees at once (a chunk of a bulk upsert), so listeners can apply them together.
+ * <p>
+ * Listeners of {@link EmployeeChangedEvent} must listen to this event as well, the same way.
+ *
+ * @param changes the changes, in the order they were made
+ */
+public record EmployeesChangedEvent(List<EmployeeChangedEvent> changes) {
+
+    public EmployeesChangedEvent {
+        changes = List.copyOf(changes);
+    }
+}
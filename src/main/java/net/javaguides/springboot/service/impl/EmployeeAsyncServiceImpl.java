@@ -0,0 +1,47 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.config.AsyncConfig;
+import net.javaguides.springboot.dto.EmployeeBatch;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeAsyncService;
+import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+@Service
+public class EmployeeAsyncServiceImpl implements EmployeeAsyncService {
+
+    private final EmployeeService employeeService;
+    private final Executor employeeDbExecutor;
+
+    public EmployeeAsyncServiceImpl(EmployeeService employeeService,
+                                    @Qualifier(AsyncConfig.EMPLOYEE_DB_EXECUTOR) Executor employeeDbExecutor) {
+        this.employeeService = employeeService;
+        this.employeeDbExecutor = employeeDbExecutor;
+    }
+
+    @Override
+    public CompletableFuture<List<Employee>> getAllEmployeesAsync() {
+        return CompletableFuture.supplyAsync(employeeService::getAllEmployees, employeeDbExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Employee>> getEmployeeByIdAsync(long id) {
+        return CompletableFuture.supplyAsync(() -> employeeService.getEmployeeById(id), employeeDbExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Employee>> getEmployeeByEmailAsync(String email) {
+        return CompletableFuture.supplyAsync(() -> employeeService.getEmployeeByEmail(email), employeeDbExecutor);
+    }
+
+    @Override
+    public CompletableFuture<EmployeeBatch> getEmployeesByIdsAsync(List<Long> ids) {
+        return CompletableFuture.supplyAsync(() -> employeeService.getEmployeesByIds(ids), employeeDbExecutor);
+    }
+}
@@ -1,51 +1,244 @@
 package net.javaguides.springboot.service.impl;
 
+import net.javaguides.springboot.dto.EmployeeBatch;
+import net.javaguides.springboot.dto.EmployeeFilter;
+import net.javaguides.springboot.dto.EmployeeStats;
+import net.javaguides.springboot.dto.EmployeeUpsertCounts;
 import net.javaguides.springboot.exception.ResourceNotFoundException;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.repository.EmployeeUpsert;
 import net.javaguides.springboot.service.EmployeeService;
-import org.springframework.beans.factory.annotation.Autowired;
+import net.javaguides.springboot.service.event.EmployeeChangedEvent;
+import net.javaguides.springboot.service.event.EmployeesChangedEvent;
+import net.javaguides.springboot.service.invalidation.EmployeeInvalidatedEvent;
+import net.javaguides.springboot.service.snapshot.EmployeeSnapshotHolder;
+import net.javaguides.springboot.service.stats.EmployeeStatsCache;
+import net.javaguides.springboot.service.support.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
-public class EmployeeServiceImpl implements EmployeeService {
+public class EmployeeServiceImpl implements EmployeeService, MeterBinder {
+    // NOTE: keeps each IN-list well below the bind parameter and packet limits of the database
+    public static final int ID_CHUNK_SIZE = 500;
+    // NOTE: rows per upsert transaction; a failure rolls back its own chunk only, the ones before it stay committed
+    public static final int UPSERT_CHUNK_SIZE = 500;
 
     EmployeeRepository employeeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    // NOTE: only available when employees.snapshot.enabled=true
+    private final ObjectProvider<EmployeeSnapshotHolder> snapshotHolder;
+    private final EmployeeStatsCache statsCache;
+    // NOTE: reads run in read-only transactions, so Hibernate neither snapshots what they load for dirty checking
+    // nor flushes; null with the engines without JPA, which have no transactions to demarcate
+    private final TransactionTemplate readOnlyTransactions;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    // NOTE: concurrent lookups of the same key share one in-flight query instead of each hitting the DB
+    private final SingleFlight<Long, Optional<Employee>> lookupsById = new SingleFlight<>();
+    private final SingleFlight<String, Optional<Employee>> lookupsByEmail = new SingleFlight<>();
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               ObjectProvider<EmployeeSnapshotHolder> snapshotHolder,
+                               EmployeeStatsCache statsCache,
+                               ObjectProvider<PlatformTransactionManager> transactionManager) {
         this.employeeRepository = employeeRepository;
+        this.eventPublisher = eventPublisher;
+        this.snapshotHolder = snapshotHolder;
+        this.statsCache = statsCache;
+        this.readOnlyTransactions = readOnlyTransactions(transactionManager.getIfAvailable());
     }
 
     @Override
     public Employee saveEmployee(Employee employee) {
         // email should be unique
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
+        Optional<Employee> savedEmployee = getEmployeeByEmail(employee.getEmail());
         if (savedEmployee.isPresent())
             throw new ResourceNotFoundException("Employee already exists with given email: " + employee.getEmail());
 
-        return employeeRepository.save(employee);
+        Employee created;
+        try {
+            created = employeeRepository.save(employee);
+        } catch (DataIntegrityViolationException e) {
+            // NOTE: a soft-deleted employee keeps holding the email until it is archived; archive it now and retry
+            if (employeeRepository.archiveDeletedByEmail(List.of(employee.getEmail())) == 0)
+                throw e;
+            employee.setId(0);
+            employee.setVersion(0);
+            created = employeeRepository.save(employee);
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.saved(created));
+        return created;
     }
 
     @Override
     public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+        EmployeeSnapshotHolder snapshot = snapshotHolder.getIfAvailable();
+        return snapshot != null ? snapshot.get() : readOnly(employeeRepository::findAllDetached);
+    }
+
+    @Override
+    public List<Employee> searchEmployees(EmployeeFilter filter, Sort sort) {
+        // NOTE: id breaks ties, so equal sort keys still come back in a stable order
+        return readOnly(() -> employeeRepository.search(filter, sort.and(Sort.by("id"))));
     }
 
     @Override
     public Optional<Employee> getEmployeeById(long id) {
-        return employeeRepository.findById(id);
+        return lookupsById.execute(id, () -> readOnly(() -> employeeRepository.findById(id)));
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return lookupsByEmail.execute(email, () -> readOnly(() -> employeeRepository.findByEmail(email)));
+    }
+
+    @Override
+    public EmployeeBatch getEmployeesByIds(List<Long> ids) {
+        // NOTE: one transaction (and connection) for every chunk
+        return readOnly(() -> findEmployeesByIds(ids));
+    }
+
+    private EmployeeBatch findEmployeesByIds(List<Long> ids) {
+        List<Long> requestedIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, Employee> foundById = new HashMap<>();
+        for (int from = 0; from < requestedIds.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = requestedIds.subList(from, Math.min(from + ID_CHUNK_SIZE, requestedIds.size()));
+            for (Employee employee : employeeRepository.findAllById(chunk)) {
+                foundById.put(employee.getId(), employee);
+            }
+        }
+
+        List<Employee> employees = new ArrayList<>(foundById.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            Employee employee = foundById.get(id);
+            if (employee != null)
+                employees.add(employee);
+            else
+                missingIds.add(id);
+        }
+        return new EmployeeBatch(employees, missingIds);
+    }
+
+    @Override
+    public EmployeeStats getEmployeeStats() {
+        return statsCache.get();
     }
 
     @Override
     public Employee updateEmployee(Employee updatedEmployee) {
-        return employeeRepository.save(updatedEmployee);
+        Employee updated = employeeRepository.save(updatedEmployee);
+        eventPublisher.publishEvent(EmployeeChangedEvent.saved(updated));
+        return updated;
+    }
+
+    @Override
+    public EmployeeUpsertCounts upsertEmployees(List<Employee> employees) {
+        // NOTE: one row per email, the last one winning, as if the list was applied in order
+        Map<String, Employee> byEmail = new LinkedHashMap<>();
+        for (Employee employee : employees) {
+            byEmail.put(employee.getEmail(), employee);
+        }
+        List<Employee> distinct = new ArrayList<>(byEmail.values());
+
+        int created = 0;
+        int updated = 0;
+        int unchanged = 0;
+        for (int from = 0; from < distinct.size(); from += UPSERT_CHUNK_SIZE) {
+            EmployeeUpsert upsert = employeeRepository.upsertByEmail(
+                    distinct.subList(from, Math.min(from + UPSERT_CHUNK_SIZE, distinct.size())));
+            List<EmployeeChangedEvent> changes = new ArrayList<>(upsert.created().size() + upsert.updated().size());
+            upsert.created().forEach(employee -> changes.add(EmployeeChangedEvent.saved(employee)));
+            upsert.updated().forEach(employee -> changes.add(EmployeeChangedEvent.saved(employee)));
+            if (!changes.isEmpty()) {
+                eventPublisher.publishEvent(new EmployeesChangedEvent(changes));
+            }
+            created += upsert.created().size();
+            updated += upsert.updated().size();
+            unchanged += upsert.unchanged();
+        }
+        return new EmployeeUpsertCounts(created, updated, unchanged);
     }
 
     @Override
     public void deleteEmployee(long id) {
         employeeRepository.deleteById(id);
+        eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+    }
+
+    // NOTE: a lookup in flight may have read the row before this change committed; later lookups must not join it.
+    // Writes through this service publish synchronously, so this runs before the write returns to its caller.
+    // Emails are forgotten wholesale, as the event does not tell which email an update or delete freed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        lookupsById.forget(event.id());
+        lookupsByEmail.forgetAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeesChanged(EmployeesChangedEvent event) {
+        event.changes().forEach(change -> lookupsById.forget(change.id()));
+        lookupsByEmail.forgetAll();
+    }
+
+    @EventListener
+    public void onEmployeesInvalidated(EmployeeInvalidatedEvent event) {
+        if (event.isAll()) {
+            lookupsById.forgetAll();
+        } else {
+            event.ids().forEach(lookupsById::forget);
+        }
+        lookupsByEmail.forgetAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindLookupMetrics(registry, "id", lookupsById);
+        bindLookupMetrics(registry, "email", lookupsByEmail);
+    }
+
+    private <T> T readOnly(Supplier<T> read) {
+        return readOnlyTransactions == null ? read.get() : readOnlyTransactions.execute(status -> read.get());
+    }
+
+    private static TransactionTemplate readOnlyTransactions(PlatformTransactionManager transactionManager) {
+        if (transactionManager == null) {
+            return null;
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+
+    private static void bindLookupMetrics(MeterRegistry registry, String key, SingleFlight<?, ?> lookups) {
+        FunctionCounter.builder("employees.lookups.executed", lookups, SingleFlight::executedCount)
+                .description("Employee lookups that queried the database")
+                .tag("key", key)
+                .register(registry);
+        FunctionCounter.builder("employees.lookups.collapsed", lookups, SingleFlight::collapsedCount)
+                .description("Employee lookups served by an identical lookup already in flight")
+                .tag("key", key)
+                .register(registry);
     }
 }
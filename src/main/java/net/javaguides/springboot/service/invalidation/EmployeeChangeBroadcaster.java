@@ -0,0 +1,52 @@
+package net.javaguides.springboot.service.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import net.javaguides.springboot.service.event.EmployeeChangedEvent;
+import net.javaguides.springboot.service.event.EmployeesChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Forwards every committed change made through this node's {@code EmployeeService} to the other nodes, the changes
+ * committed together in one publication; past {@code employees.invalidation.max-published-ids} of them, the other
+ * nodes are told to invalidate every employee instead.
+ * <p>
+ * NOTE: the change is already committed when it is forwarded, so a failure is not the request's: it is logged, and
+ * the other nodes are told to invalidate every employee instead.
+ */
+@Slf4j
+@Component
+public class EmployeeChangeBroadcaster {
+    private final EmployeeChangeBus employeeChangeBus;
+    private final int maxPublishedIds;
+
+    public EmployeeChangeBroadcaster(EmployeeChangeBus employeeChangeBus, InvalidationProperties properties) {
+        this.employeeChangeBus = employeeChangeBus;
+        this.maxPublishedIds = properties.getMaxPublishedIds();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        broadcast(List.of(event.id()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeesChanged(EmployeesChangedEvent event) {
+        broadcast(event.changes().stream().map(EmployeeChangedEvent::id).toList());
+    }
+
+    private void broadcast(List<Long> employeeIds) {
+        if (employeeIds.size() > maxPublishedIds) {
+            employeeChangeBus.publishAll();
+            return;
+        }
+        try {
+            employeeChangeBus.publish(employeeIds);
+        } catch (RuntimeException e) {
+            log.error("Could not broadcast the change of employees {}, other nodes will invalidate every employee", employeeIds, e);
+            employeeChangeBus.publishAll();
+        }
+    }
+}
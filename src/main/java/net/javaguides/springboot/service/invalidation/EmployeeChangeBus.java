@@ -0,0 +1,33 @@
+package net.javaguides.springboot.service.invalidation;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Carries committed employee changes between the nodes running this application.
+ * <p>
+ * Each node {@link #publish publishes} the ids it changed; implementations deliver them to every other node as an
+ * {@link EmployeeInvalidatedEvent} in that node's application context, where the caches listen for it.
+ * Delivery is at-least-once: an id may be invalidated more than once, so listeners must be idempotent.
+ */
+public interface EmployeeChangeBus {
+
+    /**
+     * Announces that this node committed a change to the given employee.
+     */
+    default void publish(long employeeId) {
+        publish(List.of(employeeId));
+    }
+
+    /**
+     * Announces that this node committed changes to the given employees, in one round trip.
+     */
+    void publish(Collection<Long> employeeIds);
+
+    /**
+     * Announces that changes of this node may have been lost, so every other node must invalidate all its employees.
+     * <p>
+     * Never throws: when the announcement cannot be made now, implementations keep retrying it in the background.
+     */
+    void publishAll();
+}
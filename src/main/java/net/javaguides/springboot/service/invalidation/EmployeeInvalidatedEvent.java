@@ -0,0 +1,25 @@
+package net.javaguides.springboot.service.invalidation;
+
+import org.springframework.lang.Nullable;
+
+import java.util.Set;
+
+/**
+ * Published on a node when employees were changed by another node, so its caches must drop or reload them.
+ *
+ * @param ids the changed employee ids, or {@code null} if changes may have been missed and every employee is suspect
+ */
+public record EmployeeInvalidatedEvent(@Nullable Set<Long> ids) {
+
+    public static EmployeeInvalidatedEvent of(Set<Long> ids) {
+        return new EmployeeInvalidatedEvent(Set.copyOf(ids));
+    }
+
+    public static EmployeeInvalidatedEvent all() {
+        return new EmployeeInvalidatedEvent(null);
+    }
+
+    public boolean isAll() {
+        return ids == null;
+    }
+}
@@ -0,0 +1,61 @@
+package net.javaguides.springboot.service.invalidation;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Stand-in for a message broker, for a single node or tests: every bus joined to the same {@link Network} is a node,
+ * and a change published by one is delivered synchronously to all the others.
+ * <p>
+ * NOTE: the application context gets a network of its own, so on its own it is a single node; tests simulate
+ * several nodes by joining buses to one network.
+ */
+public class InProcessEmployeeChangeBus implements EmployeeChangeBus, DisposableBean {
+    private final ApplicationEventPublisher eventPublisher;
+    private final Network network;
+
+    public InProcessEmployeeChangeBus(ApplicationEventPublisher eventPublisher) {
+        this(eventPublisher, new Network());
+    }
+
+    public InProcessEmployeeChangeBus(ApplicationEventPublisher eventPublisher, Network network) {
+        this.eventPublisher = eventPublisher;
+        this.network = network;
+        network.nodes.add(this);
+    }
+
+    @Override
+    public void publish(Collection<Long> employeeIds) {
+        deliver(EmployeeInvalidatedEvent.of(Set.copyOf(employeeIds)));
+    }
+
+    @Override
+    public void publishAll() {
+        deliver(EmployeeInvalidatedEvent.all());
+    }
+
+    @Override
+    public void destroy() {
+        network.nodes.remove(this);
+    }
+
+    private void deliver(EmployeeInvalidatedEvent event) {
+        for (InProcessEmployeeChangeBus node : network.nodes) {
+            if (node != this) {
+                node.eventPublisher.publishEvent(event);
+            }
+        }
+    }
+
+    /**
+     * The nodes that see each other's changes.
+     */
+    public static final class Network {
+        private final List<InProcessEmployeeChangeBus> nodes = new CopyOnWriteArrayList<>();
+    }
+}
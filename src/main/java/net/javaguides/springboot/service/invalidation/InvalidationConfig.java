@@ -0,0 +1,33 @@
+package net.javaguides.springboot.service.invalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(InvalidationProperties.class)
+public class InvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "employees.invalidation.bus", havingValue = "in-process", matchIfMissing = true)
+    public InProcessEmployeeChangeBus inProcessEmployeeChangeBus(ApplicationEventPublisher eventPublisher) {
+        return new InProcessEmployeeChangeBus(eventPublisher);
+    }
+
+    // NOTE: needs the JPA storage engine's DataSource; the table may live in any database all nodes can reach
+    @Bean
+    @ConditionalOnProperty(name = "employees.invalidation.bus", havingValue = "jdbc")
+    public JdbcEmployeeChangeBus jdbcEmployeeChangeBus(JdbcTemplate jdbcTemplate,
+                                                       ApplicationEventPublisher eventPublisher,
+                                                       InvalidationProperties properties) {
+        if (properties.getJdbc().isInitializeSchema()) {
+            new ResourceDatabasePopulator(new ClassPathResource("db/invalidation/schema.sql")).execute(jdbcTemplate.getDataSource());
+        }
+        return new JdbcEmployeeChangeBus(jdbcTemplate, eventPublisher, properties.getNodeId(), properties.getJdbc());
+    }
+}
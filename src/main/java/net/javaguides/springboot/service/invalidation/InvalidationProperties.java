@@ -0,0 +1,65 @@
+package net.javaguides.springboot.service.invalidation;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Getter
+@Setter
+@ConfigurationProperties("employees.invalidation")
+public class InvalidationProperties {
+    /**
+     * How employee changes reach the other nodes.
+     */
+    private Bus bus = Bus.IN_PROCESS;
+    /**
+     * Identifies this node, so it ignores its own changes. Must be unique across the cluster.
+     */
+    private String nodeId = UUID.randomUUID().toString();
+    /**
+     * Changes committed together (a bulk upsert chunk) past which the other nodes are told to invalidate every
+     * employee, rather than sent each id.
+     */
+    private int maxPublishedIds = 100;
+    private final Jdbc jdbc = new Jdbc();
+
+    public enum Bus {
+        /**
+         * A single node: changes are not sent anywhere.
+         */
+        IN_PROCESS,
+        /**
+         * Changes are written to the {@code employee_changes} table, which every node polls.
+         */
+        JDBC
+    }
+
+    @Getter
+    @Setter
+    public static class Jdbc {
+        /**
+         * Delay between two polls of the change table: the upper bound on how stale another node's caches can be.
+         */
+        private Duration pollInterval = Duration.ofSeconds(1);
+        /**
+         * Maximum number of changes read per query.
+         */
+        private int batchSize = 500;
+        /**
+         * How long changes are kept. A node that could not poll for longer than this invalidates all its caches.
+         */
+        private Duration retention = Duration.ofHours(1);
+        /**
+         * How long a missing sequence number is waited for (a change committed out of order) before it is
+         * considered a gap left by a rolled back insert.
+         */
+        private Duration gapTimeout = Duration.ofSeconds(10);
+        /**
+         * Whether to create the {@code employee_changes} table at startup when missing.
+         */
+        private boolean initializeSchema = true;
+    }
+}
@@ -0,0 +1,214 @@
+package net.javaguides.springboot.service.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EmployeeChangeBus} backed by the {@code employee_changes} table, which every node polls.
+ * <p>
+ * A change is one insert, and the changes of a batch are inserted in one JDBC batch; a poll is one range scan on the primary key ({@code seq > last seen}), which costs next to
+ * nothing when there are no changes, so polling every second or so keeps staleness bounded without a message broker.
+ * <p>
+ * Sequence numbers are handed out when a row is inserted but become visible when it commits, so a poll can see
+ * {@code seq} 6 before 5. Skipped numbers are therefore re-checked until they show up or the gap timeout expires
+ * (rolled back inserts leave permanent gaps). Rows older than the retention are purged; a node that could not poll
+ * for longer than that may have missed changes, and invalidates everything.
+ * <p>
+ * A node that could not publish a change inserts a row for employee id 0 instead, as soon as it can, which makes the
+ * other nodes invalidate everything.
+ */
+@Slf4j
+public class JdbcEmployeeChangeBus implements EmployeeChangeBus, SmartLifecycle {
+    // NOTE: ids start at 1, so this one can stand for every employee (a node that may have lost changes)
+    private static final long ALL_EMPLOYEES = 0;
+    private static final String COLUMNS = "seq, employee_id, node_id";
+    private static final RowMapper<Change> CHANGE_ROW_MAPPER = (resultSet, rowNum) -> new Change(
+            resultSet.getLong("seq"), resultSet.getLong("employee_id"), resultSet.getString("node_id"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String nodeId;
+    private final InvalidationProperties.Jdbc settings;
+
+    // NOTE: only touched by poll(), which is synchronized
+    private final Map<Long, Long> pendingGaps = new LinkedHashMap<>(); // seq -> System.nanoTime() to give up at
+    private long lastSeq;
+    private long lastPollNanos;
+    private long lastPurgeNanos;
+
+    private volatile ScheduledExecutorService poller;
+    private volatile boolean lostChanges;
+
+    public JdbcEmployeeChangeBus(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                                 String nodeId, InvalidationProperties.Jdbc settings) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.eventPublisher = eventPublisher;
+        this.nodeId = nodeId;
+        this.settings = settings;
+    }
+
+    @Override
+    public void publish(Collection<Long> employeeIds) {
+        Timestamp changedAt = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(employeeIds.size());
+        for (Long employeeId : employeeIds) {
+            rows.add(new Object[]{employeeId, nodeId, changedAt});
+        }
+        jdbcTemplate.batchUpdate("insert into employee_changes (employee_id, node_id, changed_at) values (?, ?, ?)", rows);
+    }
+
+    @Override
+    public void publishAll() {
+        lostChanges = true;
+        try {
+            announceLostChanges();
+        } catch (RuntimeException e) {
+            log.warn("Could not announce lost employee changes, retrying with the next poll", e);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        // NOTE: nothing is cached yet, so changes committed before this node started are of no interest
+        lastSeq = currentSeq();
+        lastPollNanos = System.nanoTime();
+        lastPurgeNanos = lastPollNanos;
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-changes-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = settings.getPollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::pollQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService poller = this.poller;
+        if (poller != null) {
+            poller.shutdownNow();
+            this.poller = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return poller != null;
+    }
+
+    /**
+     * Reads the changes committed since the last poll and publishes the ones made by other nodes.
+     */
+    synchronized void poll() {
+        long now = System.nanoTime();
+        if (now - lastPollNanos > settings.getRetention().toNanos()) {
+            log.warn("Employee changes not polled for longer than their retention, invalidating every employee");
+            lastSeq = currentSeq();
+            pendingGaps.clear();
+            lastPollNanos = now;
+            eventPublisher.publishEvent(EmployeeInvalidatedEvent.all());
+            return;
+        }
+
+        Set<Long> changedIds = new HashSet<>();
+        if (!pendingGaps.isEmpty()) {
+            for (Change change : namedParameterJdbcTemplate.query("select " + COLUMNS + " from employee_changes where seq in (:seqs)",
+                    Map.of("seqs", List.copyOf(pendingGaps.keySet())), CHANGE_ROW_MAPPER)) {
+                pendingGaps.remove(change.seq());
+                collect(change, changedIds);
+            }
+            pendingGaps.values().removeIf(giveUpAt -> giveUpAt - now < 0);
+        }
+
+        List<Change> changes;
+        do {
+            changes = jdbcTemplate.query("select " + COLUMNS + " from employee_changes where seq > ? order by seq limit ?",
+                    CHANGE_ROW_MAPPER, lastSeq, settings.getBatchSize());
+            for (Change change : changes) {
+                trackGaps(lastSeq + 1, change.seq(), now);
+                lastSeq = change.seq();
+                collect(change, changedIds);
+            }
+        } while (changes.size() == settings.getBatchSize());
+        lastPollNanos = now;
+
+        publishChanges(changedIds);
+        if (now - lastPurgeNanos > settings.getRetention().toNanos() / 2) {
+            jdbcTemplate.update("delete from employee_changes where changed_at < ?",
+                    Timestamp.from(Instant.now().minus(settings.getRetention())));
+            lastPurgeNanos = now;
+        }
+    }
+
+    private void announceLostChanges() {
+        if (lostChanges) {
+            publish(ALL_EMPLOYEES);
+            lostChanges = false;
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            announceLostChanges();
+            poll();
+        } catch (RuntimeException e) {
+            // NOTE: the next poll resumes from the last seen change; after the retention, everything is invalidated
+            log.warn("Could not poll employee changes", e);
+        }
+    }
+
+    private void trackGaps(long fromSeq, long toSeqExclusive, long now) {
+        long giveUpAt = now + settings.getGapTimeout().toNanos();
+        // NOTE: bounded, the oldest gaps are the least likely to still be filled
+        for (long seq = Math.max(fromSeq, toSeqExclusive - settings.getBatchSize()); seq < toSeqExclusive; seq++) {
+            if (pendingGaps.size() >= settings.getBatchSize()) {
+                Iterator<Long> oldest = pendingGaps.keySet().iterator();
+                oldest.next();
+                oldest.remove();
+            }
+            pendingGaps.put(seq, giveUpAt);
+        }
+    }
+
+    private void collect(Change change, Set<Long> changedIds) {
+        if (!nodeId.equals(change.nodeId())) {
+            changedIds.add(change.employeeId());
+        }
+    }
+
+    private void publishChanges(Set<Long> changedIds) {
+        if (changedIds.contains(ALL_EMPLOYEES)) {
+            eventPublisher.publishEvent(EmployeeInvalidatedEvent.all());
+        } else if (!changedIds.isEmpty()) {
+            eventPublisher.publishEvent(EmployeeInvalidatedEvent.of(changedIds));
+        }
+    }
+
+    private long currentSeq() {
+        Long seq = jdbcTemplate.queryForObject("select coalesce(max(seq), 0) from employee_changes", Long.class);
+        return seq == null ? 0 : seq;
+    }
+
+    private record Change(long seq, long employeeId, String nodeId) {
+    }
+}
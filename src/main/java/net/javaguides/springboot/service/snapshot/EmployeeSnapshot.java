@@ -0,0 +1,169 @@
+package net.javaguides.springboot.service.snapshot;
+
+import net.javaguides.springboot.json.EmployeeJsonWriter;
+import net.javaguides.springboot.json.PreSerializedJson;
+import net.javaguides.springboot.model.Employee;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable view of every employee, in id order, together with its serialized JSON response.
+ * <p>
+ * Changes never modify a snapshot: {@link #withChanges} (like {@link #withSaved} and {@link #withDeleted}) returns a new
+ * one that shares the serialized form of every unchanged employee, so a write only serializes the employees it touched
+ * and copies bytes.
+ * Elements are copied on access, so callers can't modify the snapshot through the employees they get from it.
+ * NOTE: the JSON is the concatenation of each employee's compact JSON, which is what {@link EmployeeJsonWriter}
+ * produces for a list unless the application enables indented output.
+ */
+public final class EmployeeSnapshot extends AbstractList<Employee> implements RandomAccess, PreSerializedJson {
+    private static final byte[] EMPTY_ARRAY_JSON = "[]".getBytes(StandardCharsets.UTF_8);
+
+    private final Employee[] employees;
+    private final byte[][] fragments;
+    private final byte[] json;
+
+    private EmployeeSnapshot(Employee[] employees, byte[][] fragments) {
+        this.employees = employees;
+        this.fragments = fragments;
+        this.json = join(fragments);
+    }
+
+    /**
+     * @param employees every employee, in id order (as {@code findAll()} returns them)
+     */
+    public static EmployeeSnapshot of(List<Employee> employees, EmployeeJsonWriter employeeJsonWriter) {
+        Employee[] copies = new Employee[employees.size()];
+        byte[][] fragments = new byte[employees.size()][];
+        for (int i = 0; i < copies.length; i++) {
+            copies[i] = employees.get(i).toBuilder().build();
+            fragments[i] = employeeJsonWriter.toBytes(copies[i]);
+        }
+        return new EmployeeSnapshot(copies, fragments);
+    }
+
+    public EmployeeSnapshot withSaved(Employee employee, EmployeeJsonWriter employeeJsonWriter) {
+        return withChanges(List.of(employee), Set.of(), employeeJsonWriter);
+    }
+
+    public EmployeeSnapshot withDeleted(long id) {
+        return indexOf(id) < 0 ? this : withChanges(List.of(), Set.of(id), null);
+    }
+
+    /**
+     * Applies several changes in a single pass, so a batch costs one copy of the arrays rather than one per employee.
+     *
+     * @param saved   employees to add or replace
+     * @param deleted ids to remove; an id both saved and deleted ends up removed
+     */
+    public EmployeeSnapshot withChanges(Collection<Employee> saved, Set<Long> deleted, EmployeeJsonWriter employeeJsonWriter) {
+        if (saved.isEmpty() && deleted.isEmpty()) {
+            return this;
+        }
+        TreeMap<Long, Employee> changes = new TreeMap<>();
+        for (Employee employee : saved) {
+            if (!deleted.contains(employee.getId())) {
+                changes.put(employee.getId(), employee.toBuilder().build());
+            }
+        }
+
+        int capacity = this.employees.length + changes.size();
+        Employee[] employees = new Employee[capacity];
+        byte[][] fragments = new byte[capacity][];
+        int size = 0;
+        int index = 0;
+        for (Employee change : changes.values()) {
+            // NOTE: unchanged employees up to the change keep their serialized form
+            while (index < this.employees.length && this.employees[index].getId() < change.getId()) {
+                size = copyUnlessDeleted(index++, deleted, employees, fragments, size);
+            }
+            if (index < this.employees.length && this.employees[index].getId() == change.getId()) {
+                index++;
+            }
+            employees[size] = change;
+            fragments[size++] = employeeJsonWriter.toBytes(change);
+        }
+        while (index < this.employees.length) {
+            size = copyUnlessDeleted(index++, deleted, employees, fragments, size);
+        }
+        return new EmployeeSnapshot(Arrays.copyOf(employees, size), Arrays.copyOf(fragments, size));
+    }
+
+    /**
+     * @return whether the snapshot doesn't hold the employee, or holds an older version of it
+     */
+    public boolean isOlderThan(Employee employee) {
+        int index = indexOf(employee.getId());
+        return index < 0 || employees[index].getVersion() < employee.getVersion();
+    }
+
+    @Override
+    public Employee get(int index) {
+        return employees[index].toBuilder().build();
+    }
+
+    @Override
+    public int size() {
+        return employees.length;
+    }
+
+    @Override
+    public byte[] json() {
+        return json;
+    }
+
+    private int indexOf(long id) {
+        int low = 0;
+        int high = employees.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = employees[middle].getId();
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int copyUnlessDeleted(int index, Set<Long> deleted, Employee[] employees, byte[][] fragments, int size) {
+        if (deleted.contains(this.employees[index].getId())) {
+            return size;
+        }
+        employees[size] = this.employees[index];
+        fragments[size] = this.fragments[index];
+        return size + 1;
+    }
+
+    private static byte[] join(byte[][] fragments) {
+        if (fragments.length == 0) {
+            return EMPTY_ARRAY_JSON;
+        }
+        int length = fragments.length + 1; // brackets and separators
+        for (byte[] fragment : fragments) {
+            length += fragment.length;
+        }
+        byte[] json = new byte[length];
+        int position = 0;
+        json[position++] = '[';
+        for (int i = 0; i < fragments.length; i++) {
+            if (i > 0) {
+                json[position++] = ',';
+            }
+            System.arraycopy(fragments[i], 0, json, position, fragments[i].length);
+            position += fragments[i].length;
+        }
+        json[position] = ']';
+        return json;
+    }
+}
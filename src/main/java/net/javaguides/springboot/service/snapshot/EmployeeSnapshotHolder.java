@@ -0,0 +1,134 @@
+package net.javaguides.springboot.service.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.json.EmployeeJsonWriter;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.event.EmployeeChangedEvent;
+import net.javaguides.springboot.service.event.EmployeesChangedEvent;
+import net.javaguides.springboot.service.invalidation.EmployeeInvalidatedEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps a materialized {@link EmployeeSnapshot} of the employees table, enabled with {@code employees.snapshot.enabled=true}.
+ * <p>
+ * The table is read once, on first use; after that every committed change published as an {@link EmployeeChangedEvent}
+ * is applied to a copy of the current snapshot, which is then swapped in; the changes of an {@link EmployeesChangedEvent}
+ * are swapped in together. Readers never lock: a read is a pointer load.
+ * Changes made by other nodes arrive as an {@link EmployeeInvalidatedEvent}, and only the employees named in it
+ * are read again. NOTE: writes made outside any node (SQL run by hand) require {@link #invalidate()} to be picked up.
+ */
+@Component
+@ConditionalOnProperty(name = "employees.snapshot.enabled", havingValue = "true")
+public class EmployeeSnapshotHolder {
+    private static final int MAX_DELETED_IDS = 10_000;
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeJsonWriter employeeJsonWriter;
+    private final AtomicReference<EmployeeSnapshot> current = new AtomicReference<>();
+    // NOTE: ids are never reused, so a deleted id stays deleted; only the most recent deletions are remembered, which
+    // is plenty for a late save, and the snapshot loaded from the database doesn't have the older ones anyway
+    private final Set<Long> deletedIds = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > MAX_DELETED_IDS;
+        }
+    });
+
+    public EmployeeSnapshotHolder(EmployeeRepository employeeRepository, ObjectMapper objectMapper) {
+        this.employeeRepository = employeeRepository;
+        this.employeeJsonWriter = new EmployeeJsonWriter(objectMapper);
+    }
+
+    public EmployeeSnapshot get() {
+        EmployeeSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : load();
+    }
+
+    /**
+     * Drops the snapshot, so the next read loads it again from the database.
+     */
+    public synchronized void invalidate() {
+        current.set(null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEmployeeChanged(EmployeeChangedEvent event) {
+        apply(List.of(event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEmployeesChanged(EmployeesChangedEvent event) {
+        apply(event.changes());
+    }
+
+    @EventListener
+    public synchronized void onEmployeesInvalidated(EmployeeInvalidatedEvent event) {
+        EmployeeSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            return;
+        }
+        if (event.isAll()) {
+            current.set(null);
+            return;
+        }
+        // NOTE: the database has the last word, even over a local deletion
+        List<Employee> saved = new ArrayList<>();
+        Set<Long> deleted = new HashSet<>(event.ids());
+        for (Employee employee : employeeRepository.findAllById(event.ids())) {
+            deleted.remove(employee.getId());
+            deletedIds.remove(employee.getId());
+            if (snapshot.isOlderThan(employee)) {
+                saved.add(employee);
+            }
+        }
+        deletedIds.addAll(deleted);
+        current.set(snapshot.withChanges(saved, deleted, employeeJsonWriter));
+    }
+
+    private void apply(List<EmployeeChangedEvent> events) {
+        // NOTE: events of concurrent writes can arrive out of commit order, so a save is only applied if it is newer
+        // than what the snapshot holds, and never once the employee was deleted
+        Map<Long, Employee> saved = new HashMap<>();
+        Set<Long> deleted = new HashSet<>();
+        for (EmployeeChangedEvent event : events) {
+            if (event.isDeleted()) {
+                deletedIds.add(event.id());
+                deleted.add(event.id());
+            } else if (!deletedIds.contains(event.id())) {
+                saved.merge(event.id(), event.employee(),
+                        (pending, employee) -> employee.getVersion() > pending.getVersion() ? employee : pending);
+            }
+        }
+        EmployeeSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            // NOTE: nothing loaded yet; the first read will see the changes in the database
+            return;
+        }
+        saved.values().removeIf(employee -> !snapshot.isOlderThan(employee));
+        current.set(snapshot.withChanges(saved.values(), deleted, employeeJsonWriter));
+    }
+
+    private synchronized EmployeeSnapshot load() {
+        // NOTE: changes wait for the load to finish, so none can be applied to a snapshot older than the one loaded
+        EmployeeSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            snapshot = EmployeeSnapshot.of(employeeRepository.findAllDetached(), employeeJsonWriter);
+            current.set(snapshot);
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,220 @@
+package net.javaguides.springboot.service.stats;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.javaguides.springboot.dto.EmployeeStats;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeHeadcount;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.event.EmployeeChangedEvent;
+import net.javaguides.springboot.service.event.EmployeesChangedEvent;
+import net.javaguides.springboot.service.invalidation.EmployeeInvalidatedEvent;
+import net.javaguides.springboot.service.support.SingleFlight;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the {@link EmployeeStats} headcounts, so dashboards polling them do not make the database group the whole
+ * table (let alone send it over) on every refresh.
+ * <p>
+ * The counts are aggregated by the database on first use; after that every committed {@link EmployeeChangedEvent}
+ * moves its employee from its old keys to its new ones. The old keys of an employee are only known once a change of
+ * it has been seen, so the first update or delete of an employee that existed before (and every change made by
+ * another node, see {@link EmployeeInvalidatedEvent}) has the counts aggregated again on the next read instead.
+ * <p>
+ * The aggregation runs without the lock, so writers never wait for it; concurrent reads share one aggregation. Its
+ * counts are only kept if no change was seen while it ran, as that change may or may not be in them; otherwise they
+ * are returned to the readers that waited for them, and the next read aggregates again.
+ * NOTE: writes made outside any node are not seen at all; they are picked up by aggregating again once the counts
+ * are {@code employees.stats.max-age} old.
+ */
+@Component
+public class EmployeeStatsCache implements MeterBinder {
+    // NOTE: past this many, the employee changed least recently is forgotten and its next change aggregates again
+    static final int MAX_TRACKED_EMPLOYEES = 10_000;
+    private static final String AGGREGATION = "headcounts";
+
+    private final EmployeeRepository employeeRepository;
+    private final long maxAgeNanos;
+    private final LongAdder loads = new LongAdder();
+    private final SingleFlight<String, Headcounts> aggregations = new SingleFlight<>();
+
+    // NOTE: guarded by this, like the fields below; only ever written under the lock
+    private final Map<String, Long> byLastName = new HashMap<>();
+    private final Map<String, Long> byEmailDomain = new HashMap<>();
+    // NOTE: the current keys of the employees changed most recently, one small entry per changed employee
+    private final Map<Long, StatsKeys> keysById = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, StatsKeys> eldest) {
+            return size() > MAX_TRACKED_EMPLOYEES;
+        }
+    };
+    private long total;
+    private boolean loaded;
+    // NOTE: moved on by every change, so an aggregation can tell whether one was seen while it ran
+    private long generation;
+    private volatile long loadedAt;
+    private volatile EmployeeStats current;
+
+    public EmployeeStatsCache(EmployeeRepository employeeRepository,
+                              @Value("${employees.stats.max-age:5m}") Duration maxAge) {
+        this.employeeRepository = employeeRepository;
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    public EmployeeStats get() {
+        EmployeeStats stats = current;
+        return stats != null && !isExpired() ? stats : refresh();
+    }
+
+    /**
+     * Drops the counts, so the next read aggregates them again from the database.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        loaded = false;
+        current = null;
+        keysById.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEmployeeChanged(EmployeeChangedEvent event) {
+        generation++;
+        Employee employee = event.employee();
+        StatsKeys previous = event.isDeleted()
+                ? keysById.remove(event.id())
+                : keysById.put(event.id(), StatsKeys.of(employee));
+        if (!loaded) {
+            // NOTE: nothing loaded yet; the first read will see the change in the database
+            return;
+        }
+        boolean created = employee != null && employee.getVersion() == 0;
+        if (previous == null && !created) {
+            loaded = false;
+        } else {
+            if (previous != null) {
+                count(previous, -1);
+            }
+            if (employee != null) {
+                count(StatsKeys.of(employee), 1);
+            }
+        }
+        current = null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEmployeesChanged(EmployeesChangedEvent event) {
+        event.changes().forEach(this::onEmployeeChanged);
+    }
+
+    @EventListener
+    public synchronized void onEmployeesInvalidated(EmployeeInvalidatedEvent event) {
+        if (event.isAll()) {
+            invalidate();
+            return;
+        }
+        event.ids().forEach(keysById::remove);
+        generation++;
+        loaded = false;
+        current = null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("employees.stats.loads", loads, LongAdder::sum)
+                .description("Employee headcounts aggregated by the database")
+                .register(registry);
+    }
+
+    private EmployeeStats refresh() {
+        synchronized (this) {
+            if (loaded && !isExpired()) {
+                return stats();
+            }
+        }
+        Headcounts headcounts = aggregations.execute(AGGREGATION, this::aggregate);
+        synchronized (this) {
+            if (headcounts.generation() != generation) {
+                return statsOf(headcounts.total(), headcounts.byLastName(), headcounts.byEmailDomain());
+            }
+            byLastName.clear();
+            byLastName.putAll(headcounts.byLastName());
+            byEmailDomain.clear();
+            byEmailDomain.putAll(headcounts.byEmailDomain());
+            total = headcounts.total();
+            loaded = true;
+            loadedAt = System.nanoTime();
+            current = null;
+            return stats();
+        }
+    }
+
+    private EmployeeStats stats() {
+        if (current == null) {
+            current = statsOf(total, byLastName, byEmailDomain);
+        }
+        return current;
+    }
+
+    private static EmployeeStats statsOf(long total, Map<String, Long> byLastName, Map<String, Long> byEmailDomain) {
+        return new EmployeeStats(total,
+                Collections.unmodifiableMap(new TreeMap<>(byLastName)),
+                Collections.unmodifiableMap(new TreeMap<>(byEmailDomain)));
+    }
+
+    private Headcounts aggregate() {
+        long started;
+        synchronized (this) {
+            started = generation;
+        }
+        loads.increment();
+        Map<String, Long> lastNames = new HashMap<>();
+        Map<String, Long> emailDomains = new HashMap<>();
+        long employees = 0;
+        for (EmployeeHeadcount headcount : employeeRepository.headcountsByLastName()) {
+            lastNames.put(headcount.key(), headcount.employees());
+            employees += headcount.employees();
+        }
+        for (EmployeeHeadcount headcount : employeeRepository.headcountsByEmailDomain()) {
+            emailDomains.put(headcount.key(), headcount.employees());
+        }
+        return new Headcounts(started, employees, lastNames, emailDomains);
+    }
+
+    private boolean isExpired() {
+        return System.nanoTime() - loadedAt >= maxAgeNanos;
+    }
+
+    private void count(StatsKeys keys, long delta) {
+        total += delta;
+        add(byLastName, keys.lastName(), delta);
+        add(byEmailDomain, keys.emailDomain(), delta);
+    }
+
+    private static void add(Map<String, Long> counts, String key, long delta) {
+        counts.compute(key, (k, employees) -> {
+            long updated = (employees == null ? 0 : employees) + delta;
+            return updated > 0 ? updated : null;
+        });
+    }
+
+    private record Headcounts(long generation, long total, Map<String, Long> byLastName, Map<String, Long> byEmailDomain) {
+    }
+
+    private record StatsKeys(String lastName, String emailDomain) {
+        static StatsKeys of(Employee employee) {
+            return new StatsKeys(employee.getLastName(), EmployeeHeadcount.emailDomainOf(employee.getEmail()));
+        }
+    }
+}
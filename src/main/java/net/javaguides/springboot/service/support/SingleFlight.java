@@ -0,0 +1,113 @@
+package net.javaguides.springboot.service.support;
+
+import net.javaguides.springboot.deadline.Deadline;
+import net.javaguides.springboot.deadline.DeadlineExceededException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into a single execution.
+ * <p>
+ * The first caller for a key runs the loader on its own thread; callers arriving while it is in flight
+ * wait for and share its result (or exception). Nothing is cached: once the call completes, the next
+ * caller for that key triggers a new execution.
+ * NOTE: every caller in a flight receives the same result instance, so callers must not mutate it.
+ * A waiting caller gives up at its own {@link Deadline}, even if the leader's is later.
+ * After a write, {@link #forget} the keys it touched: a flight that started before the write may return the row
+ * as it was, so callers arriving afterwards must start a new one rather than join it.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, call);
+        if (leader != null) {
+            collapsed.increment();
+            return await(leader);
+        }
+
+        executed.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Starts a new generation for the key: callers arriving from now on run (or join) a new execution, while the
+     * ones already waiting on the current flight still get its result.
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * {@link #forget} for every key.
+     */
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * @return number of calls that actually ran their loader
+     */
+    public long executedCount() {
+        return executed.sum();
+    }
+
+    /**
+     * @return number of calls that were served by another caller's in-flight execution
+     */
+    public long collapsedCount() {
+        return collapsed.sum();
+    }
+
+    private static <V> V await(CompletableFuture<V> call) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            try {
+                return call.join();
+            } catch (CompletionException e) {
+                throw rethrow(e.getCause(), e);
+            }
+        }
+        try {
+            return call.get(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause(), new CompletionException(e.getCause()));
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException(deadline.budget());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause, RuntimeException wrapped) {
+        // NOTE: rethrow the leader's exception as-is, so followers fail exactly like the leader did
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return wrapped;
+    }
+}
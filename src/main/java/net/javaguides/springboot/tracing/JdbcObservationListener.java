@@ -0,0 +1,58 @@
+package net.javaguides.springboot.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Observes every JDBC statement executed through a datasource-proxy wrapped {@code DataSource}, so each becomes a
+ * span (with the SQL text and, for updates, the rows affected) under the span of the repository method that ran it.
+ */
+public class JdbcObservationListener implements QueryExecutionListener {
+    private static final String OBSERVATION = JdbcObservationListener.class.getName() + ".observation";
+
+    private final Supplier<ObservationRegistry> observationRegistry;
+
+    // NOTE: a supplier, as the registry is created long after the DataSource is wrapped
+    public JdbcObservationListener(Supplier<ObservationRegistry> observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+        String type = queryInfoList.isEmpty() ? "other" : QueryUtils.getQueryType(queryInfoList.get(0).getQuery()).name().toLowerCase();
+        Observation observation = Observation.createNotStarted("employees.jdbc", observationRegistry.get())
+                .contextualName("jdbc " + type)
+                .lowCardinalityKeyValue("datasource", String.valueOf(execInfo.getDataSourceName()))
+                .lowCardinalityKeyValue("type", type)
+                .highCardinalityKeyValue("db.statement", sql)
+                .start();
+        execInfo.addCustomValue(OBSERVATION, observation);
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Observation observation = execInfo.getCustomValue(OBSERVATION, Observation.class);
+        if (observation == null) {
+            return;
+        }
+        if (execInfo.getResult() instanceof Integer updated) {
+            observation.highCardinalityKeyValue("rows", Integer.toString(updated));
+        } else if (execInfo.getResult() instanceof int[] updated) {
+            observation.highCardinalityKeyValue("rows", Integer.toString(Arrays.stream(updated).filter(rows -> rows >= 0).sum()));
+        }
+        if (execInfo.getThrowable() != null) {
+            observation.error(execInfo.getThrowable());
+        }
+        observation.stop();
+    }
+}
@@ -0,0 +1,62 @@
+package net.javaguides.springboot.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Observes every call into the controller, service and repository layers, so each shows up as its own span
+ * (named after the interface and method, e.g. {@code employee-service.get-employee-by-id}) and in the
+ * {@code employees.calls} timer, tagged by layer and method.
+ * <p>
+ * Repository spans also carry the number of rows the method returned; the SQL statements it ran are child spans,
+ * see {@link JdbcObservationListener}.
+ */
+@Aspect
+@Component
+public class LayerObservationAspect {
+    private final ObservationRegistry observationRegistry;
+
+    public LayerObservationAspect(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Around("net.javaguides.springboot.tracing.LayerPointcuts.controller()")
+    public Object observeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("controller", joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint, false);
+    }
+
+    @Around("net.javaguides.springboot.tracing.LayerPointcuts.service()")
+    public Object observeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("service", "EmployeeService", joinPoint, false);
+    }
+
+    @Around("net.javaguides.springboot.tracing.LayerPointcuts.repository()")
+    public Object observeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("repository", "EmployeeRepository", joinPoint, true);
+    }
+
+    private Object observe(String layer, String type, ProceedingJoinPoint joinPoint, boolean countRows) throws Throwable {
+        String method = type + "." + joinPoint.getSignature().getName();
+        Observation observation = Observation.createNotStarted("employees.calls", observationRegistry)
+                .contextualName(method)
+                .lowCardinalityKeyValue("layer", layer)
+                .lowCardinalityKeyValue("method", method)
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            Object result = joinPoint.proceed();
+            if (countRows) {
+                ResultRows.of(result).ifPresent(rows -> observation.highCardinalityKeyValue("rows", Integer.toString(rows)));
+            }
+            return result;
+        } catch (Throwable e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+}
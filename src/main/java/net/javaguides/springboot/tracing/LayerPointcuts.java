@@ -0,0 +1,21 @@
+package net.javaguides.springboot.tracing;
+
+import org.aspectj.lang.annotation.Pointcut;
+
+/**
+ * The calls into each application layer, shared by the aspects that instrument them.
+ */
+public class LayerPointcuts {
+
+    @Pointcut("within(@org.springframework.web.bind.annotation.RestController *)")
+    public void controller() {
+    }
+
+    @Pointcut("execution(* net.javaguides.springboot.service.EmployeeService.*(..))")
+    public void service() {
+    }
+
+    @Pointcut("this(net.javaguides.springboot.repository.EmployeeRepository)")
+    public void repository() {
+    }
+}
@@ -0,0 +1,41 @@
+package net.javaguides.springboot.tracing;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Number of rows (employees) in what a service or repository method returned.
+ */
+public final class ResultRows {
+
+    private ResultRows() {
+    }
+
+    /**
+     * @return the number of rows, or empty when the result is not made of rows (e.g. {@code count()})
+     */
+    public static OptionalInt of(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return OptionalInt.of(collection.size());
+        } else if (result instanceof Slice<?> slice) {
+            return OptionalInt.of(slice.getNumberOfElements());
+        } else if (result instanceof Optional<?> optional) {
+            return OptionalInt.of(optional.isPresent() ? 1 : 0);
+        } else if (result instanceof Iterable<?> iterable) {
+            int rows = 0;
+            for (Object ignored : iterable) {
+                rows++;
+            }
+            return OptionalInt.of(rows);
+        } else if (result == null) {
+            return OptionalInt.of(0);
+        } else if (result instanceof Number || result instanceof Boolean) {
+            // NOTE: count() and existsById() return a value computed from the rows, not rows
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(1);
+    }
+}
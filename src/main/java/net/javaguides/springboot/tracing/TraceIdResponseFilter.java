@@ -0,0 +1,43 @@
+package net.javaguides.springboot.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Returns the trace id of every request in the {@code X-Trace-Id} response header, so a client can quote it
+ * when reporting a slow or failed call.
+ * <p>
+ * NOTE: registered with the default (lowest) order, so it runs inside Spring Boot's HTTP server observation
+ * filter, which starts the request's trace.
+ */
+@Component
+public class TraceIdResponseFilter extends OncePerRequestFilter {
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    // NOTE: there is no Tracer when tracing is disabled (e.g. in tests by default)
+    private final ObjectProvider<Tracer> tracer;
+
+    public TraceIdResponseFilter(ObjectProvider<Tracer> tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Tracer currentTracer = tracer.getIfAvailable();
+        Span span = currentTracer == null ? null : currentTracer.currentSpan();
+        if (span != null) {
+            response.setHeader(TRACE_ID_HEADER, span.context().traceId());
+        }
+        filterChain.doFilter(request, response);
+    }
+}
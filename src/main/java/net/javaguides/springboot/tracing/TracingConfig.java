@@ -0,0 +1,35 @@
+package net.javaguides.springboot.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Local span exporters, so traces can be read without a collector; {@code employees.tracing.exporter} picks one:
+ * <ul>
+ *     <li>{@code logging}: one log line per span, as in the {@code dev} profile;</li>
+ *     <li>{@code file}: JSON lines appended to {@code employees.tracing.file};</li>
+ *     <li>{@code none} (default): no local exporter, e.g. when an OTLP exporter is configured instead.</li>
+ * </ul>
+ */
+@Configuration(proxyBeanMethods = false)
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "employees.tracing.exporter", havingValue = "logging")
+    public SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "employees.tracing.exporter", havingValue = "file")
+    public SpanExporter fileSpanExporter(@Value("${employees.tracing.file:traces.jsonl}") Path file, ObjectMapper objectMapper) {
+        return new FileSpanExporter(file, objectMapper);
+    }
+}
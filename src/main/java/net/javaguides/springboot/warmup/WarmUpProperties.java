@@ -0,0 +1,30 @@
+package net.javaguides.springboot.warmup;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties("employees.warmup")
+public class WarmUpProperties {
+    /**
+     * Whether to warm the application up before it reports itself ready.
+     */
+    private boolean enabled = false;
+    /**
+     * Employee ids known to be requested often. When empty, the {@link #hotIdCount} most recently created ones are used.
+     */
+    private List<Long> hotIds = new ArrayList<>();
+    /**
+     * How many of the most recently created employees to treat as hot when no {@link #hotIds} are configured.
+     */
+    private int hotIdCount = 20;
+    /**
+     * How many times each read endpoint is called, so the JIT has compiled the request path before real traffic arrives.
+     */
+    private int iterations = 100;
+}
@@ -0,0 +1,189 @@
+package net.javaguides.springboot.warmup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Warms the application up before it reports itself ready, enabled with {@code employees.warmup.enabled=true}.
+ * <p>
+ * Spring Boot only switches readiness to {@code ACCEPTING_TRAFFIC} once every {@link ApplicationRunner} has returned,
+ * so a pod is kept out of the load balancer while this runs:
+ * <ol>
+ *     <li>{@code pool}: opens every connection pool up to its minimum size;</li>
+ *     <li>{@code queries}: runs each {@link EmployeeRepository} query once, so statements and plans are prepared;</li>
+ *     <li>{@code caches}: loads the hot employees through the {@link EmployeeService}, filling the caches in front of it;</li>
+ *     <li>{@code endpoints}: calls the read endpoints over HTTP, so Tomcat, MVC, the JSON writers and the JIT are warm.</li>
+ * </ol>
+ * Every read is bounded by the hot ids: the full list ({@code GET /api/employees}) is never read, as every pod starting
+ * would pull the whole table; the batch read of the hot ids warms the same MVC and JSON path.
+ * NOTE: off by default, enable it where startup traffic justifies the extra queries.
+ * Each stage, and the whole warm-up, is recorded in the {@code employees.warmup} timer. A failing stage is logged and
+ * skipped: a slow first request is better than a pod that never becomes ready.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "employees.warmup.enabled", havingValue = "true")
+@EnableConfigurationProperties(WarmUpProperties.class)
+public class WarmUpRunner implements ApplicationRunner {
+    private static final String WARM_UP_NAME = "warm-up";
+
+    private final WarmUpProperties properties;
+    private final ApplicationContext applicationContext;
+    private final ObjectProvider<DataSource> dataSources;
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeService employeeService;
+    private final RestTemplateBuilder restTemplateBuilder;
+    private final MeterRegistry meterRegistry;
+
+    public WarmUpRunner(WarmUpProperties properties,
+                        ApplicationContext applicationContext,
+                        ObjectProvider<DataSource> dataSources,
+                        EmployeeRepository employeeRepository,
+                        EmployeeService employeeService,
+                        RestTemplateBuilder restTemplateBuilder,
+                        MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.applicationContext = applicationContext;
+        this.dataSources = dataSources;
+        this.employeeRepository = employeeRepository;
+        this.employeeService = employeeService;
+        this.restTemplateBuilder = restTemplateBuilder;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AvailabilityChangeEvent.publish(applicationContext, ReadinessState.REFUSING_TRAFFIC);
+        long start = System.nanoTime();
+
+        stage("pool", this::openConnectionPools);
+        stage("queries", this::prepareQueries);
+        List<Long> hotIds = new ArrayList<>();
+        stage("caches", () -> hotIds.addAll(loadHotEmployees()));
+        stage("endpoints", () -> exerciseEndpoints(hotIds));
+
+        long elapsed = System.nanoTime() - start;
+        timer("total").record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Warm-up finished in {} ms", elapsed / 1_000_000);
+    }
+
+    private void stage(String stage, Runnable work) {
+        try {
+            timer(stage).record(work);
+        } catch (RuntimeException e) {
+            log.warn("Warm-up stage '{}' failed, skipping it", stage, e);
+        }
+    }
+
+    private Timer timer(String stage) {
+        return Timer.builder("employees.warmup")
+                .description("Time spent warming the application up before reporting readiness")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    private void openConnectionPools() {
+        // NOTE: the storage engines that don't use JPA have no DataSource bean, so there may be nothing to do
+        dataSources.orderedStream().forEach(dataSource -> {
+            try {
+                int minimumSize = dataSource.isWrapperFor(HikariDataSource.class)
+                        ? dataSource.unwrap(HikariDataSource.class).getMinimumIdle() : 1;
+                // NOTE: holding the connections at once forces the pool to open them now instead of lazily, in the background
+                List<Connection> connections = new ArrayList<>(minimumSize);
+                try {
+                    for (int i = 0; i < minimumSize; i++) {
+                        connections.add(dataSource.getConnection());
+                    }
+                } finally {
+                    for (Connection connection : connections) {
+                        connection.close();
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not open the connection pool", e);
+            }
+        });
+    }
+
+    private void prepareQueries() {
+        // NOTE: values that match no employee, so nothing is actually read but every statement gets prepared
+        employeeRepository.findById(0L);
+        employeeRepository.findAllById(List.of(0L));
+        employeeRepository.findByEmail(WARM_UP_NAME);
+        employeeRepository.findByJpql(WARM_UP_NAME, WARM_UP_NAME);
+        employeeRepository.findByJpqlNamedParams(WARM_UP_NAME, WARM_UP_NAME);
+        employeeRepository.findByNativeSql(WARM_UP_NAME, WARM_UP_NAME);
+        employeeRepository.findByNativeSqlNamedParams(WARM_UP_NAME, WARM_UP_NAME);
+        employeeRepository.count();
+    }
+
+    private List<Long> loadHotEmployees() {
+        List<Long> hotIds = properties.getHotIds();
+        if (hotIds.isEmpty()) {
+            hotIds = employeeRepository.findAll(PageRequest.of(0, properties.getHotIdCount(), Sort.by(Sort.Direction.DESC, "id")))
+                    .map(Employee::getId)
+                    .getContent();
+        }
+        hotIds.forEach(employeeService::getEmployeeById);
+        employeeService.getEmployeesByIds(hotIds);
+        return hotIds;
+    }
+
+    private void exerciseEndpoints(List<Long> hotIds) {
+        if (!(applicationContext instanceof WebServerApplicationContext webServerContext)) {
+            log.info("Warm-up skips the endpoints, the application is not running a web server");
+            return;
+        }
+        RestTemplate restTemplate = restTemplateBuilder
+                .rootUri("http://localhost:" + webServerContext.getWebServer().getPort())
+                .errorHandler(new IgnoreErrors())
+                .build();
+        List<Long> ids = hotIds.isEmpty() ? List.of(0L) : hotIds;
+        String idList = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        for (int i = 0; i < properties.getIterations(); i++) {
+            restTemplate.getForEntity("/api/employees/{id}", String.class, ids.get(i % ids.size()));
+            restTemplate.getForEntity("/api/employees?ids={ids}", String.class, idList);
+        }
+    }
+
+    // NOTE: 404s for ids that don't exist are expected, the point is only to run the request path
+    private static class IgnoreErrors implements ResponseErrorHandler {
+        @Override
+        public boolean hasError(ClientHttpResponse response) {
+            return false;
+        }
+
+        @Override
+        public void handleError(ClientHttpResponse response) {
+        }
+    }
+}
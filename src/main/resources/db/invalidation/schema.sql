@@ -0,0 +1,8 @@
+-- committed employee changes, read by every node to invalidate its caches; see JdbcEmployeeChangeBus
+create table if not exists employee_changes (
+    seq bigint not null auto_increment,
+    employee_id bigint not null,
+    node_id varchar(64) not null,
+    changed_at timestamp not null,
+    primary key (seq)
+);
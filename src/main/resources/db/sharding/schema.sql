@@ -0,0 +1,29 @@
+create table if not exists employees (
+    id bigint not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    email varchar(255) not null,
+    version bigint not null,
+    deleted_at timestamp null,
+    primary key (id)
+);
+
+-- soft-deleted rows moved out of employees by the archiver, see EmployeeBulkOperations#archiveDeleted
+create table if not exists employees_archive (
+    id bigint not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    email varchar(255) not null,
+    version bigint not null,
+    deleted_at timestamp not null,
+    archived_at timestamp not null,
+    primary key (id)
+);
+
+-- single-row counter, the primary key keeps it that way (its id is always 1); only the one on the first shard
+-- is used, see GlobalIdAllocator
+create table if not exists employee_id_allocator (
+    id tinyint not null,
+    next_id bigint not null,
+    primary key (id)
+);
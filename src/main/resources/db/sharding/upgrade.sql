@@ -0,0 +1,8 @@
+-- changes to shards created by an earlier schema.sql; run with continueOnError, as MySQL has no
+-- "if not exists" for indexes and columns: on later startups they already exist and the statements fail harmlessly
+create index idx_employees_last_name on employees (last_name);
+create index idx_employees_email on employees (email);
+alter table employees add column deleted_at timestamp null;
+create index idx_employees_deleted_at on employees (deleted_at);
+alter table employee_id_allocator add column id tinyint not null default 1;
+alter table employee_id_allocator add primary key (id);
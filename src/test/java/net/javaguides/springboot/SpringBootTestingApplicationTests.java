@@ -1,9 +1,12 @@
 package net.javaguides.springboot;
 
+import net.javaguides.springboot.config.StorageProfiles;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
+@ActiveProfiles(StorageProfiles.IN_MEMORY)
 class SpringBootTestingApplicationTests {
 
 	@Test
@@ -0,0 +1,53 @@
+package net.javaguides.springboot.audit;
+
+import net.javaguides.springboot.audit.AuditRecord.Operation;
+import net.javaguides.springboot.config.StorageProfiles;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "employees.audit.enabled=true",
+        "employees.audit.directory=${java.io.tmpdir}/employees-audit-${random.uuid}",
+        "employees.audit.sync=true"
+})
+@ActiveProfiles(StorageProfiles.IN_MEMORY)
+public class AuditLogIntegrationTests {
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private AuditLog auditLog;
+
+    @DisplayName("Employee service mutations are audited")
+    @Test
+    public void givenEmployeeLifecycle_whenReplayAuditLog_thenReturnCreateUpdateDelete() throws Exception {
+        // given - precondition or setup
+        Employee employee = employeeService.saveEmployee(Employee.builder()
+                .firstName("Dan")
+                .lastName("Sanchez")
+                .email("dan@domain.com")
+                .build());
+        employee.setFirstName("NewDan");
+        employeeService.updateEmployee(employee);
+        employeeService.deleteEmployee(employee.getId());
+
+        // when - action or the behavior that we are going to test
+        List<AuditRecord> records = new ArrayList<>();
+        auditLog.replay(1, records::add);
+
+        // then - verify the output
+        assertThat(records).extracting(AuditRecord::operation)
+                .containsExactly(Operation.CREATE, Operation.UPDATE, Operation.DELETE);
+        assertThat(records.get(1).employee().getFirstName()).isEqualTo("NewDan");
+        assertThat(records).extracting(record -> record.employee().getId()).containsOnly(employee.getId());
+    }
+}
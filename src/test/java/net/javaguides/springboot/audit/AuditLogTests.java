@@ -0,0 +1,136 @@
+package net.javaguides.springboot.audit;
+
+import net.javaguides.springboot.audit.AuditRecord.Operation;
+import net.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// NOTE: no Spring context needed, the log is a plain object over a temporary directory
+public class AuditLogTests {
+    @TempDir
+    private Path directory;
+
+    private AuditLog auditLog;
+    private Employee employee;
+
+    @BeforeEach
+    private void openLog() throws IOException {
+        auditLog = new AuditLog(directory, 4096, Duration.ofMillis(5));
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Dan")
+                .lastName("Sanchez")
+                .email("dan@domain.com")
+                .build();
+    }
+
+    @AfterEach
+    private void closeLog() {
+        auditLog.close();
+    }
+
+    @DisplayName("Replay returns appended changes in order")
+    @Test
+    public void givenAppendedChanges_whenReplay_thenReturnChangesInOrder() throws IOException {
+        // given - precondition or setup
+        auditLog.append(Operation.CREATE, employee);
+        auditLog.append(Operation.UPDATE, employee.toBuilder().firstName("NewDan").version(1L).build());
+        auditLog.append(Operation.DELETE, employee);
+
+        // when - action or the behavior that we are going to test
+        List<AuditRecord> records = new ArrayList<>();
+        long next = auditLog.replay(2, records::add);
+
+        // then - verify the output
+        assertThat(next).isEqualTo(4);
+        assertThat(records).extracting(AuditRecord::sequence).containsExactly(2L, 3L);
+        assertThat(records).extracting(AuditRecord::operation).containsExactly(Operation.UPDATE, Operation.DELETE);
+        assertThat(records.get(0).employee()).usingRecursiveComparison()
+                .isEqualTo(employee.toBuilder().firstName("NewDan").version(1L).build());
+        assertThat(records.get(1).employee().getId()).isEqualTo(1L);
+        assertThat(records.get(1).employee().getEmail()).isNull();
+    }
+
+    @DisplayName("Full segments roll over to new ones")
+    @Test
+    public void givenMoreChangesThanFitInASegment_whenAppend_thenRollAndReplayAcrossSegments() throws IOException {
+        // given - precondition or setup
+        for (int i = 0; i < 200; i++) {
+            auditLog.append(Operation.UPDATE, employee.toBuilder().version(i).build());
+        }
+
+        // when - action or the behavior that we are going to test
+        List<AuditRecord> records = new ArrayList<>();
+        auditLog.replay(150, records::add);
+
+        // then - verify the output
+        assertThat(segmentCount()).isGreaterThan(1);
+        assertThat(records).extracting(record -> record.employee().getVersion())
+                .containsExactlyElementsOf(Stream.iterate(149L, version -> version + 1).limit(51).toList());
+    }
+
+    @DisplayName("Reopened log discards a torn record and continues the sequence")
+    @Test
+    public void givenTornRecordAtTheEnd_whenReopen_thenDiscardItAndContinueSequence() throws IOException {
+        // given - precondition or setup
+        auditLog.append(Operation.CREATE, employee);
+        auditLog.close();
+        try (RandomAccessFile segment = new RandomAccessFile(lastSegment().toFile(), "rw")) {
+            // NOTE: a length and half a payload right after the first record, as if the process died mid-append
+            segment.seek(2 * Integer.BYTES + segment.readInt());
+            segment.writeInt(100);
+            segment.writeLong(2L);
+        }
+
+        // when - action or the behavior that we are going to test
+        auditLog = new AuditLog(directory, 4096, Duration.ofMillis(5));
+        long sequence = auditLog.append(Operation.DELETE, employee);
+
+        // then - verify the output
+        List<AuditRecord> records = new ArrayList<>();
+        AuditLog.replay(directory, 1, records::add);
+        assertThat(sequence).isEqualTo(2);
+        assertThat(records).extracting(AuditRecord::operation).containsExactly(Operation.CREATE, Operation.DELETE);
+    }
+
+    @DisplayName("Writers can wait for the group flush")
+    @Test
+    public void givenAppendedChange_whenAwaitDurable_thenReturnOnceFlushed() throws Exception {
+        // given - precondition or setup
+        long sequence = auditLog.append(Operation.CREATE, employee);
+
+        // when - action or the behavior that we are going to test
+        auditLog.awaitDurable(sequence);
+
+        // then - verify the output
+        List<AuditRecord> records = new ArrayList<>();
+        auditLog.replay(1, records::add);
+        assertThat(records).hasSize(1);
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private Path lastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().reduce((first, second) -> second).orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package net.javaguides.springboot.audit;
+
+import net.javaguides.springboot.audit.AuditRecord.Operation;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.event.EmployeeChangedEvent;
+import net.javaguides.springboot.service.event.EmployeesChangedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeAuditListenerTests {
+    @Mock
+    private AuditLog auditLog;
+
+    @Test
+    @DisplayName("A batch of changes waits for the disk once, for its last record")
+    public void givenSyncAudit_whenBatchChanged_thenAwaitDurableOnceForLastRecord() throws Exception {
+        // Given
+        EmployeeAuditListener listener = new EmployeeAuditListener(auditLog, true);
+        given(auditLog.append(any(Operation.class), any(Employee.class))).willReturn(1L, 2L, 3L);
+
+        // When
+        listener.onEmployeesChanged(new EmployeesChangedEvent(List.of(
+                EmployeeChangedEvent.saved(Employee.builder().id(1L).version(0).build()),
+                EmployeeChangedEvent.saved(Employee.builder().id(2L).version(3).build()),
+                EmployeeChangedEvent.deleted(3L))));
+
+        // Then
+        verify(auditLog, times(3)).append(any(Operation.class), any(Employee.class));
+        verify(auditLog, times(1)).awaitDurable(anyLong());
+        verify(auditLog).awaitDurable(3L);
+    }
+
+    @Test
+    @DisplayName("Without sync, changes are not waited for")
+    public void givenAsyncAudit_whenBatchChanged_thenNeverAwaitDurable() throws Exception {
+        // Given
+        EmployeeAuditListener listener = new EmployeeAuditListener(auditLog, false);
+
+        // When
+        listener.onEmployeesChanged(new EmployeesChangedEvent(List.of(EmployeeChangedEvent.deleted(1L))));
+
+        // Then
+        verify(auditLog).append(eq(Operation.DELETE), argThat(employee -> employee.getId() == 1L));
+        verify(auditLog, never()).awaitDurable(anyLong());
+    }
+}
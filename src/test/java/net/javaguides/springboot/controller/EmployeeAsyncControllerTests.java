@@ -0,0 +1,119 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeAsyncService;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EmployeeAsyncController.class)
+public class EmployeeAsyncControllerTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private EmployeeAsyncService employeeAsyncService;
+
+    private Employee employee;
+
+    @BeforeEach
+    private void buildBaseEmployee() {
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Dan")
+                .lastName("Sanchez")
+                .email("dan@domain.com")
+                .build();
+    }
+
+    @Test
+    @DisplayName("GET all employees asynchronously")
+    public void givenListOfEmployees_whenGetAllEmployees_thenReturnAllEmployees() throws Exception {
+        // Given
+        given(employeeAsyncService.getAllEmployeesAsync())
+                .willReturn(CompletableFuture.completedFuture(List.of(employee)));
+
+        // When
+        // NOTE: the first perform only starts the async request; asyncDispatch writes the completed response
+        MvcResult started = mockMvc.perform(get("/api/async/employees"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", CoreMatchers.is(1)))
+                .andDo(print())
+        ;
+    }
+
+    @Test
+    @DisplayName("GET employee by ID asynchronously")
+    public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployee() throws Exception {
+        // Given
+        given(employeeAsyncService.getEmployeeByIdAsync(employee.getId()))
+                .willReturn(CompletableFuture.completedFuture(Optional.of(employee)));
+
+        // When
+        MvcResult started = mockMvc.perform(get("/api/async/employees/{id}", employee.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", CoreMatchers.is(employee.getEmail())))
+                .andExpect(header().string("ETag", "\"0\""))
+                .andDo(print())
+        ;
+    }
+
+    @Test
+    @DisplayName("GET invalid employee asynchronously")
+    public void givenBadEmployeeId_whenGetEmployeeById_thenReturnNotFound() throws Exception {
+        // Given
+        given(employeeAsyncService.getEmployeeByIdAsync(2L))
+                .willReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        // When
+        MvcResult started = mockMvc.perform(get("/api/async/employees/{id}", 2L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isNotFound())
+                .andDo(print())
+        ;
+    }
+
+    @Test
+    @DisplayName("GET employee when the DB executor is saturated")
+    public void givenSaturatedExecutor_whenGetEmployeeById_thenReturnServiceUnavailable() throws Exception {
+        // Given
+        given(employeeAsyncService.getEmployeeByIdAsync(employee.getId()))
+                .willThrow(new TaskRejectedException("employee-db executor is full"));
+
+        // When / Then
+        mockMvc.perform(get("/api/async/employees/{id}", employee.getId()))
+                .andExpect(status().isServiceUnavailable())
+                .andDo(print())
+        ;
+    }
+}
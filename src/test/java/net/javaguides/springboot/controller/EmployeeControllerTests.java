@@ -1,6 +1,10 @@
 package net.javaguides.springboot.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.dto.EmployeeBatch;
+import net.javaguides.springboot.dto.EmployeeFilter;
+import net.javaguides.springboot.dto.EmployeeUpsertCounts;
+import net.javaguides.springboot.json.EmployeeJsonHttpMessageConverter;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.service.EmployeeService;
 import org.hamcrest.CoreMatchers;
@@ -11,25 +15,32 @@ import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.mockito.BDDMockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest
+@WebMvcTest(EmployeeController.class)
 public class EmployeeControllerTests {
     @Autowired
     private MockMvc mockMvc;
     @MockBean
     private EmployeeService employeeService;
+    @SpyBean
+    private EmployeeJsonHttpMessageConverter employeeJsonHttpMessageConverter;
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -94,8 +105,50 @@ public class EmployeeControllerTests {
                 .andExpect(status().isOk())   // Test response status
                 .andExpect(jsonPath("$.size()", // Test response data size
                         CoreMatchers.is(2)))
+                .andExpect(content().json(objectMapper.writeValueAsString(List.of(employee, employee2)), true))
                 .andDo(print())
         ;
+        // NOTE: the body must come from the allocation-lean writer, not from the default Jackson converter
+        then(employeeJsonHttpMessageConverter).should().write(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("GET employees filtered and sorted")
+    public void givenFilterAndSort_whenGetAllEmployees_thenSearchEmployees() throws Exception {
+        // Given
+        given(employeeService.searchEmployees(new EmployeeFilter("Sanchez", "domain.com"), Sort.by(Sort.Direction.DESC, "email")))
+                .willReturn(List.of(employee));
+
+        // When
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("lastName", "Sanchez")
+                .param("emailDomain", "domain.com")
+                .param("sort", "email,desc"));
+
+        // Then
+        response
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", CoreMatchers.is(1)))
+                .andExpect(jsonPath("$[0].email", CoreMatchers.is(employee.getEmail())))
+                .andDo(print())
+        ;
+        then(employeeService).should(never()).getAllEmployees();
+    }
+
+    @Test
+    @DisplayName("GET employees sorted by an unindexed property")
+    public void givenSortByUnindexedProperty_whenGetAllEmployees_thenReturn400() throws Exception {
+        // Given
+
+        // When
+        ResultActions response = mockMvc.perform(get("/api/employees").param("sort", "firstName"));
+
+        // Then
+        response
+                .andExpect(status().isBadRequest())
+                .andDo(print())
+        ;
+        then(employeeService).shouldHaveNoInteractions();
     }
 
     @Test
@@ -119,10 +172,95 @@ public class EmployeeControllerTests {
                         CoreMatchers.is(employee.getLastName())))
                 .andExpect(jsonPath("$.email",
                         CoreMatchers.is(employee.getEmail())))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
                 .andDo(print())
         ;
     }
 
+    @Test
+    @DisplayName("GET employees by IDs")
+    public void givenEmployeeIds_whenGetEmployeesByIds_thenReturnFoundAndMissing() throws Exception {
+        // Given
+        given(employeeService.getEmployeesByIds(List.of(1L, 7L)))
+                .willReturn(new EmployeeBatch(List.of(employee), List.of(7L)));
+
+        // When
+        ResultActions response = mockMvc.perform(
+                get("/api/employees").param("ids", "1,7")
+        );
+
+        // Then
+        response
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees.size()", CoreMatchers.is(1)))
+                .andExpect(jsonPath("$.employees[0].email", CoreMatchers.is(employee.getEmail())))
+                .andExpect(jsonPath("$.missingIds[0]", CoreMatchers.is(7)))
+                .andDo(print())
+        ;
+    }
+
+    @Test
+    @DisplayName("POST lookup employees by IDs")
+    public void givenEmployeeIdsInBody_whenLookupEmployees_thenReturnFoundAndMissing() throws Exception {
+        // Given
+        given(employeeService.getEmployeesByIds(List.of(7L, 1L)))
+                .willReturn(new EmployeeBatch(List.of(employee), List.of(7L)));
+
+        // When
+        ResultActions response = mockMvc.perform(
+                post("/api/employees/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(7L, 1L)))
+        );
+
+        // Then
+        response
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees[0].id", CoreMatchers.is(1)))
+                .andExpect(jsonPath("$.missingIds.size()", CoreMatchers.is(1)))
+                .andDo(print())
+        ;
+    }
+
+    @Test
+    @DisplayName("POST lookup of more employees than a request may carry")
+    public void givenTooManyIds_whenLookupEmployees_thenReturn400() throws Exception {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, 1_001).boxed().toList();
+
+        // When
+        ResultActions response = mockMvc.perform(
+                post("/api/employees/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids))
+        );
+
+        // Then
+        response
+                .andExpect(status().isBadRequest())
+                .andDo(print())
+        ;
+        then(employeeService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    @DisplayName("POST lookup with a null ID")
+    public void givenNullId_whenLookupEmployees_thenReturn400() throws Exception {
+        // When
+        ResultActions response = mockMvc.perform(
+                post("/api/employees/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, null]")
+        );
+
+        // Then
+        response
+                .andExpect(status().isBadRequest())
+                .andDo(print())
+        ;
+        then(employeeService).shouldHaveNoInteractions();
+    }
+
     @Test
     @DisplayName("GET invalid employee")
     public void givenBadEmployeeId_whenGetEmployeeById_thenReturnNotFound() throws Exception {
@@ -182,6 +320,55 @@ public class EmployeeControllerTests {
         ;
     }
 
+    @Test
+    @DisplayName("Update employee with stale If-Match")
+    public void givenStaleIfMatch_whenUpdateEmployee_thenReturnPreconditionFailed() throws Exception {
+        // Given
+        employee.setVersion(3L);
+        given(employeeService.getEmployeeById(employee.getId()))
+                .willReturn(Optional.of(employee));
+
+        // When
+        ResultActions response = mockMvc.perform(
+                put("/api/employees/{id}", employee.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee))
+        );
+
+        // Then
+        response
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andDo(print())
+        ;
+        verify(employeeService, never()).updateEmployee(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("Update employee modified concurrently")
+    public void givenConcurrentUpdate_whenUpdateEmployee_thenReturnPreconditionFailed() throws Exception {
+        // Given
+        given(employeeService.getEmployeeById(employee.getId()))
+                .willReturn(Optional.of(employee));
+        given(employeeService.updateEmployee(ArgumentMatchers.any()))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, employee.getId()));
+
+        // When
+        ResultActions response = mockMvc.perform(
+                put("/api/employees/{id}", employee.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee))
+        );
+
+        // Then
+        response
+                .andExpect(status().isPreconditionFailed())
+                .andDo(print())
+        ;
+    }
+
     @Test
     @DisplayName("Update invalid employee")
     public void givenBadEmployeeId_whenUpdateEmployee_thenReturnNotFound() throws Exception {
@@ -211,6 +398,63 @@ public class EmployeeControllerTests {
         ;
     }
 
+    @Test
+    @DisplayName("Upsert employees")
+    public void givenEmployeeList_whenUpsertEmployees_thenReturnCounts() throws Exception {
+        // Given
+        given(employeeService.upsertEmployees(ArgumentMatchers.anyList()))
+                .willReturn(new EmployeeUpsertCounts(1, 2, 3));
+
+        // When
+        ResultActions response = mockMvc.perform(put("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(employee))));
+
+        // Then
+        response
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", CoreMatchers.is(1)))
+                .andExpect(jsonPath("$.updated", CoreMatchers.is(2)))
+                .andExpect(jsonPath("$.unchanged", CoreMatchers.is(3)))
+                .andDo(print())
+        ;
+    }
+
+    @Test
+    @DisplayName("Upsert employees without email")
+    public void givenEmployeeWithoutEmail_whenUpsertEmployees_thenReturn400() throws Exception {
+        // Given
+        employee.setEmail(null);
+
+        // When
+        ResultActions response = mockMvc.perform(put("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(employee))));
+
+        // Then
+        response
+                .andExpect(status().isBadRequest())
+                .andDo(print())
+        ;
+        then(employeeService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    @DisplayName("Upsert a null employee")
+    public void givenNullEmployee_whenUpsertEmployees_thenReturn400() throws Exception {
+        // When
+        ResultActions response = mockMvc.perform(put("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + objectMapper.writeValueAsString(employee) + ", null]"));
+
+        // Then
+        response
+                .andExpect(status().isBadRequest())
+                .andDo(print())
+        ;
+        then(employeeService).shouldHaveNoInteractions();
+    }
+
     @Test
     @DisplayName("Delete employee")
     public void givenEmployeeObject_whenDeleteEmployee_thenReturnOk() throws Exception {
@@ -0,0 +1,66 @@
+package net.javaguides.springboot.dataset;
+
+import net.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@DataJpaTest
+public class EmployeeDatasetGeneratorTests {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Load a named dataset size")
+    public void givenTinySize_whenLoad_thenEveryRowInsertedWithUniqueEmails() {
+        // Given
+        EmployeeDatasetGenerator generator = new EmployeeDatasetGenerator(jdbcTemplate, EmployeeDatasetGenerator.DEFAULT_SEED);
+
+        // When
+        int loaded = generator.load(DatasetSize.TINY, 300);
+
+        // Then
+        assertThat(loaded).isEqualTo(DatasetSize.TINY.rows());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from employees", Integer.class)).isEqualTo(DatasetSize.TINY.rows());
+        assertThat(jdbcTemplate.queryForObject("select count(distinct email) from employees", Integer.class)).isEqualTo(DatasetSize.TINY.rows());
+        Employee last = generator.employee(DatasetSize.TINY.rows() - 1);
+        assertThat(jdbcTemplate.queryForObject("select first_name from employees where email = ?", String.class, last.getEmail()))
+                .isEqualTo(last.getFirstName());
+    }
+
+    @Test
+    @DisplayName("Same seed, same employees")
+    public void givenSeed_whenEmployeeGenerated_thenReproducible() {
+        // Given
+        EmployeeDatasetGenerator generator = new EmployeeDatasetGenerator(jdbcTemplate, 7);
+        EmployeeDatasetGenerator sameSeed = new EmployeeDatasetGenerator(jdbcTemplate, 7);
+        EmployeeDatasetGenerator otherSeed = new EmployeeDatasetGenerator(jdbcTemplate, 8);
+
+        // When
+        Employee employee = generator.employee(12_345);
+
+        // Then
+        assertThat(sameSeed.employee(12_345)).usingRecursiveComparison().isEqualTo(employee);
+        assertThat(otherSeed.employee(12_345).getEmail()).isNotEqualTo(employee.getEmail());
+        assertThat(employee.getEmail()).contains(".12345@");
+    }
+
+    @Test
+    @DisplayName("A batch size that is not positive is rejected")
+    public void givenZeroBatchSize_whenLoad_thenRejectedWithoutInserting() {
+        // Given
+        EmployeeDatasetGenerator generator = new EmployeeDatasetGenerator(jdbcTemplate, EmployeeDatasetGenerator.DEFAULT_SEED);
+
+        // When
+        Throwable thrown = catchThrowable(() -> generator.load(DatasetSize.TINY, 0));
+
+        // Then
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from employees", Integer.class)).isZero();
+    }
+}
@@ -0,0 +1,144 @@
+package net.javaguides.springboot.deadline;
+
+import net.javaguides.springboot.export.EmployeeArrowExporter;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "employees.deadline.endpoints[EmployeeController#getEmployeeById]=1ns")
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+public class DeadlineIntegrationTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @SpyBean
+    private EmployeeArrowExporter employeeArrowExporter;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setup() {
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "employees");
+        employee = employeeRepository.save(Employee.builder()
+                .firstName("Dan")
+                .lastName("Sanchez")
+                .email("dan@domain.com")
+                .build());
+    }
+
+    @Test
+    @DisplayName("Endpoint past its deadline fails fast with 503")
+    public void givenExhaustedEndpointBudget_whenGetEmployeeById_thenServiceUnavailable() throws Exception {
+        // When
+        mockMvc.perform(get("/api/employees/{id}", employee.getId()))
+                // Then
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.detail").value("Request took too long, retry later"));
+    }
+
+    @Test
+    @DisplayName("A budget applies to its controller's method only, not to a same-named one")
+    public void givenExhaustedEndpointBudget_whenSameNamedAsyncEndpoint_thenOk() throws Exception {
+        // When
+        MvcResult started = mockMvc.perform(get("/api/async/employees/{id}", employee.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(employee.getEmail()));
+    }
+
+    @Test
+    @DisplayName("Exports run without a deadline, they have their own timeout")
+    public void givenDefaultBudget_whenExport_thenNoDeadline() throws Exception {
+        // Given
+        AtomicReference<Deadline> exportDeadline = new AtomicReference<>(Deadline.after(Duration.ZERO));
+        willAnswer(invocation -> {
+            exportDeadline.set(Deadline.current());
+            return invocation.callRealMethod();
+        }).given(employeeArrowExporter).export(any());
+
+        // When
+        MvcResult started = mockMvc.perform(get("/api/employees/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(exportDeadline.get()).isNull();
+    }
+
+    @Test
+    @DisplayName("Endpoint within the default budget is answered")
+    public void givenDefaultBudget_whenGetAllEmployees_thenOk() throws Exception {
+        // When
+        mockMvc.perform(get("/api/employees"))
+                // Then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].email").value(employee.getEmail()));
+    }
+
+    @Test
+    @DisplayName("Statement outliving the deadline is cancelled by the driver")
+    public void givenDeadline_whenSlowQuery_thenCancelledAtDeadline() {
+        // Given
+        Deadline deadline = Deadline.after(Duration.ofSeconds(1));
+        long startedAt = System.nanoTime();
+
+        // When
+        Assertions.assertThrows(QueryTimeoutException.class, () -> Deadline.callWithin(deadline,
+                () -> jdbcTemplate.queryForObject("select sum(x) from system_range(1, 100000000000)", Long.class)));
+
+        // Then
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofSeconds(10));
+        assertThat(Deadline.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Transaction begun past the deadline never takes a connection")
+    public void givenExpiredDeadline_whenRepositoryCalled_thenDeadlineExceeded() {
+        // Given
+        Deadline deadline = Deadline.after(Duration.ofNanos(1));
+
+        // When
+        // Then
+        assertThat(transactionManager).isInstanceOf(DeadlineAwareJpaTransactionManager.class);
+        Assertions.assertThrows(DeadlineExceededException.class,
+                () -> Deadline.callWithin(deadline, () -> employeeRepository.findById(employee.getId())));
+    }
+}
@@ -0,0 +1,88 @@
+package net.javaguides.springboot.deadline;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class DeadlineStatementListenerTests {
+    private final DeadlineStatementListener listener = new DeadlineStatementListener();
+
+    private Statement statement;
+    private ExecutionInfo executionInfo;
+
+    @BeforeEach
+    void setup() {
+        statement = Mockito.mock(Statement.class);
+        executionInfo = new ExecutionInfo();
+        executionInfo.setStatement(statement);
+    }
+
+    @Test
+    @DisplayName("Query timeout capped at the remaining budget")
+    public void givenDeadline_whenBeforeQuery_thenQueryTimeoutRoundedUpToRemainingSeconds() throws SQLException {
+        // Given
+        given(statement.getQueryTimeout()).willReturn(30);
+
+        // When
+        Deadline.callWithin(Deadline.after(Duration.ofMillis(1500)), () -> {
+            listener.beforeQuery(executionInfo, List.of());
+            return null;
+        });
+
+        // Then
+        verify(statement).setQueryTimeout(2);
+    }
+
+    @Test
+    @DisplayName("Shorter query timeout kept")
+    public void givenShorterTimeout_whenBeforeQuery_thenTimeoutUnchanged() throws SQLException {
+        // Given
+        given(statement.getQueryTimeout()).willReturn(1);
+
+        // When
+        Deadline.callWithin(Deadline.after(Duration.ofSeconds(10)), () -> {
+            listener.beforeQuery(executionInfo, List.of());
+            return null;
+        });
+
+        // Then
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+
+    @Test
+    @DisplayName("No deadline, no timeout")
+    public void givenNoDeadline_whenBeforeQuery_thenStatementUntouched() throws SQLException {
+        // When
+        listener.beforeQuery(executionInfo, List.of());
+
+        // Then
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+
+    @Test
+    @DisplayName("Expired deadline stops the statement")
+    public void givenExpiredDeadline_whenBeforeQuery_thenDeadlineExceeded() throws SQLException {
+        // When
+        Assertions.assertThrows(DeadlineExceededException.class, () -> Deadline.callWithin(Deadline.after(Duration.ZERO),
+                () -> {
+                    listener.beforeQuery(executionInfo, List.of());
+                    return null;
+                }));
+
+        // Then
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+}
@@ -0,0 +1,213 @@
+package net.javaguides.springboot.export;
+
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+// NOTE: two embedded H2 databases with the employees table, as with the sharded engine
+public class EmployeeArrowExporterTest {
+    private EmbeddedDatabase first;
+    private EmbeddedDatabase second;
+
+    @BeforeEach
+    private void setupDatabases() {
+        first = embeddedDatabase();
+        second = embeddedDatabase();
+        for (long id = 1; id <= 5; id++) {
+            insertEmployee(id % 2 == 0 ? second : first, id);
+        }
+    }
+
+    @AfterEach
+    private void shutdownDatabases() {
+        first.shutdown();
+        second.shutdown();
+    }
+
+    @DisplayName("Export every row in record batches")
+    @Test
+    public void givenEmployeesInTwoDatabases_whenExport_thenEveryRowInBatchesOfBatchSize() throws Exception {
+        // given - precondition or setup
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        // when - action or the behavior that we are going to test
+        long exported;
+        try (EmployeeArrowExporter exporter = new EmployeeArrowExporter(List.of(first, second), 2, 1 << 20)) {
+            exported = exporter.export(stream);
+        }
+
+        // then - verify the output
+        List<Integer> batchSizes = new ArrayList<>();
+        List<String> rows = new ArrayList<>();
+        try (RootAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream.toByteArray()), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(root.getSchema()).isEqualTo(EmployeeArrowExporter.SCHEMA);
+            while (reader.loadNextBatch()) {
+                batchSizes.add(root.getRowCount());
+                for (int row = 0; row < root.getRowCount(); row++) {
+                    rows.add(root.getVector("id").getObject(row) + " " + root.getVector("email").getObject(row)
+                            + " v" + root.getVector("version").getObject(row));
+                }
+            }
+        }
+        assertThat(exported).isEqualTo(5);
+        // NOTE: the first database holds the odd ids; the last batch of each database is completed by the next one
+        assertThat(batchSizes).containsExactly(2, 2, 1);
+        assertThat(rows).containsExactly("1 employee1@domain.com v1", "3 employee3@domain.com v3", "5 employee5@domain.com v5",
+                "2 employee2@domain.com v2", "4 employee4@domain.com v4");
+    }
+
+    @DisplayName("Export of an empty table")
+    @Test
+    public void givenNoEmployees_whenExport_thenSchemaOnly() throws Exception {
+        // given - precondition or setup
+        new JdbcTemplate(first).update("delete from employees");
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        // when - action or the behavior that we are going to test
+        try (EmployeeArrowExporter exporter = new EmployeeArrowExporter(List.of(first), 2, 1 << 20)) {
+            assertThat(exporter.export(stream)).isZero();
+        }
+
+        // then - verify the output
+        try (RootAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream.toByteArray()), allocator)) {
+            assertThat(reader.getVectorSchemaRoot().getSchema()).isEqualTo(EmployeeArrowExporter.SCHEMA);
+            assertThat(reader.loadNextBatch()).isFalse();
+        }
+    }
+
+    @DisplayName("Parallel ordered export of id ranges")
+    @Test
+    public void givenManyEmployees_whenExportParallelOrdered_thenEveryRowInIdOrder() throws Exception {
+        // given - precondition or setup
+        for (long id = 6; id <= 100; id++) {
+            insertEmployee(first, id);
+        }
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        // when - action or the behavior that we are going to test
+        long exported;
+        try (EmployeeArrowExporter exporter = new EmployeeArrowExporter(List.of(first), 7, 1 << 20, 3, 5, 3)) {
+            exported = exporter.exportParallel(stream, true);
+        }
+
+        // then - verify the output
+        List<Long> ids = readIds(stream);
+        assertThat(exported).isEqualTo(98);
+        assertThat(ids).hasSize(98).isSorted();
+    }
+
+    @DisplayName("Parallel unordered export of every data source")
+    @Test
+    public void givenEmployeesInTwoDatabases_whenExportParallelUnordered_thenEveryRowOnce() throws Exception {
+        // given - precondition or setup
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        // when - action or the behavior that we are going to test
+        long exported;
+        try (EmployeeArrowExporter exporter = new EmployeeArrowExporter(List.of(first, second), 2, 1 << 20, 2, 2, 2)) {
+            exported = exporter.exportParallel(stream, false);
+            // NOTE: every buffer of the export is released, whichever thread allocated it
+            assertThat(exporter).extracting("allocator.allocatedMemory").isEqualTo(0L);
+        }
+
+        // then - verify the output
+        assertThat(exported).isEqualTo(5);
+        assertThat(readIds(stream)).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @DisplayName("Export rejected while the running ones hold every connection")
+    @Test
+    public void givenParallelExportRunning_whenExportAgain_thenRejectedUntilItEnds() throws Exception {
+        // given - precondition or setup
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        OutputStream blockedStream = new ByteArrayOutputStream() {
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                writing.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(bytes, offset, length);
+            }
+        };
+
+        try (EmployeeArrowExporter exporter = new EmployeeArrowExporter(List.of(first, second), 2, 1 << 20, 2, 2, 2)) {
+            CompletableFuture<Long> running = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return exporter.exportParallel(blockedStream, true);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            assertThat(writing.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // when - action or the behavior that we are going to test
+            Throwable parallelRejected = catchThrowable(() -> exporter.exportParallel(new ByteArrayOutputStream(), true));
+            Throwable rejected = catchThrowable(() -> exporter.export(new ByteArrayOutputStream()));
+            resume.countDown();
+
+            // then - verify the output
+            assertThat(parallelRejected).isInstanceOf(TaskRejectedException.class);
+            assertThat(rejected).isInstanceOf(TaskRejectedException.class);
+            assertThat(running.get(10, TimeUnit.SECONDS)).isEqualTo(5);
+            assertThat(exporter.export(new ByteArrayOutputStream())).isEqualTo(5);
+        }
+    }
+
+    private static List<Long> readIds(ByteArrayOutputStream stream) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        try (RootAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream.toByteArray()), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(root.getSchema()).isEqualTo(EmployeeArrowExporter.SCHEMA);
+            while (reader.loadNextBatch()) {
+                for (int row = 0; row < root.getRowCount(); row++) {
+                    ids.add((Long) root.getVector("id").getObject(row));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static EmbeddedDatabase embeddedDatabase() {
+        return new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("db/sharding/schema.sql")
+                .build();
+    }
+
+    private static void insertEmployee(EmbeddedDatabase database, long id) {
+        new JdbcTemplate(database).update("insert into employees (id, first_name, last_name, email, version) values (?, ?, ?, ?, ?)",
+                id, "Employee" + id, "Sanchez", "employee" + id + "@domain.com", id);
+    }
+}
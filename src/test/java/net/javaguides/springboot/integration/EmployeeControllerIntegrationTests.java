@@ -1,6 +1,7 @@
 package net.javaguides.springboot.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.config.StorageProfiles;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.repository.EmployeeRepository;
 import org.hamcrest.CoreMatchers;
@@ -10,18 +11,27 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
+// NOTE: runs against the in-memory EmployeeRepository engine; the *Testcontainers variant covers MySQL
+@ActiveProfiles(StorageProfiles.IN_MEMORY)
 public class EmployeeControllerIntegrationTests {
     @Autowired
     private MockMvc mockMvc;
@@ -139,6 +149,37 @@ public class EmployeeControllerIntegrationTests {
         ;
     }
 
+    @Test
+    @DisplayName("GET employee gzip response")
+    public void givenLargeEmployee_whenGetEmployeeByIdAcceptingGzip_thenCompressedJsonOfCurrentVersion() throws Exception {
+        // Given
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("Dan")
+                .lastName("Sanchez".repeat(50))
+                .email("dan@domain.com")
+                .build());
+        mockMvc.perform(get("/api/employees/{id}", employee.getId()).header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+        Employee updated = employee.toBuilder().firstName("NewDan").build();
+        mockMvc.perform(put("/api/employees/{id}", employee.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updated)))
+                .andExpect(status().isOk());
+
+        // When
+        ResultActions response = mockMvc.perform(
+                get("/api/employees/{id}", employee.getId()).header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8")
+        );
+
+        // Then
+        response
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        byte[] json = new GZIPInputStream(new ByteArrayInputStream(
+                response.andReturn().getResponse().getContentAsByteArray())).readAllBytes();
+        assertThat(objectMapper.readValue(json, Employee.class).getFirstName()).isEqualTo("NewDan");
+    }
+
     @Test
     @DisplayName("Update employee")
     public void givenUpdatedEmployeeObject_whenUpdateEmployee_thenReturnEmployee() throws Exception {
@@ -178,6 +219,52 @@ public class EmployeeControllerIntegrationTests {
         ;
     }
 
+    @Test
+    @DisplayName("Update employee with If-Match")
+    public void givenETagFromEarlierRead_whenUpdatedTwice_thenSecondUpdateFails() throws Exception {
+        // Given
+        Employee employee = Employee.builder()
+                .firstName("Dan")
+                .lastName("Sanchez")
+                .email("dan@domain.com")
+                .build();
+        employeeRepository.save(employee);
+        long employeeId = employee.getId();
+        String eTag = mockMvc.perform(get("/api/employees/{id}", employeeId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Employee updatedEmployee = Employee.builder()
+                .firstName("DanUpdate")
+                .lastName("SanchezUpdate")
+                .email("dan_update@domain.com")
+                .build();
+
+        // When
+        ResultActions firstResponse = mockMvc.perform(
+                put("/api/employees/{id}", employeeId)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedEmployee))
+        );
+        ResultActions secondResponse = mockMvc.perform(
+                put("/api/employees/{id}", employeeId)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedEmployee))
+        );
+
+        // Then
+        firstResponse
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andDo(print())
+        ;
+        secondResponse
+                .andExpect(status().isPreconditionFailed())
+                .andDo(print())
+        ;
+    }
+
     @Test
     @DisplayName("Update invalid employee")
     public void givenBadEmployeeId_whenUpdateEmployee_thenReturnNotFound() throws Exception {
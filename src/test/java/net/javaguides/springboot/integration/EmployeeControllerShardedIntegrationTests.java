@@ -0,0 +1,113 @@
+package net.javaguides.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.config.StorageProfiles;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.repository.sharded.EmployeeShards;
+import net.javaguides.springboot.repository.sharded.ShardedEmployeeRepository;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// NOTE: the sharded profile pointed at three embedded H2 databases instead of MySQL instances
+@SpringBootTest(properties = {
+        "employees.sharding.shards[0].url=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1",
+        "employees.sharding.shards[1].url=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+        "employees.sharding.shards[2].url=jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1",
+        "employees.sharding.shards[0].username=sa",
+        "employees.sharding.shards[1].username=sa",
+        "employees.sharding.shards[2].username=sa",
+        "employees.sharding.shards[0].password=",
+        "employees.sharding.shards[1].password=",
+        "employees.sharding.shards[2].password="
+})
+@AutoConfigureMockMvc
+@ActiveProfiles(StorageProfiles.SHARDED)
+public class EmployeeControllerShardedIntegrationTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EmployeeShards employeeShards;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Sharded engine is selected by profile")
+    public void givenShardedProfile_whenContextLoads_thenRepositoryIsSharded() {
+        assertThat(employeeRepository).isInstanceOf(ShardedEmployeeRepository.class);
+    }
+
+    @Test
+    @DisplayName("Shard data sources are observed like the other data sources")
+    public void givenShardedProfile_whenContextLoads_thenEveryShardIsProxied() {
+        for (int shard = 0; shard < employeeShards.count(); shard++) {
+            assertThat(employeeShards.dataSource(shard)).isInstanceOf(ProxyDataSource.class);
+        }
+    }
+
+    @Test
+    @DisplayName("Create and read back employees across shards")
+    public void givenEmployeesCreatedThroughApi_whenGetAllAndById_thenServedFromAllShards() throws Exception {
+        // Given
+        for (String name : new String[]{"Dan", "John", "Tony"}) {
+            mockMvc.perform(post("/api/employees")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(Employee.builder()
+                                    .firstName(name)
+                                    .lastName("Doe")
+                                    .email(name.toLowerCase() + "@domain.com")
+                                    .build())))
+                    .andExpect(status().isCreated());
+        }
+        long johnId = employeeRepository.findByEmail("john@domain.com").get().getId();
+
+        // When / Then
+        mockMvc.perform(get("/api/employees"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", CoreMatchers.is(3)))
+                .andExpect(jsonPath("$[1].firstName", CoreMatchers.is("John")))
+                .andDo(print());
+        mockMvc.perform(get("/api/employees/{id}", johnId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", CoreMatchers.is("john@domain.com")))
+                .andDo(print());
+    }
+
+    @Test
+    @DisplayName("Bulk upsert is rejected, emails are not unique across shards")
+    public void givenShardedEngine_whenUpsertEmployees_thenNotImplemented() throws Exception {
+        // When / Then
+        mockMvc.perform(put("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(Employee.builder()
+                                .firstName("Dan").lastName("Doe").email("dan@domain.com").build()))))
+                .andExpect(status().isNotImplemented());
+        assertThat(employeeRepository.count()).isZero();
+    }
+}
@@ -0,0 +1,123 @@
+package net.javaguides.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.config.StorageProfiles;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.invalidation.EmployeeInvalidatedEvent;
+import net.javaguides.springboot.service.snapshot.EmployeeSnapshotHolder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.clearInvocations;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "employees.snapshot.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles(StorageProfiles.IN_MEMORY)
+public class EmployeeControllerSnapshotIntegrationTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @SpyBean
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private EmployeeSnapshotHolder snapshotHolder;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAll();
+        employee = employeeRepository.save(Employee.builder()
+                .firstName("Dan")
+                .lastName("Sanchez")
+                .email("dan@domain.com")
+                .build());
+        snapshotHolder.invalidate();
+        clearInvocations(employeeRepository);
+    }
+
+    @Test
+    @DisplayName("GET all employees reads the table once")
+    public void givenSnapshotLoaded_whenGetAllEmployeesAgain_thenNoRepositoryRead() throws Exception {
+        // When
+        mockMvc.perform(get("/api/employees")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/employees"))
+
+        // Then
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(List.of(employee)), true));
+        then(employeeRepository).should().findAll();
+    }
+
+    @Test
+    @DisplayName("Snapshot follows create, update and delete")
+    public void givenSnapshotLoaded_whenEmployeesChanged_thenListReflectsChangesWithoutReload() throws Exception {
+        // Given
+        mockMvc.perform(get("/api/employees")).andExpect(status().isOk());
+        Employee john = Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email("john@domain.com")
+                .build();
+
+        // When
+        String created = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(john)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        john = objectMapper.readValue(created, Employee.class);
+        mockMvc.perform(put("/api/employees/{id}", employee.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee.toBuilder().firstName("DanUpdate").build())))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/employees/{id}", john.getId())).andExpect(status().isOk());
+
+        // Then
+        Employee updated = employee.toBuilder().firstName("DanUpdate").version(1).build();
+        mockMvc.perform(get("/api/employees"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(List.of(updated)), true));
+        then(employeeRepository).should().findAll();
+    }
+
+    @Test
+    @DisplayName("Snapshot follows changes made by other nodes")
+    public void givenSnapshotLoaded_whenEmployeeInvalidated_thenOnlyThatEmployeeReloaded() throws Exception {
+        // Given
+        mockMvc.perform(get("/api/employees")).andExpect(status().isOk());
+        Employee changedElsewhere = employeeRepository.save(employeeRepository.findById(employee.getId()).get().toBuilder()
+                .firstName("DanElsewhere")
+                .build());
+
+        // When
+        eventPublisher.publishEvent(EmployeeInvalidatedEvent.of(Set.of(employee.getId())));
+
+        // Then
+        mockMvc.perform(get("/api/employees"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(List.of(changedElsewhere)), true));
+        then(employeeRepository).should().findAll();
+        then(employeeRepository).should().findAllById(Set.of(employee.getId()));
+    }
+}
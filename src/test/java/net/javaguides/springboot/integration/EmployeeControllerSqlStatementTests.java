@@ -0,0 +1,198 @@
+package net.javaguides.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.stats.EmployeeStatsCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.hamcrest.CoreMatchers;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static net.javaguides.springboot.integration.SqlStatementAssertions.assertSqlStatements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// NOTE: pins the number and type of SQL statements each endpoint issues, so Hibernate regressions
+// (an extra select on merge, load-before-delete, N+1...) fail the build instead of showing up in production
+@SpringBootTest(properties = "employees.jdbc.count-statements=true")
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+public class EmployeeControllerSqlStatementTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EmployeeStatsCache statsCache;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setup() {
+        // NOTE: deleteAll() only soft deletes, and the deleted rows would still hold their emails
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "employees");
+        employee = employeeRepository.save(Employee.builder()
+                .firstName("Dan")
+                .lastName("Sanchez")
+                .email("dan@domain.com")
+                .build());
+        statsCache.invalidate();
+        SqlStatementAssertions.reset();
+    }
+
+    @Test
+    @DisplayName("POST create employee statements")
+    public void givenNewEmployee_whenCreateEmployee_thenSelectByEmailAndInsert() throws Exception {
+        // Given
+        Employee newEmployee = Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email("john@domain.com")
+                .build();
+
+        // When
+        mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(newEmployee)))
+                .andExpect(status().isCreated());
+
+        // Then
+        assertSqlStatements().selects(1).inserts(1).total(2);
+    }
+
+    @Test
+    @DisplayName("GET all employees statements")
+    public void givenEmployees_whenGetAllEmployees_thenSingleSelect() throws Exception {
+        // When
+        mockMvc.perform(get("/api/employees"))
+                .andExpect(status().isOk());
+
+        // Then
+        assertSqlStatements().selects(1).total(1);
+    }
+
+    @Test
+    @DisplayName("GET employee by ID statements")
+    public void givenEmployee_whenGetEmployeeById_thenSingleSelect() throws Exception {
+        // When
+        mockMvc.perform(get("/api/employees/{id}", employee.getId()))
+                .andExpect(status().isOk());
+
+        // Then
+        assertSqlStatements().selects(1).total(1);
+    }
+
+    @Test
+    @DisplayName("GET employees by IDs statements")
+    public void givenEmployeeIds_whenGetEmployeesByIds_thenSingleSelect() throws Exception {
+        // When
+        mockMvc.perform(get("/api/employees").param("ids", employee.getId() + ",0,-1"))
+                .andExpect(status().isOk());
+
+        // Then
+        assertSqlStatements().selects(1).total(1);
+    }
+
+    @Test
+    @DisplayName("PUT update employee statements")
+    public void givenEmployee_whenUpdateEmployee_thenSelectMergeSelectAndUpdate() throws Exception {
+        // Given
+        Employee updatedEmployee = employee.toBuilder()
+                .firstName("DanUpdate")
+                .build();
+
+        // When
+        mockMvc.perform(put("/api/employees/{id}", employee.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedEmployee)))
+                .andExpect(status().isOk());
+
+        // Then
+        // NOTE: the lookup that checks the employee exists runs in its own read-only transaction, and without
+        // open-in-view its entity is detached by the time of the merge, which reads the row again
+        assertSqlStatements().selects(2).updates(1).total(3);
+    }
+
+    @Test
+    @DisplayName("DELETE employee statements")
+    public void givenEmployee_whenDeleteEmployee_thenSelectAndSoftDelete() throws Exception {
+        // When
+        mockMvc.perform(delete("/api/employees/{id}", employee.getId()))
+                .andExpect(status().isOk());
+
+        // Then
+        // NOTE: soft delete, the row is only marked deleted (see Employee)
+        assertSqlStatements().selects(1).updates(1).total(2);
+    }
+
+    @Test
+    @DisplayName("PUT upsert employees statements")
+    public void givenNewChangedAndUnchangedEmployees_whenUpsertEmployees_thenSelectBatchedMergeAndSelect() throws Exception {
+        // Given
+        List<Employee> employees = List.of(
+                Employee.builder().firstName("John").lastName("Cena").email("john@domain.com").build(),
+                employee.toBuilder().id(0).firstName("DanUpdate").build(),
+                Employee.builder().firstName("Jane").lastName("Doe").email("jane@domain.com").build());
+
+        // When
+        mockMvc.perform(put("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employees)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", CoreMatchers.is(2)))
+                .andExpect(jsonPath("$.updated", CoreMatchers.is(1)))
+                .andExpect(jsonPath("$.unchanged", CoreMatchers.is(0)));
+
+        // Then
+        // NOTE: the three upserts go to the database as one JDBC batch
+        assertSqlStatements().selects(2).total(3);
+        Employee updated = employeeRepository.findById(employee.getId()).get();
+        assertThat(updated.getFirstName()).isEqualTo("DanUpdate");
+        assertThat(updated.getVersion()).isEqualTo(employee.getVersion() + 1);
+        assertThat(employeeRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("GET employee stats statements")
+    public void givenStats_whenEmployeeCreatedAndStatsReadAgain_thenOnlyFirstReadGroups() throws Exception {
+        // Given
+        mockMvc.perform(get("/api/employees/stats"))
+                .andExpect(status().isOk());
+        assertSqlStatements().selects(2).total(2);
+        mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder()
+                                .firstName("John").lastName("Cena").email("john@Other.com").build())))
+                .andExpect(status().isCreated());
+        SqlStatementAssertions.reset();
+
+        // When
+        mockMvc.perform(get("/api/employees/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", CoreMatchers.is(2)))
+                .andExpect(jsonPath("$.byLastName.Sanchez", CoreMatchers.is(1)))
+                .andExpect(jsonPath("$.byLastName.Cena", CoreMatchers.is(1)))
+                .andExpect(jsonPath("$.byEmailDomain['other.com']", CoreMatchers.is(1)));
+
+        // Then
+        // NOTE: the create was applied to the cached headcounts, nothing is read from the table
+        assertSqlStatements().total(0);
+    }
+}
@@ -0,0 +1,143 @@
+package net.javaguides.springboot.integration;
+
+import net.javaguides.springboot.export.EmployeeArrowExporter;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+public class EmployeeExportIntegrationTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private RequestMappingHandlerAdapter requestMappingHandlerAdapter;
+    @Autowired
+    private ApplicationContext applicationContext;
+    @Autowired
+    private EmployeeArrowExporter employeeArrowExporter;
+
+    @BeforeEach
+    void setup() {
+        // NOTE: deleteAll() only soft deletes, and the deleted rows would still hold their emails
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "employees");
+        employeeRepository.saveAll(List.of(
+                Employee.builder().firstName("Dan").lastName("Sanchez").email("dan@domain.com").build(),
+                Employee.builder().firstName("John").lastName("Cena").email("john@domain.com").build()));
+    }
+
+    @Test
+    @DisplayName("GET Arrow export of the employees table")
+    public void givenEmployees_whenExportArrow_thenArrowStreamWithEveryEmployee() throws Exception {
+        // When
+        MvcResult started = mockMvc.perform(get("/api/employees/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] stream = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(EmployeeArrowExporter.ARROW_STREAM))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        try (RootAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(reader.loadNextBatch()).isTrue();
+            assertThat(root.getRowCount()).isEqualTo(2);
+            assertThat(root.getVector("email").getObject(0)).hasToString("dan@domain.com");
+            assertThat(root.getVector("last_name").getObject(1)).hasToString("Cena");
+            assertThat(reader.loadNextBatch()).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("GET parallel Arrow export of the employees table")
+    public void givenEmployees_whenExportArrowInParallel_thenArrowStreamWithEveryEmployeeInIdOrder() throws Exception {
+        // When
+        MvcResult started = mockMvc.perform(get("/api/employees/export").param("parallel", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] stream = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        List<String> emails = new ArrayList<>();
+        try (RootAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            while (reader.loadNextBatch()) {
+                for (int row = 0; row < root.getRowCount(); row++) {
+                    emails.add(root.getVector("email").getObject(row).toString());
+                }
+            }
+        }
+        assertThat(emails).containsExactly("dan@domain.com", "john@domain.com");
+    }
+
+    @Test
+    @DisplayName("GET parallel Arrow export while every export connection is in use")
+    public void givenExportConnectionsInUse_whenExportArrowInParallel_thenServiceUnavailable() throws Exception {
+        // Given
+        Semaphore connections = (Semaphore) ReflectionTestUtils.getField(employeeArrowExporter, "connections");
+        int taken = connections.drainPermits();
+        try {
+            // When
+            MvcResult started = mockMvc.perform(get("/api/employees/export").param("parallel", "true"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Then
+            mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            connections.release(taken);
+        }
+    }
+
+    @Test
+    @DisplayName("Async request handling runs on the application task executor")
+    public void givenEmployeeDbExecutor_whenAsyncRequestHandled_thenApplicationTaskExecutorIsUsed() {
+        // When
+        Object mvcExecutor = ReflectionTestUtils.getField(requestMappingHandlerAdapter, "taskExecutor");
+
+        // Then
+        assertThat(mvcExecutor).isSameAs(applicationContext.getBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME));
+        assertThat(mvcExecutor).isInstanceOf(ThreadPoolTaskExecutor.class);
+    }
+}
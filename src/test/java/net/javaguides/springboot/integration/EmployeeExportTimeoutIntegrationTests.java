@@ -0,0 +1,73 @@
+package net.javaguides.springboot.integration;
+
+import net.javaguides.springboot.export.EmployeeArrowExporter;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.jdbc.JdbcTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+
+// NOTE: MockMvc never times async requests out, so this one runs on a server; the default async timeout is cut down
+// to 500ms and the export is made to take longer than that
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.mvc.async.request-timeout=500ms",
+        "employees.export.timeout=30s"})
+@AutoConfigureTestDatabase
+public class EmployeeExportTimeoutIntegrationTests {
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @SpyBean
+    private EmployeeArrowExporter employeeArrowExporter;
+
+    @BeforeEach
+    void setup() {
+        // NOTE: deleteAll() only soft deletes, and the deleted rows would still hold their emails
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "employees");
+        employeeRepository.saveAll(List.of(
+                Employee.builder().firstName("Dan").lastName("Sanchez").email("dan@domain.com").build(),
+                Employee.builder().firstName("John").lastName("Cena").email("john@domain.com").build()));
+    }
+
+    @Test
+    @DisplayName("GET Arrow export streaming for longer than the default async timeout")
+    public void givenSlowExport_whenExportArrow_thenWholeStreamReturned() throws Exception {
+        // Given
+        willAnswer(invocation -> {
+            Thread.sleep(1_500);
+            return invocation.callRealMethod();
+        }).given(employeeArrowExporter).export(any());
+
+        // When
+        ResponseEntity<byte[]> response = restTemplate.getForEntity("/api/employees/export", byte[].class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        try (RootAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(response.getBody()), allocator)) {
+            assertThat(reader.loadNextBatch()).isTrue();
+            assertThat(reader.getVectorSchemaRoot().getRowCount()).isEqualTo(2);
+        }
+    }
+}
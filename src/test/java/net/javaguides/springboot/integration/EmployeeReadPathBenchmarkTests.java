@@ -0,0 +1,263 @@
+package net.javaguides.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import net.javaguides.springboot.dataset.DatasetSize;
+import net.javaguides.springboot.dataset.EmployeeDatasetGenerator;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// NOTE: measures what the read paths cost per call in heap allocated, entities kept by the persistence context and
+// time the JDBC connection is held; skipped by a normal build, run it with:
+//   mvn test -Pbenchmark -Dtest=EmployeeReadPathBenchmarkTests
+// and once more with -Dspring.jpa.open-in-view=true for the endpoints holding the connection through serialization,
+// as they did before open-in-view was turned off. It loads the -Dbenchmark.dataset size of synthetic employees
+// (default small, see DatasetSize) and appends one JSON line per path to -Dbenchmark.report
+// (default target/benchmark-reports/employee-read-paths.jsonl).
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "employees.warmup.enabled=false",
+        "employees.archive.enabled=false"})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class EmployeeReadPathBenchmarkTests {
+    private static final DatasetSize DATASET = DatasetSize.valueOf(System.getProperty("benchmark.dataset", "small").toUpperCase(Locale.ROOT));
+    private static final int LIST_ITERATIONS = Integer.getInteger("benchmark.list-iterations", 100);
+    private static final int LOOKUP_ITERATIONS = Integer.getInteger("benchmark.iterations", 2_000);
+    private static final Path REPORT = Path.of(System.getProperty("benchmark.report",
+            "target/benchmark-reports/employee-read-paths.jsonl"));
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Value("${spring.jpa.open-in-view}")
+    private boolean openInView;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Long> ids;
+
+    @BeforeAll
+    void seed() {
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "employees");
+        new EmployeeDatasetGenerator(jdbcTemplate, EmployeeDatasetGenerator.DEFAULT_SEED).load(DATASET, 1_000);
+        ids = jdbcTemplate.queryForList("select id from employees", Long.class);
+    }
+
+    @AfterAll
+    void cleanUp() {
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "employees");
+    }
+
+    @Test
+    @DisplayName("Heap, persistence context and connection hold time per read")
+    public void givenSeededEmployees_whenReadThroughEachPath_thenEveryPathIsReported() throws Exception {
+        Random random = new Random(42);
+        List<Measurement> measurements = new ArrayList<>();
+
+        // NOTE: the same full read three ways, to isolate what read-only transactions and the projection save
+        measurements.add(measure("findAll read-write transaction", LIST_ITERATIONS,
+                () -> inTransaction(false, employeeRepository::findAll)));
+        measurements.add(measure("findAll read-only transaction", LIST_ITERATIONS,
+                () -> inTransaction(true, employeeRepository::findAll)));
+        measurements.add(measure("findAllDetached read-only transaction", LIST_ITERATIONS,
+                () -> inTransaction(true, employeeRepository::findAllDetached)));
+
+        measurements.add(measure("GET /api/employees", LIST_ITERATIONS, () -> {
+            perform("/api/employees");
+            return 0;
+        }));
+        measurements.add(measure("GET /api/employees/{id}", LOOKUP_ITERATIONS, () -> {
+            perform("/api/employees/" + ids.get(random.nextInt(ids.size())));
+            return 0;
+        }));
+
+        report(measurements);
+        assertThat(measurements).allSatisfy(measurement -> assertThat(measurement.connectionHoldMeanMicros()).isGreaterThan(0));
+    }
+
+    private Measurement measure(String path, int iterations, IntSupplier read) {
+        // NOTE: warm up with as many calls as are measured
+        for (int i = 0; i < iterations; i++) {
+            read.getAsInt();
+        }
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        TimedDataSource.holdTimes.clear();
+        long managedEntities = 0;
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            managedEntities += read.getAsInt();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        long[] holdTimes = TimedDataSource.holdTimes.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new Measurement(Instant.now().toString(), DATASET.rows(), openInView, path, iterations,
+                elapsed / 1_000.0 / iterations,
+                allocated / iterations,
+                (double) managedEntities / iterations,
+                (double) holdTimes.length / iterations,
+                holdTimes.length == 0 ? 0 : sum(holdTimes) / 1_000.0 / holdTimes.length,
+                holdTimes.length == 0 ? 0 : holdTimes[Math.min(holdTimes.length - 1, (int) Math.ceil(0.99 * holdTimes.length) - 1)] / 1_000.0);
+    }
+
+    /**
+     * @return how many entities the persistence context holds once the read is done, just before it is closed
+     */
+    private int inTransaction(boolean readOnly, Supplier<List<Employee>> read) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        Integer managed = transactionTemplate.execute(status -> {
+            assertThat(read.get()).hasSize(ids.size());
+            return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+        });
+        return managed == null ? 0 : managed;
+    }
+
+    private void perform(String uri) {
+        try {
+            mockMvc.perform(get(uri)).andExpect(status().isOk());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void report(List<Measurement> measurements) throws IOException {
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        StringBuilder lines = new StringBuilder();
+        for (Measurement measurement : measurements) {
+            System.out.printf("employee-reads %-40s open-in-view %-5s %9.1f us/op  %10d B/op  %7.1f managed/op"
+                            + "  %.2f connections/op  held mean %8.1f us  p99 %8.1f us%n",
+                    measurement.path(), measurement.openInView(), measurement.meanMicros(), measurement.bytesPerOp(),
+                    measurement.managedEntitiesPerOp(), measurement.connectionsPerOp(),
+                    measurement.connectionHoldMeanMicros(), measurement.connectionHoldP99Micros());
+            lines.append(objectMapper.writeValueAsString(measurement)).append('\n');
+        }
+        Files.writeString(REPORT, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * One line of the report. Times are in microseconds; managed entities are only counted for the repository reads.
+     */
+    record Measurement(String timestamp, int rows, boolean openInView, String path, int iterations, double meanMicros,
+                       long bytesPerOp, double managedEntitiesPerOp, double connectionsPerOp,
+                       double connectionHoldMeanMicros, double connectionHoldP99Micros) {
+    }
+
+    @TestConfiguration
+    static class ConnectionHoldTimeConfig {
+        @Bean
+        static BeanPostProcessor timedDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof TimedDataSource)
+                            ? new TimedDataSource(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Records how long each connection it hands out stays open, from {@code getConnection} to {@code close}.
+     */
+    static class TimedDataSource extends DelegatingDataSource {
+        static final Queue<Long> holdTimes = new ConcurrentLinkedQueue<>();
+
+        TimedDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return timed(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return timed(super.getConnection(username, password));
+        }
+
+        private static Connection timed(Connection connection) {
+            long openedAt = System.nanoTime();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("close")) {
+                            holdTimes.add(System.nanoTime() - openedAt);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
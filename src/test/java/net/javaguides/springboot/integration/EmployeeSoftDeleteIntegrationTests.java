@@ -0,0 +1,89 @@
+package net.javaguides.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.archive.DeletedEmployeeArchiver;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// NOTE: the JPA engine on H2, end to end; the in-memory engine the other integration tests use deletes for good
+@SpringBootTest(properties = "employees.archive.retention=0s")
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+public class EmployeeSoftDeleteIntegrationTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DeletedEmployeeArchiver archiver;
+
+    @BeforeEach
+    void setup() {
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "employees", "employees_archive");
+    }
+
+    @Test
+    @DisplayName("A deleted employee is hidden, then archived, and its email can be taken again")
+    public void givenDeletedEmployee_whenArchived_thenHiddenArchivedAndEmailReusable() throws Exception {
+        // Given
+        long id = create("Dan");
+
+        // When
+        mockMvc.perform(delete("/api/employees/{id}", id))
+                .andExpect(status().isOk());
+
+        // Then - the row stays, soft deleted, but no read sees it
+        mockMvc.perform(get("/api/employees/{id}", id))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/employees"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", CoreMatchers.is(0)));
+        assertThat(JdbcTestUtils.countRowsInTableWhere(jdbcTemplate, "employees", "deleted_at is not null")).isEqualTo(1);
+
+        // When
+        archiver.archiveDeletedEmployees();
+
+        // Then - moved to the archive, which frees its email
+        assertThat(JdbcTestUtils.countRowsInTable(jdbcTemplate, "employees")).isZero();
+        assertThat(jdbcTemplate.queryForObject("select email from employees_archive where id = ?", String.class, id))
+                .isEqualTo("dan@domain.com");
+        long recreated = create("Daniel");
+        assertThat(recreated).isNotEqualTo(id);
+        mockMvc.perform(get("/api/employees/{id}", recreated))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", CoreMatchers.is("Daniel")));
+    }
+
+    private long create(String firstName) throws Exception {
+        String response = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder()
+                                .firstName(firstName)
+                                .lastName("Sanchez")
+                                .email("dan@domain.com")
+                                .build())))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, Employee.class).getId();
+    }
+}
@@ -0,0 +1,57 @@
+package net.javaguides.springboot.integration;
+
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test API over the datasource-proxy statement counters (enable them with {@code employees.jdbc.count-statements=true}).
+ * <p>
+ * Counters are per thread, which with MockMvc is the thread that ran the request:
+ * <pre>
+ *     SqlStatementAssertions.reset();
+ *     mockMvc.perform(get("/api/employees/{id}", id));
+ *     SqlStatementAssertions.assertSqlStatements().selects(1).total(1);
+ * </pre>
+ */
+public final class SqlStatementAssertions {
+    private final QueryCount queryCount;
+
+    private SqlStatementAssertions(QueryCount queryCount) {
+        this.queryCount = queryCount;
+    }
+
+    public static void reset() {
+        QueryCountHolder.clear();
+    }
+
+    public static SqlStatementAssertions assertSqlStatements() {
+        return new SqlStatementAssertions(QueryCountHolder.getGrandTotal());
+    }
+
+    public SqlStatementAssertions selects(long expected) {
+        assertThat(queryCount.getSelect()).as("SELECT statements").isEqualTo(expected);
+        return this;
+    }
+
+    public SqlStatementAssertions inserts(long expected) {
+        assertThat(queryCount.getInsert()).as("INSERT statements").isEqualTo(expected);
+        return this;
+    }
+
+    public SqlStatementAssertions updates(long expected) {
+        assertThat(queryCount.getUpdate()).as("UPDATE statements").isEqualTo(expected);
+        return this;
+    }
+
+    public SqlStatementAssertions deletes(long expected) {
+        assertThat(queryCount.getDelete()).as("DELETE statements").isEqualTo(expected);
+        return this;
+    }
+
+    public SqlStatementAssertions total(long expected) {
+        assertThat(queryCount.getTotal()).as("all statements").isEqualTo(expected);
+        return this;
+    }
+}
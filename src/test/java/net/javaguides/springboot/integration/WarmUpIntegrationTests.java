@@ -0,0 +1,36 @@
+package net.javaguides.springboot.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.javaguides.springboot.config.StorageProfiles;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"employees.warmup.enabled=true", "employees.warmup.iterations=5"})
+@ActiveProfiles(StorageProfiles.IN_MEMORY)
+public class WarmUpIntegrationTests {
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Test
+    @DisplayName("Warm-up runs every stage before readiness")
+    public void givenWarmUpEnabled_whenApplicationStarted_thenEveryStageRecordedAndReady() {
+        // Then
+        for (String stage : new String[]{"pool", "queries", "caches", "endpoints", "total"}) {
+            Timer timer = meterRegistry.find("employees.warmup").tag("stage", stage).timer();
+            assertThat(timer).as(stage).isNotNull();
+            assertThat(timer.count()).as(stage).isEqualTo(1);
+        }
+        assertThat(applicationAvailability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+    }
+}
@@ -0,0 +1,109 @@
+package net.javaguides.springboot.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.javaguides.springboot.config.StorageProfiles;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=jfr")
+@AutoConfigureMockMvc
+@ActiveProfiles(StorageProfiles.IN_MEMORY)
+public class JfrEventIntegrationTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @TempDir
+    private Path recordingDirectory;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAll();
+        employee = employeeRepository.save(Employee.builder()
+                .firstName("Dan")
+                .lastName("Sanchez")
+                .email("dan@domain.com")
+                .build());
+    }
+
+    @Test
+    @DisplayName("Service and repository calls are recorded")
+    public void givenRecordingEnabled_whenGetEmployeeByEmail_thenServiceAndRepositoryEventsRecorded() throws Exception {
+        // Given
+        Path file = recordingDirectory.resolve("employees.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(EmployeeServiceEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(EmployeeRepositoryEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+
+            // When
+            employeeService.getEmployeeByEmail(employee.getEmail());
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events).extracting(event -> event.getEventType().getName())
+                .containsExactly("net.javaguides.employees.RepositoryQuery", "net.javaguides.employees.ServiceOperation");
+        assertThat(events).allSatisfy(event -> {
+            assertThat(event.getString("key")).isEqualTo(employee.getEmail());
+            assertThat(event.getInt("rows")).isEqualTo(1);
+        });
+        assertThat(events.get(0).getString("operation")).isEqualTo("EmployeeRepository.findByEmail");
+        assertThat(events.get(1).getString("operation")).isEqualTo("EmployeeService.getEmployeeByEmail");
+    }
+
+    @Test
+    @DisplayName("Actuator dumps the running recordings")
+    public void givenRunningRecording_whenGetJfrEndpoint_thenJfrFileReturned() throws Exception {
+        // Given
+        mockMvc.perform(get("/actuator/jfr")).andExpect(status().isNotFound());
+        try (Recording recording = new Recording()) {
+            recording.enable(EmployeeServiceEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            employeeService.getEmployeeById(employee.getId());
+
+            // When
+            byte[] dump = mockMvc.perform(get("/actuator/jfr"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            // Then
+            Path file = Files.write(recordingDirectory.resolve("dump.jfr"), dump);
+            assertThat(RecordingFile.readAllEvents(file)).extracting(event -> event.getString("operation"))
+                    .contains("EmployeeService.getEmployeeById");
+            try (Stream<Path> dumps = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+                assertThat(dumps).noneMatch(dumped -> dumped.getFileName().toString().matches("employees-.*\\.jfr"));
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package net.javaguides.springboot.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// NOTE: compares the bytes allocated per response by the default Jackson path and the hand-written writer;
+// skipped by a normal build, run it with: mvn test -Pbenchmark
+@Tag("benchmark")
+public class EmployeeJsonWriterBenchmarkTests {
+    private static final int WARM_UP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 20_000;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final EmployeeJsonWriter employeeJsonWriter = new EmployeeJsonWriter(objectMapper);
+    private final OutputStream responseBody = StreamUtils.nonClosing(OutputStream.nullOutputStream());
+
+    @Test
+    @DisplayName("Allocation per single employee response")
+    public void givenEmployee_whenSerialized_thenWriterAllocatesLessThanObjectMapper() throws Exception {
+        Employee employee = employee(1L);
+
+        long jackson = bytesAllocatedPerCall(() -> objectMapper.writeValue(responseBody, employee));
+        long writer = bytesAllocatedPerCall(() -> employeeJsonWriter.write(employee, responseBody));
+
+        report("single employee", jackson, writer);
+        assertThat(writer).isLessThan(jackson);
+    }
+
+    @Test
+    @DisplayName("Allocation per employee list response")
+    public void givenEmployeesList_whenSerialized_thenWriterAllocatesLessThanObjectMapper() throws Exception {
+        List<Employee> employees = LongStream.rangeClosed(1, 100).mapToObj(EmployeeJsonWriterBenchmarkTests::employee).toList();
+
+        long jackson = bytesAllocatedPerCall(() -> objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, Employee.class)).writeValue(responseBody, employees));
+        long writer = bytesAllocatedPerCall(() -> employeeJsonWriter.write(employees, responseBody));
+
+        report("100 employees", jackson, writer);
+        assertThat(writer).isLessThan(jackson);
+    }
+
+    private static long bytesAllocatedPerCall(IoRunnable serialization) throws IOException {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            serialization.run();
+        }
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            serialization.run();
+        }
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - before) / MEASURED_ITERATIONS;
+    }
+
+    private static void report(String response, long jackson, long writer) {
+        System.out.printf("employee-json %-16s ObjectMapper: %6d B/op, EmployeeJsonWriter: %6d B/op%n", response, jackson, writer);
+    }
+
+    private static Employee employee(long id) {
+        return Employee.builder()
+                .id(id)
+                .firstName("Dan" + id)
+                .lastName("Sanchez")
+                .email("dan" + id + "@domain.com")
+                .version(id % 5)
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface IoRunnable {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,66 @@
+package net.javaguides.springboot.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.dto.EmployeeBatch;
+import net.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// NOTE: the hand-written serializer must stay byte-for-byte compatible with what Jackson produces for the same objects
+public class EmployeeJsonWriterTests {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final EmployeeJsonWriter employeeJsonWriter = new EmployeeJsonWriter(objectMapper);
+
+    private final Employee employee = Employee.builder()
+            .id(1L)
+            .firstName("Dan")
+            .lastName("Sánchez \"the\" <tester>")
+            .email("dan@domain.com")
+            .version(3)
+            .build();
+
+    @Test
+    @DisplayName("Single employee matches Jackson")
+    public void givenEmployee_whenWrite_thenSameJsonAsObjectMapper() throws Exception {
+        // When
+        byte[] json = employeeJsonWriter.toBytes(employee);
+
+        // Then
+        assertThat(new String(json, StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(employee));
+    }
+
+    @Test
+    @DisplayName("Employee list matches Jackson")
+    public void givenEmployeesList_whenWrite_thenSameJsonAsObjectMapper() throws Exception {
+        // Given
+        List<Employee> employees = List.of(employee, Employee.builder().id(2L).firstName("John").build());
+
+        // When
+        byte[] json = employeeJsonWriter.toBytes(employees);
+
+        // Then
+        assertThat(new String(json, StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(employees));
+        assertThat(employeeJsonWriter.toBytes(List.of())).isEqualTo(objectMapper.writeValueAsBytes(List.of()));
+    }
+
+    @Test
+    @DisplayName("Employee batch matches Jackson")
+    public void givenEmployeeBatch_whenWrite_thenSameJsonAsObjectMapper() throws Exception {
+        // Given
+        EmployeeBatch batch = new EmployeeBatch(List.of(employee), List.of(7L, 9L));
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+
+        // When
+        employeeJsonWriter.write(batch, json);
+
+        // Then
+        assertThat(json.toString(StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(batch));
+    }
+}
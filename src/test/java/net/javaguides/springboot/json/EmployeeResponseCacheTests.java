@@ -0,0 +1,121 @@
+package net.javaguides.springboot.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.json.EmployeeResponseCache.EmployeeResponse;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.event.EmployeeChangedEvent;
+import net.javaguides.springboot.service.invalidation.EmployeeInvalidatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeResponseCacheTests {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private EmployeeResponseCache responseCache;
+    private Employee employee;
+
+    @BeforeEach
+    void setup() {
+        responseCache = new EmployeeResponseCache(objectMapper, 2);
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Dan")
+                .lastName("Sanchez")
+                .email("dan@domain.com")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Same version served from the cached bytes")
+    public void givenCachedEmployee_whenSameVersionRequested_thenSameBytesReturned() throws Exception {
+        // Given
+        EmployeeResponse first = responseCache.get(employee);
+
+        // When
+        EmployeeResponse second = responseCache.get(employee.toBuilder().build());
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(second.json()).isEqualTo(objectMapper.writeValueAsBytes(employee));
+    }
+
+    @Test
+    @DisplayName("Another version is encoded again")
+    public void givenCachedEmployee_whenNewVersionRequested_thenEncodedAgain() throws Exception {
+        // Given
+        responseCache.get(employee);
+        Employee updated = employee.toBuilder().firstName("NewDan").version(1).build();
+
+        // When
+        EmployeeResponse response = responseCache.get(updated);
+
+        // Then
+        assertThat(response.version()).isEqualTo(1);
+        assertThat(response.json()).isEqualTo(objectMapper.writeValueAsBytes(updated));
+        assertThat(responseCache.get(updated)).isSameAs(response);
+    }
+
+    @Test
+    @DisplayName("Writes and invalidations evict")
+    public void givenCachedEmployees_whenChangedOrInvalidated_thenEvicted() {
+        // Given
+        Employee other = employee.toBuilder().id(2L).build();
+        EmployeeResponse cached = responseCache.get(employee);
+        EmployeeResponse otherCached = responseCache.get(other);
+
+        // When
+        responseCache.onEmployeeChanged(EmployeeChangedEvent.deleted(employee.getId()));
+        responseCache.onEmployeesInvalidated(EmployeeInvalidatedEvent.of(Set.of(other.getId())));
+
+        // Then
+        assertThat(responseCache.get(employee)).isNotSameAs(cached);
+        assertThat(responseCache.get(other)).isNotSameAs(otherCached);
+    }
+
+    @Test
+    @DisplayName("The least recently served employee is evicted once full")
+    public void givenFullCache_whenNewEmployeeRequested_thenLeastRecentlyServedEvicted() {
+        // Given
+        Employee second = employee.toBuilder().id(2L).build();
+        Employee third = employee.toBuilder().id(3L).build();
+        EmployeeResponse first = responseCache.get(employee);
+        EmployeeResponse secondCached = responseCache.get(second);
+        responseCache.get(employee);
+
+        // When
+        EmployeeResponse thirdCached = responseCache.get(third);
+
+        // Then
+        assertThat(responseCache.get(third)).isSameAs(thirdCached);
+        assertThat(responseCache.get(employee)).isSameAs(first);
+        assertThat(responseCache.get(second)).isNotSameAs(secondCached);
+    }
+
+    @Test
+    @DisplayName("Gzip only kept when it is smaller")
+    public void givenSmallAndLargeEmployees_whenEncoded_thenGzipOnlyWhenSmaller() throws IOException {
+        // Given
+        Employee large = employee.toBuilder().id(2L).lastName("Sanchez".repeat(50)).build();
+
+        // When
+        EmployeeResponse small = responseCache.get(employee);
+        EmployeeResponse compressed = responseCache.get(large);
+
+        // Then
+        assertThat(small.isGzipped(true)).isFalse();
+        assertThat(small.body(true)).isSameAs(small.json());
+        assertThat(compressed.isGzipped(true)).isTrue();
+        assertThat(compressed.isGzipped(false)).isFalse();
+        assertThat(new GZIPInputStream(new ByteArrayInputStream(compressed.body(true))).readAllBytes())
+                .isEqualTo(compressed.json());
+    }
+}
@@ -0,0 +1,216 @@
+package net.javaguides.springboot.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Tuple;
+import net.javaguides.springboot.dataset.DatasetSize;
+import net.javaguides.springboot.dataset.EmployeeDatasetGenerator;
+import net.javaguides.springboot.model.Employee;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.jdbc.JdbcTestUtils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// NOTE: compares the cost of the same single-row lookup through each EmployeeRepository query style, plus a JPA
+// tuple projection and a plain JdbcTemplate query as baselines; skipped by a normal build, run it with:
+//   mvn test -Pbenchmark -Dtest=EmployeeRepositoryQueryBenchmarkTests
+// It runs against the embedded H2 database unless told to use the configured one (the local MySQL):
+//   -Dspring.test.database.replace=none
+// and loads the -Dbenchmark.dataset size of synthetic employees (default small, see DatasetSize). Every run appends
+// one JSON line per style and phase to -Dbenchmark.report (default target/benchmark-reports/employee-repository-queries.jsonl);
+// point it outside target to track the numbers over time.
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "employees.jdbc.count-statements=true",
+        "employees.warmup.enabled=false",
+        "employees.archive.enabled=false"})
+@AutoConfigureTestDatabase
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class EmployeeRepositoryQueryBenchmarkTests {
+    private static final DatasetSize DATASET = DatasetSize.valueOf(System.getProperty("benchmark.dataset", "small").toUpperCase(Locale.ROOT));
+    private static final int KEYS = 1_000;
+    private static final int WARM_UP_ITERATIONS = Integer.getInteger("benchmark.warm-up-iterations", 5_000);
+    private static final int MEASURED_ITERATIONS = Integer.getInteger("benchmark.iterations", 5_000);
+    private static final Path REPORT = Path.of(System.getProperty("benchmark.report",
+            "target/benchmark-reports/employee-repository-queries.jsonl"));
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, IntFunction<Object>> styles = new LinkedHashMap<>();
+    private List<Employee> keys;
+    private Statistics statistics;
+    private String database;
+
+    @BeforeAll
+    void seed() {
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "employees");
+        new EmployeeDatasetGenerator(jdbcTemplate, EmployeeDatasetGenerator.DEFAULT_SEED).load(DATASET, 1_000);
+        // NOTE: the name finders expect a single match, so lookups only use employees whose name is unique
+        keys = jdbcTemplate.query("select min(email) as email, first_name, last_name from employees"
+                        + " group by first_name, last_name having count(*) = 1 order by 1",
+                (resultSet, rowNum) -> Employee.builder()
+                        .email(resultSet.getString("email"))
+                        .firstName(resultSet.getString("first_name"))
+                        .lastName(resultSet.getString("last_name"))
+                        .build());
+        keys = keys.subList(0, Math.min(KEYS, keys.size()));
+        assertThat(keys).as("employees with a unique name").isNotEmpty();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        database = jdbcTemplate.execute((java.sql.Connection connection) -> connection.getMetaData().getDatabaseProductName()
+                + " " + connection.getMetaData().getDatabaseProductVersion());
+
+        styles.put("derived findByEmail", i -> employeeRepository.findByEmail(email(i)).orElse(null));
+        styles.put("findByJpql", i -> employeeRepository.findByJpql(firstName(i), lastName(i)));
+        styles.put("findByJpqlNamedParams", i -> employeeRepository.findByJpqlNamedParams(firstName(i), lastName(i)));
+        styles.put("findByNativeSql", i -> employeeRepository.findByNativeSql(firstName(i), lastName(i)));
+        styles.put("findByNativeSqlNamedParams", i -> employeeRepository.findByNativeSqlNamedParams(firstName(i), lastName(i)));
+        styles.put("baseline JPA tuple projection", this::findProjection);
+        styles.put("baseline JdbcTemplate", i -> jdbcTemplate.query(
+                "select id, first_name, last_name, email, version from employees where email = ? and deleted_at is null",
+                (resultSet, rowNum) -> resultSet.getLong("id"), email(i)).stream().findFirst().orElse(null));
+    }
+
+    @AfterAll
+    void cleanUp() {
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "employees");
+    }
+
+    @Test
+    @DisplayName("Latency, allocation and statements per lookup for each query style")
+    public void givenSeededEmployees_whenLookedUpByEachStyle_thenEveryStyleFindsTheRowAndIsReported() throws IOException {
+        // NOTE: one query nobody benchmarks first, so the first style measured does not pay for opening the pool
+        employeeRepository.count();
+
+        List<Measurement> measurements = new ArrayList<>();
+        // NOTE: cold is each style's very first call: query plan creation, statement preparation, class loading
+        styles.forEach((style, lookup) -> measurements.add(measure(style, "cold", lookup, 1)));
+        styles.forEach((style, lookup) -> {
+            run(lookup, WARM_UP_ITERATIONS);
+            measurements.add(measure(style, "warm", lookup, MEASURED_ITERATIONS));
+        });
+
+        report(measurements);
+        assertThat(measurements).allSatisfy(measurement -> assertThat(measurement.statementsPerOp()).isGreaterThan(0));
+    }
+
+    private Measurement measure(String style, String phase, IntFunction<Object> lookup, int iterations) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        Random random = new Random(42);
+        long[] latencies = new long[iterations];
+        statistics.clear();
+        QueryCountHolder.clear();
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            int key = random.nextInt(keys.size());
+            long startedAt = System.nanoTime();
+            Object found = lookup.apply(key);
+            latencies[i] = System.nanoTime() - startedAt;
+            assertThat(found).as(style).isNotNull();
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Arrays.sort(latencies);
+        return new Measurement(Instant.now().toString(), database, DATASET.rows(), style, phase, iterations,
+                Arrays.stream(latencies).average().orElse(0) / 1_000,
+                latencies[percentileIndex(iterations, 0.50)] / 1_000.0,
+                latencies[percentileIndex(iterations, 0.99)] / 1_000.0,
+                allocated / iterations,
+                (double) QueryCountHolder.getGrandTotal().getTotal() / iterations,
+                (double) statistics.getPrepareStatementCount() / iterations,
+                statistics.getQueryPlanCacheHitCount(),
+                statistics.getQueryPlanCacheMissCount());
+    }
+
+    private Tuple findProjection(int i) {
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            return entityManager.createQuery("select e.id as id, e.email as email from Employee e where e.email = :email", Tuple.class)
+                    .setParameter("email", email(i))
+                    .getResultStream().findFirst().orElse(null);
+        }
+    }
+
+    private void run(IntFunction<Object> lookup, int iterations) {
+        Random random = new Random(7);
+        for (int i = 0; i < iterations; i++) {
+            lookup.apply(random.nextInt(keys.size()));
+        }
+    }
+
+    private void report(List<Measurement> measurements) throws IOException {
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        StringBuilder lines = new StringBuilder();
+        for (Measurement measurement : measurements) {
+            System.out.printf("employee-queries %-30s %-4s mean %8.1f us  p50 %8.1f us  p99 %8.1f us  %7d B/op"
+                            + "  %.2f statements/op  %.2f prepares/op  plan cache %d hit / %d miss%n",
+                    measurement.style(), measurement.phase(), measurement.meanMicros(), measurement.p50Micros(),
+                    measurement.p99Micros(), measurement.bytesPerOp(), measurement.statementsPerOp(),
+                    measurement.preparesPerOp(), measurement.planCacheHits(), measurement.planCacheMisses());
+            lines.append(objectMapper.writeValueAsString(measurement)).append('\n');
+        }
+        Files.writeString(REPORT, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static int percentileIndex(int iterations, double percentile) {
+        return Math.min(iterations - 1, (int) Math.ceil(percentile * iterations) - 1);
+    }
+
+    private String firstName(int i) {
+        return keys.get(i).getFirstName();
+    }
+
+    private String lastName(int i) {
+        return keys.get(i).getLastName();
+    }
+
+    private String email(int i) {
+        return keys.get(i).getEmail();
+    }
+
+    /**
+     * One line of the report. Latencies are in microseconds; the prepare and plan cache columns come from Hibernate's
+     * statistics, so they stay 0 for the JdbcTemplate baseline, whose statements only show up in statementsPerOp.
+     */
+    record Measurement(String timestamp, String database, int rows, String style, String phase, int iterations,
+                       double meanMicros, double p50Micros, double p99Micros, long bytesPerOp, double statementsPerOp,
+                       double preparesPerOp, long planCacheHits, long planCacheMisses) {
+    }
+}
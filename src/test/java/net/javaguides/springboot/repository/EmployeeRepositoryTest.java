@@ -1,5 +1,6 @@
 package net.javaguides.springboot.repository;
 
+import net.javaguides.springboot.dto.EmployeeFilter;
 import net.javaguides.springboot.model.Employee;
 import static  org.assertj.core.api.Assertions.assertThat;
 
@@ -8,7 +9,11 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +21,8 @@ import java.util.Optional;
 public class EmployeeRepositoryTest {
     @Autowired
     private EmployeeRepository employeeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     private Employee employee;
 
@@ -199,4 +206,116 @@ public class EmployeeRepositoryTest {
         assertThat(returnEmployee).isNotNull();
         assertThat(returnEmployee).isEqualTo(employee);
     }
+
+    @DisplayName("Search employees by last name and email domain")
+    @Test
+    public void givenEmployees_whenSearch_thenReturnMatchesSortedByTheDatabase() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+        employeeRepository.save(employee.toBuilder().id(0).firstName("Ana").email("ana@Domain.com").build());
+        employeeRepository.save(employee.toBuilder().id(0).firstName("Eve").email("eve@other.com").build());
+        employeeRepository.save(employee.toBuilder().id(0).lastName("Cena").email("john@domain.com").build());
+        employeeRepository.save(employee.toBuilder().id(0).firstName("Wild").email("wild@domain_com").build());
+
+        // when - action or the behavior that we are going to test
+        List<Employee> employees = employeeRepository.search(new EmployeeFilter("Sanchez", "domain.com"), Sort.by("email"));
+
+        // then - verify the output
+        assertThat(employees).extracting(Employee::getEmail).containsExactly("ana@Domain.com", "dan@domain.com");
+    }
+
+    @DisplayName("Deleted employee is hidden from every query")
+    @Test
+    public void givenDeletedEmployee_whenQueried_thenNotFoundButRowKept() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+
+        // when - action or the behavior that we are going to test
+        employeeRepository.deleteById(employee.getId());
+        employeeRepository.flush();
+
+        // then - verify the output
+        assertThat(employeeRepository.findAll()).isEmpty();
+        assertThat(employeeRepository.findByEmail("dan@domain.com")).isEmpty();
+        assertThat(employeeRepository.findByNativeSql("Dan", "Sanchez")).isNull();
+        assertThat(employeeRepository.count()).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from employees where deleted_at is not null", Long.class))
+                .isEqualTo(1L);
+    }
+
+    @DisplayName("Archive employees deleted longer than the retention")
+    @Test
+    public void givenLongDeletedEmployee_whenArchiveDeleted_thenMovedToArchive() {
+        // given - precondition or setup
+        Employee recent = employeeRepository.save(employee.toBuilder().email("recent@domain.com").build());
+        employeeRepository.save(employee);
+        employeeRepository.deleteById(employee.getId());
+        employeeRepository.deleteById(recent.getId());
+        employeeRepository.flush();
+        jdbcTemplate.update("update employees set deleted_at = ? where id = ?", LocalDateTime.now().minusDays(31), employee.getId());
+
+        // when - action or the behavior that we are going to test
+        int archived = employeeRepository.archiveDeleted(Duration.ofDays(30), 10);
+
+        // then - verify the output
+        assertThat(archived).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("select id from employees_archive", Long.class)).containsExactly(employee.getId());
+        assertThat(jdbcTemplate.queryForList("select id from employees", Long.class)).containsExactly(recent.getId());
+    }
+
+    @DisplayName("Email of a deleted employee can be used again once archived")
+    @Test
+    public void givenDeletedEmployee_whenArchiveDeletedByEmail_thenEmailCanBeSavedAgain() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+        employeeRepository.deleteById(employee.getId());
+        employeeRepository.flush();
+
+        // when - action or the behavior that we are going to test
+        int archived = employeeRepository.archiveDeletedByEmail(List.of("dan@domain.com"));
+        Employee recreated = employeeRepository.saveAndFlush(employee.toBuilder().id(0).version(0).build());
+
+        // then - verify the output
+        assertThat(archived).isEqualTo(1);
+        assertThat(recreated.getId()).isNotEqualTo(employee.getId());
+        assertThat(employeeRepository.findByEmail("dan@domain.com")).isPresent();
+    }
+
+    @DisplayName("Headcounts by last name and email domain")
+    @Test
+    public void givenEmployees_whenHeadcounts_thenGroupedByTheDatabase() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+        employeeRepository.save(employee.toBuilder().id(0).firstName("Ana").email("ana@Domain.com").build());
+        employeeRepository.save(Employee.builder().firstName("John").lastName("Cena").email("john@other.com").build());
+        Employee deleted = employeeRepository.save(Employee.builder().firstName("Eve").lastName("Cena").email("eve@other.com").build());
+        employeeRepository.deleteById(deleted.getId());
+
+        // when - action or the behavior that we are going to test
+        List<EmployeeHeadcount> byLastName = employeeRepository.headcountsByLastName();
+        List<EmployeeHeadcount> byEmailDomain = employeeRepository.headcountsByEmailDomain();
+
+        // then - verify the output
+        assertThat(byLastName).containsExactlyInAnyOrder(new EmployeeHeadcount("Sanchez", 2), new EmployeeHeadcount("Cena", 1));
+        assertThat(byEmailDomain).containsExactlyInAnyOrder(new EmployeeHeadcount("domain.com", 2), new EmployeeHeadcount("other.com", 1));
+    }
+
+    @DisplayName("Upsert tells created from updated employees by what it did")
+    @Test
+    public void givenExistingEmployee_whenUpsertByEmail_thenCreatedAndUpdatedReported() {
+        // given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+
+        // when - action or the behavior that we are going to test
+        EmployeeUpsert upsert = employeeRepository.upsertByEmail(List.of(
+                employee.toBuilder().firstName("DanUpdate").build(),
+                Employee.builder().firstName("John").lastName("Cena").email("john@domain.com").build(),
+                employee.toBuilder().firstName("Dan").email("dan.sanchez@domain.com").build()));
+
+        // then - verify the output
+        assertThat(upsert.updated()).extracting(Employee::getFirstName).containsExactly("DanUpdate");
+        assertThat(upsert.updated()).extracting(Employee::getVersion).containsExactly(1L);
+        assertThat(upsert.created()).extracting(Employee::getEmail).containsExactlyInAnyOrder("john@domain.com", "dan.sanchez@domain.com");
+        assertThat(upsert.unchanged()).isZero();
+    }
 }
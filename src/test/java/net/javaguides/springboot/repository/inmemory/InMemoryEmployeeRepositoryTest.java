@@ -0,0 +1,247 @@
+package net.javaguides.springboot.repository.inmemory;
+
+import net.javaguides.springboot.dto.EmployeeFilter;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeUpsert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// NOTE: no Spring context needed, the engine is a plain object
+public class InMemoryEmployeeRepositoryTest {
+    private InMemoryEmployeeRepository employeeRepository;
+
+    private Employee employee;
+
+    @BeforeEach
+    private void buildEmployee() {
+        employeeRepository = new InMemoryEmployeeRepository();
+        employee = Employee.builder()
+                .firstName("Dan")
+                .lastName("Sanchez")
+                .email("dan@domain.com")
+                .build();
+    }
+
+    @DisplayName("Save employee test")
+    @Test
+    public void givenEmployeeObject_whenSave_thenReturnSavedEmployee() {
+        // given - precondition or setup
+
+        // when - action or the behavior that we are going to test
+        Employee savedEmployee = employeeRepository.save(employee);
+
+        // then - verify the output
+        assertThat(savedEmployee).isNotNull();
+        assertThat(savedEmployee.getId()).isGreaterThan(0);
+    }
+
+    @DisplayName("Save employee with missing column test")
+    @Test
+    public void givenEmployeeWithoutEmail_whenSave_thenThrowsException() {
+        // given - precondition or setup
+        employee.setEmail(null);
+
+        // when - action or the behavior that we are going to test
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> employeeRepository.save(employee));
+
+        // then - verify the output
+        assertThat(employeeRepository.count()).isZero();
+    }
+
+    @DisplayName("Get all employees test")
+    @Test
+    public void givenEmployeesList_whenFindAll_thenReturnAllEmployeesInIdOrder() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email("john@domain.com")
+                .build();
+        employeeRepository.save(employee);
+        employeeRepository.save(employee2);
+
+        // when - action or the behavior that we are going to test
+        List<Employee> employees = employeeRepository.findAll();
+
+        // then - verify the output
+        assertThat(employees).extracting(Employee::getId).containsExactly(employee.getId(), employee2.getId());
+        assertThat(employeeRepository.findAll(Sort.by("lastName")))
+                .extracting(Employee::getEmail).containsExactly("john@domain.com", "dan@domain.com");
+    }
+
+    @DisplayName("Get employee by email")
+    @Test
+    public void givenEmployeeEmail_whenFindByEmail_thenReturnEmployeeObject() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+
+        // when - action or the behavior that we are going to test
+        Employee foundEmployee = employeeRepository.findByEmail(employee.getEmail()).get();
+
+        // then - verify the output
+        assertThat(foundEmployee).usingRecursiveComparison().isEqualTo(employee);
+    }
+
+    @DisplayName("Duplicate email lookup")
+    @Test
+    public void givenTwoEmployeesWithSameEmail_whenFindByEmail_thenThrowsException() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+        employeeRepository.save(employee.toBuilder().id(0).firstName("Other").build());
+
+        // when - action or the behavior that we are going to test
+        // then - verify the output
+        Assertions.assertThrows(IncorrectResultSizeDataAccessException.class,
+                () -> employeeRepository.findByEmail(employee.getEmail()));
+    }
+
+    @DisplayName("Update Employee indexes")
+    @Test
+    public void givenUpdatedEmployee_whenFindByOldAndNewKeys_thenOnlyNewKeysMatch() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+
+        // when - action or the behavior that we are going to test
+        Employee savedEmployee = employeeRepository.findById(employee.getId()).get();
+        savedEmployee.setFirstName("NewDan");
+        savedEmployee.setEmail("newdan@domain.com");
+        employeeRepository.save(savedEmployee);
+
+        // then - verify the output
+        assertThat(employeeRepository.findByEmail("dan@domain.com")).isEmpty();
+        assertThat(employeeRepository.findByJpql("Dan", "Sanchez")).isNull();
+        assertThat(employeeRepository.findByEmail("newdan@domain.com")).isPresent();
+        assertThat(employeeRepository.findByNativeSql("NewDan", "Sanchez").getId()).isEqualTo(employee.getId());
+    }
+
+    @DisplayName("Update Employee with stale version")
+    @Test
+    public void givenStaleEmployee_whenSave_thenThrowsOptimisticLockingFailure() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+        Employee firstCopy = employeeRepository.findById(employee.getId()).get();
+        Employee secondCopy = employeeRepository.findById(employee.getId()).get();
+        firstCopy.setFirstName("First");
+        employeeRepository.save(firstCopy);
+
+        // when - action or the behavior that we are going to test
+        secondCopy.setFirstName("Second");
+        Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, () -> employeeRepository.save(secondCopy));
+
+        // then - verify the output
+        Employee stored = employeeRepository.findById(employee.getId()).get();
+        assertThat(stored.getFirstName()).isEqualTo("First");
+        assertThat(stored.getVersion()).isEqualTo(1L);
+    }
+
+    @DisplayName("Stored rows are isolated from callers")
+    @Test
+    public void givenFoundEmployee_whenModifiedWithoutSave_thenStoredRowUnchanged() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+
+        // when - action or the behavior that we are going to test
+        employeeRepository.findById(employee.getId()).get().setFirstName("NotSaved");
+        employee.setFirstName("NotSavedEither");
+
+        // then - verify the output
+        assertThat(employeeRepository.findById(employee.getId()).get().getFirstName()).isEqualTo("Dan");
+    }
+
+    @DisplayName("Delete Employee by ID")
+    @Test
+    public void givenEmployeeObject_whenDeleteEmployeeById_thenRemoveEmployee() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+
+        // when - action or the behavior that we are going to test
+        employeeRepository.deleteById(employee.getId());
+        Optional<Employee> employeeOptional = employeeRepository.findById(employee.getId());
+
+        // then - verify the output
+        assertThat(employeeOptional).isEmpty();
+        assertThat(employeeRepository.findByEmail(employee.getEmail())).isEmpty();
+        assertThat(employeeRepository.findByJpqlNamedParams("Dan", "Sanchez")).isNull();
+    }
+
+    @DisplayName("Search employees by last name and email domain")
+    @Test
+    public void givenEmployees_whenSearch_thenReturnMatchesSorted() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+        employeeRepository.save(employee.toBuilder().id(0).firstName("Ana").email("ana@Domain.com").build());
+        employeeRepository.save(employee.toBuilder().id(0).firstName("Eve").email("eve@other.com").build());
+        employeeRepository.save(employee.toBuilder().id(0).lastName("Cena").email("john@domain.com").build());
+
+        // when - action or the behavior that we are going to test
+        List<Employee> employees = employeeRepository.search(new EmployeeFilter("Sanchez", "domain.com"),
+                Sort.by(Sort.Direction.DESC, "email"));
+
+        // then - verify the output
+        assertThat(employees).extracting(Employee::getEmail).containsExactly("dan@domain.com", "ana@Domain.com");
+    }
+
+    @DisplayName("Upsert employees by email")
+    @Test
+    public void givenExistingEmployees_whenUpsertByEmail_thenCreateUpdateOrSkip() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+        Employee unchanged = employeeRepository.save(Employee.builder().firstName("Ana").lastName("Lopez").email("ana@domain.com").build());
+
+        // when - action or the behavior that we are going to test
+        EmployeeUpsert upsert = employeeRepository.upsertByEmail(List.of(
+                Employee.builder().id(99L).firstName("NewDan").lastName("Sanchez").email("dan@domain.com").build(),
+                unchanged.toBuilder().id(0).build(),
+                Employee.builder().firstName("John").lastName("Cena").email("john@domain.com").build()));
+
+        // then - verify the output
+        assertThat(upsert.created()).extracting(Employee::getEmail).containsExactly("john@domain.com");
+        assertThat(upsert.updated()).extracting(Employee::getId).containsExactly(employee.getId());
+        assertThat(upsert.unchanged()).isEqualTo(1);
+        assertThat(employeeRepository.findById(employee.getId()).get().getFirstName()).isEqualTo("NewDan");
+        assertThat(employeeRepository.findById(employee.getId()).get().getVersion()).isEqualTo(1L);
+        assertThat(employeeRepository.count()).isEqualTo(3);
+    }
+
+    @DisplayName("Query by example")
+    @Test
+    public void givenEmployees_whenFindByExample_thenMatchedLikeJpa() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+        employeeRepository.save(employee.toBuilder().id(0).firstName("Ana").email("ana@domain.com").build());
+        employeeRepository.save(Employee.builder().firstName("John").lastName("Cena").email("john@other.com").build());
+        ExampleMatcher ignoringKeys = ExampleMatcher.matching().withIgnorePaths("id", "version");
+
+        // when - action or the behavior that we are going to test
+        List<Employee> sanchez = employeeRepository.findAll(
+                Example.of(Employee.builder().lastName("sanchez").build(), ignoringKeys.withIgnoreCase()), Sort.by("firstName"));
+        long withoutIgnoredKeys = employeeRepository.count(Example.of(Employee.builder().lastName("Sanchez").build()));
+        List<String> anyMatch = employeeRepository.findBy(
+                Example.of(Employee.builder().firstName("John").email("ana@domain.com").build(),
+                        ExampleMatcher.matchingAny().withIgnorePaths("id", "version")),
+                query -> query.sortBy(Sort.by("email")).stream().map(Employee::getEmail).toList());
+
+        // then - verify the output
+        assertThat(sanchez).extracting(Employee::getFirstName).containsExactly("Ana", "Dan");
+        assertThat(withoutIgnoredKeys).isZero();
+        assertThat(anyMatch).containsExactly("ana@domain.com", "john@other.com");
+        assertThat(employeeRepository.findOne(Example.of(Employee.builder().email("@other").build(),
+                ignoringKeys.withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING)))).get()
+                .extracting(Employee::getFirstName).isEqualTo("John");
+        Assertions.assertThrows(IncorrectResultSizeDataAccessException.class, () -> employeeRepository.findOne(
+                Example.of(Employee.builder().lastName("Sanchez").build(), ignoringKeys)));
+    }
+}
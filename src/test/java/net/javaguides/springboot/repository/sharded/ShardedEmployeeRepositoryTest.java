@@ -0,0 +1,291 @@
+package net.javaguides.springboot.repository.sharded;
+
+import net.javaguides.springboot.deadline.Deadline;
+import net.javaguides.springboot.dto.EmployeeFilter;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeHeadcount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+// NOTE: two embedded H2 databases stand in for the MySQL shards
+public class ShardedEmployeeRepositoryTest {
+    private EmployeeShards shards;
+    private ShardedEmployeeRepository employeeRepository;
+
+    @BeforeEach
+    private void setupShards() {
+        shards = new EmployeeShards(List.of(embeddedShard(), embeddedShard()));
+        GlobalIdAllocator.initialize(shards.shard(0));
+        employeeRepository = new ShardedEmployeeRepository(shards, newAllocator());
+    }
+
+    @AfterEach
+    private void closeShards() throws Exception {
+        shards.close();
+    }
+
+    @DisplayName("Employees are spread across shards by id")
+    @Test
+    public void givenEmployees_whenSave_thenEachRowLivesOnItsShard() {
+        // given - precondition or setup
+        Employee dan = employeeRepository.save(employee("Dan", "Sanchez", "dan@domain.com"));
+        Employee john = employeeRepository.save(employee("John", "Cena", "john@domain.com"));
+
+        // when - action or the behavior that we are going to test
+        List<Long> rowsPerShard = shards.fanOut(jdbcTemplate ->
+                jdbcTemplate.queryForObject("select count(*) from employees", Long.class));
+
+        // then - verify the output
+        assertThat(rowsPerShard).containsExactly(1L, 1L);
+        assertThat(shards.indexOf(dan.getId())).isNotEqualTo(shards.indexOf(john.getId()));
+        assertThat(employeeRepository.findById(dan.getId())).get()
+                .usingRecursiveComparison().isEqualTo(dan);
+    }
+
+    @DisplayName("Lookups by non-id columns fan out to every shard")
+    @Test
+    public void givenEmployeesOnSeveralShards_whenFindByOtherColumns_thenResultsAreMerged() {
+        // given - precondition or setup
+        Employee dan = employeeRepository.save(employee("Dan", "Sanchez", "dan@domain.com"));
+        Employee john = employeeRepository.save(employee("John", "Cena", "john@domain.com"));
+        Employee tony = employeeRepository.save(employee("Tony", "Stark", "tony@domain.com"));
+
+        // when - action or the behavior that we are going to test
+        List<Employee> employees = employeeRepository.findAll();
+
+        // then - verify the output
+        assertThat(employees).extracting(Employee::getId).containsExactly(dan.getId(), john.getId(), tony.getId());
+        assertThat(employeeRepository.count()).isEqualTo(3);
+        assertThat(employeeRepository.findByEmail("john@domain.com")).get()
+                .extracting(Employee::getId).isEqualTo(john.getId());
+        assertThat(employeeRepository.findByJpql("Tony", "Stark").getId()).isEqualTo(tony.getId());
+        assertThat(employeeRepository.findAllById(List.of(tony.getId(), dan.getId(), 999L)))
+                .extracting(Employee::getId).containsExactly(dan.getId(), tony.getId());
+    }
+
+    @DisplayName("Ids stay unique across application instances")
+    @Test
+    public void givenTwoAllocators_whenAllocating_thenIdsNeverCollide() {
+        // given - precondition or setup
+        GlobalIdAllocator otherInstance = newAllocator();
+        GlobalIdAllocator thisInstance = newAllocator();
+        Set<Long> ids = new HashSet<>();
+
+        // when - action or the behavior that we are going to test
+        for (int i = 0; i < 25; i++) {
+            ids.add(thisInstance.nextId());
+            ids.add(otherInstance.nextId());
+        }
+
+        // then - verify the output
+        assertThat(ids).hasSize(50);
+    }
+
+    @DisplayName("The id counter stays a single row when several instances seed it")
+    @Test
+    public void givenSeededCounter_whenInitializedAgain_thenStillOneCounterRow() {
+        // given - precondition or setup
+        JdbcTemplate counterShard = shards.shard(0);
+
+        // when - action or the behavior that we are going to test
+        GlobalIdAllocator.initialize(counterShard);
+
+        // then - verify the output
+        assertThat(counterShard.queryForObject("select count(*) from employee_id_allocator", Integer.class)).isEqualTo(1);
+        // NOTE: what an instance that passed the emptiness check at the same time would run
+        Assertions.assertThrows(DuplicateKeyException.class,
+                () -> counterShard.update("insert into employee_id_allocator (id, next_id) values (1, 1)"));
+    }
+
+    @DisplayName("Upserts by email are rejected")
+    @Test
+    public void givenShardedEngine_whenUpsertByEmail_thenNotSupported() {
+        // when - action or the behavior that we are going to test
+        // then - verify the output
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> employeeRepository.upsertByEmail(List.of(employee("Dan", "Sanchez", "dan@domain.com"))));
+        assertThat(employeeRepository.count()).isZero();
+    }
+
+    @DisplayName("Update Employee with stale version")
+    @Test
+    public void givenStaleEmployee_whenSave_thenThrowsOptimisticLockingFailure() {
+        // given - precondition or setup
+        Employee saved = employeeRepository.save(employee("Dan", "Sanchez", "dan@domain.com"));
+        Employee stale = saved.toBuilder().build();
+        saved.setFirstName("First");
+        employeeRepository.save(saved);
+
+        // when - action or the behavior that we are going to test
+        stale.setFirstName("Second");
+        Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, () -> employeeRepository.save(stale));
+
+        // then - verify the output
+        Employee stored = employeeRepository.findById(saved.getId()).get();
+        assertThat(stored.getFirstName()).isEqualTo("First");
+        assertThat(stored.getVersion()).isEqualTo(1L);
+    }
+
+    @DisplayName("Delete Employee by ID")
+    @Test
+    public void givenEmployeeObject_whenDeleteEmployeeById_thenRemoveEmployee() {
+        // given - precondition or setup
+        Employee saved = employeeRepository.save(employee("Dan", "Sanchez", "dan@domain.com"));
+
+        // when - action or the behavior that we are going to test
+        employeeRepository.deleteById(saved.getId());
+
+        // then - verify the output
+        assertThat(employeeRepository.findById(saved.getId())).isEmpty();
+        assertThat(employeeRepository.findByEmail("dan@domain.com")).isEmpty();
+    }
+
+    @DisplayName("Search employees across shards")
+    @Test
+    public void givenEmployeesOnAllShards_whenSearch_thenReturnMergedMatchesSorted() {
+        // given - precondition or setup
+        employeeRepository.save(employee("Dan", "Sanchez", "dan@domain.com"));
+        employeeRepository.save(employee("Ana", "Sanchez", "ana@domain.com"));
+        employeeRepository.save(employee("Eve", "Sanchez", "eve@other.com"));
+        employeeRepository.save(employee("John", "Cena", "john@domain.com"));
+        employeeRepository.save(employee("Zoe", "Sanchez", "zoe@domain.com"));
+
+        // when - action or the behavior that we are going to test
+        List<Employee> employees = employeeRepository.search(new EmployeeFilter("Sanchez", "DOMAIN.com"), Sort.by("email"));
+
+        // then - verify the output
+        assertThat(employees).extracting(Employee::getEmail).containsExactly("ana@domain.com", "dan@domain.com", "zoe@domain.com");
+    }
+
+    @DisplayName("Deleted employees are hidden, then archived on their shard")
+    @Test
+    public void givenDeletedEmployees_whenArchiveDeleted_thenMovedToEachShardsArchive() {
+        // given - precondition or setup
+        Employee dan = employeeRepository.save(employee("Dan", "Sanchez", "dan@domain.com"));
+        Employee john = employeeRepository.save(employee("John", "Cena", "john@domain.com"));
+        employeeRepository.deleteById(dan.getId());
+        employeeRepository.deleteById(john.getId());
+
+        // when - action or the behavior that we are going to test
+        List<Employee> visible = employeeRepository.findAll();
+        // NOTE: a negative retention archives everything deleted so far
+        int archived = employeeRepository.archiveDeleted(Duration.ofDays(-1), 10);
+
+        // then - verify the output
+        assertThat(visible).isEmpty();
+        assertThat(employeeRepository.findByEmail("dan@domain.com")).isEmpty();
+        assertThat(archived).isEqualTo(2);
+        assertThat(shards.fanOut(jdbcTemplate -> jdbcTemplate.queryForObject("select count(*) from employees_archive", Long.class)))
+                .containsExactly(1L, 1L);
+        assertThat(shards.fanOut(jdbcTemplate -> jdbcTemplate.queryForObject("select count(*) from employees", Long.class)))
+                .containsExactly(0L, 0L);
+    }
+
+    private GlobalIdAllocator newAllocator() {
+        return new GlobalIdAllocator(shards.shard(0), shards.transactionTemplate(0), 10);
+    }
+
+    private static EmbeddedDatabase embeddedShard() {
+        return new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("db/sharding/schema.sql")
+                .build();
+    }
+
+    private static Employee employee(String firstName, String lastName, String email) {
+        return Employee.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .build();
+    }
+
+    @DisplayName("Headcounts are grouped per shard and summed")
+    @Test
+    public void givenEmployeesOnSeveralShards_whenHeadcounts_thenCountsAreSummed() {
+        // given - precondition or setup
+        employeeRepository.save(employee("Dan", "Sanchez", "dan@domain.com"));
+        employeeRepository.save(employee("Ana", "Sanchez", "ana@Domain.com"));
+        employeeRepository.save(employee("John", "Cena", "john@other.com"));
+        Employee deleted = employeeRepository.save(employee("Eve", "Cena", "eve@other.com"));
+        employeeRepository.deleteById(deleted.getId());
+
+        // when - action or the behavior that we are going to test
+        List<EmployeeHeadcount> byLastName = employeeRepository.headcountsByLastName();
+        List<EmployeeHeadcount> byEmailDomain = employeeRepository.headcountsByEmailDomain();
+
+        // then - verify the output
+        assertThat(byLastName).containsExactly(new EmployeeHeadcount("Cena", 1), new EmployeeHeadcount("Sanchez", 2));
+        assertThat(byEmailDomain).containsExactly(new EmployeeHeadcount("domain.com", 2), new EmployeeHeadcount("other.com", 1));
+    }
+
+    @DisplayName("Fan-outs run with the caller's deadline on every shard")
+    @Test
+    public void givenDeadline_whenFanOut_thenEveryShardQuerySeesIt() {
+        // given - precondition or setup
+        Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+
+        // when - action or the behavior that we are going to test
+        List<Deadline> seen = Deadline.callWithin(deadline, () -> shards.fanOut(jdbcTemplate -> Deadline.current()));
+
+        // then - verify the output
+        assertThat(seen).containsExactly(deadline, deadline);
+    }
+
+    @DisplayName("Fan-outs beyond the concurrency and queue are rejected")
+    @Test
+    public void givenFanOutsInFlight_whenAnotherFanOut_thenRejected() throws Exception {
+        // given - precondition or setup
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        try (EmployeeShards busyShards = new EmployeeShards(List.of(embeddedShard(), embeddedShard()), 1, 0)) {
+            CompletableFuture<List<Integer>> running = CompletableFuture.supplyAsync(() -> busyShards.fanOut((shard, jdbcTemplate) -> {
+                if (shard == 1) {
+                    querying.countDown();
+                    awaitQuietly(resume);
+                }
+                return shard;
+            }));
+            assertThat(querying.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // when - action or the behavior that we are going to test
+            Throwable rejected = catchThrowable(() -> busyShards.fanOut(jdbcTemplate -> 0));
+            resume.countDown();
+
+            // then - verify the output
+            assertThat(rejected).isInstanceOf(TaskRejectedException.class);
+            assertThat(running.get(10, TimeUnit.SECONDS)).containsExactly(0, 1);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.EmployeeAsyncServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeAsyncServiceTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private ExecutorService employeeDbExecutor;
+    private EmployeeAsyncService employeeAsyncService;
+
+    private Employee employee;
+
+    @BeforeEach
+    private void setup() {
+        employeeDbExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "employee-db-test"));
+        employeeAsyncService = new EmployeeAsyncServiceImpl(employeeService, employeeDbExecutor);
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Dan")
+                .lastName("Sanchez")
+                .email("dan@domain.com")
+                .build();
+    }
+
+    @AfterEach
+    private void shutdown() {
+        employeeDbExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("getEmployeeByIdAsync runs on the DB executor")
+    public void givenEmployee_whenGetEmployeeByIdAsync_thenLookupRunsOnDbExecutor() throws Exception {
+        // Given
+        AtomicReference<String> lookupThread = new AtomicReference<>();
+        given(employeeService.getEmployeeById(employee.getId()))
+                .willAnswer(invocation -> {
+                    lookupThread.set(Thread.currentThread().getName());
+                    return Optional.of(employee);
+                });
+
+        // When
+        Optional<Employee> found = employeeAsyncService.getEmployeeByIdAsync(employee.getId()).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(found).contains(employee);
+        assertThat(lookupThread.get()).isEqualTo("employee-db-test");
+    }
+
+    @Test
+    @DisplayName("getAllEmployeesAsync test")
+    public void givenEmployeesList_whenGetAllEmployeesAsync_thenReturnEmployeeList() throws Exception {
+        // Given
+        given(employeeService.getAllEmployees())
+                .willReturn(List.of(employee));
+
+        // When
+        List<Employee> employees = employeeAsyncService.getAllEmployeesAsync().get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(employees).containsExactly(employee);
+    }
+}
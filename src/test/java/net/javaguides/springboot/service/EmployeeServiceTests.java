@@ -1,9 +1,15 @@
 package net.javaguides.springboot.service;
 
+import net.javaguides.springboot.dto.EmployeeBatch;
+import net.javaguides.springboot.dto.EmployeeUpsertCounts;
 import net.javaguides.springboot.exception.ResourceNotFoundException;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.repository.EmployeeUpsert;
+import net.javaguides.springboot.service.event.EmployeeChangedEvent;
+import net.javaguides.springboot.service.event.EmployeesChangedEvent;
 import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import net.javaguides.springboot.service.snapshot.EmployeeSnapshotHolder;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import org.junit.jupiter.api.Assertions;
@@ -17,6 +23,9 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.*;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -24,6 +33,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 //@SpringBootTest // NOTE: this annotation would also work, as it also has the @ExtendWith annotation
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +41,10 @@ public class EmployeeServiceTests {
 
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ObjectProvider<EmployeeSnapshotHolder> snapshotHolder;
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -96,7 +110,7 @@ public class EmployeeServiceTests {
                 .email("tony@domain.com")
                 .build();
         // Method stubbing:
-        given(employeeRepository.findAll())
+        given(employeeRepository.findAllDetached())
                 .willReturn(List.of(employee, employee2))
         ;
 
@@ -114,7 +128,7 @@ public class EmployeeServiceTests {
     public void givenEmptyEmployeesList_whenGetAllEmployees_thenReturnEmptyEmployeeList() {
         // Given
         // Method stubbing:
-        given(employeeRepository.findAll())
+        given(employeeRepository.findAllDetached())
                 .willReturn(Collections.emptyList())
         ;
 
@@ -144,6 +158,48 @@ public class EmployeeServiceTests {
         assertThat(optionalEmployee.get().getId()).isEqualTo(employee.getId());
     }
 
+    @Test
+    @DisplayName("getEmployeesByIds test")
+    public void givenEmployeeIds_whenGetEmployeesByIds_thenReturnInRequestOrderWithMissingIds() {
+        // Given
+        Employee employee2 = Employee.builder()
+                .id(2L)
+                .firstName("Tony")
+                .lastName("Stark")
+                .email("tony@domain.com")
+                .build();
+        // Method stubbing:
+        given(employeeRepository.findAllById(List.of(2L, 9L, 1L)))
+                .willReturn(List.of(employee, employee2)) // NOTE: the DB returns rows in any order
+        ;
+
+        // When
+        EmployeeBatch batch = employeeService.getEmployeesByIds(List.of(2L, 9L, 1L, 2L));
+
+        // Then
+        assertThat(batch.employees()).containsExactly(employee2, employee);
+        assertThat(batch.missingIds()).containsExactly(9L);
+    }
+
+    @Test
+    @DisplayName("getEmployeesByIds chunking test")
+    public void givenManyEmployeeIds_whenGetEmployeesByIds_thenQueriesInChunks() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, EmployeeServiceImpl.ID_CHUNK_SIZE + 1).boxed().toList();
+        // Method stubbing:
+        given(employeeRepository.findAllById(any()))
+                .willReturn(Collections.emptyList())
+        ;
+
+        // When
+        EmployeeBatch batch = employeeService.getEmployeesByIds(ids);
+
+        // Then
+        verify(employeeRepository).findAllById(ids.subList(0, EmployeeServiceImpl.ID_CHUNK_SIZE));
+        verify(employeeRepository).findAllById(List.of((long) EmployeeServiceImpl.ID_CHUNK_SIZE + 1));
+        assertThat(batch.missingIds()).isEqualTo(ids);
+    }
+
     @Test
     @DisplayName("updateEmployee test")
     public void givenEmployee_whenUpdateEmployee_thenReturnUpdatedEmployee() {
@@ -179,5 +235,63 @@ public class EmployeeServiceTests {
         employeeService.deleteEmployee(employeeId);
         // Then
         verify(employeeRepository, times(1)).deleteById(employeeId);
+        verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(employeeId));
+    }
+
+    @Test
+    @DisplayName("upsertEmployees test")
+    public void givenEmployeesWithDuplicateEmail_whenUpsertEmployees_thenUpsertLastOneAndPublishChanges() {
+        // Given
+        Employee duplicate = employee.toBuilder().firstName("DanLast").build();
+        Employee other = Employee.builder().firstName("John").lastName("Cena").email("john@domain.com").build();
+        given(employeeRepository.upsertByEmail(List.of(duplicate, other)))
+                .willReturn(new EmployeeUpsert(List.of(other.toBuilder().id(2L).build()), List.of(duplicate), 0));
+
+        // When
+        EmployeeUpsertCounts counts = employeeService.upsertEmployees(List.of(employee, other, duplicate));
+
+        // Then
+        assertThat(counts).isEqualTo(new EmployeeUpsertCounts(1, 1, 0));
+        verify(eventPublisher).publishEvent(argThat((EmployeesChangedEvent event) -> event.changes().size() == 2
+                && event.changes().stream().anyMatch(change ->
+                        change.id() == employee.getId() && change.employee().getFirstName().equals("DanLast"))));
+        verify(eventPublisher, never()).publishEvent(any(EmployeeChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("upsertEmployees chunks test")
+    public void givenMoreEmployeesThanChunkSize_whenUpsertEmployees_thenOneUpsertPerChunk() {
+        // Given
+        List<Employee> employees = LongStream.range(0, EmployeeServiceImpl.UPSERT_CHUNK_SIZE + 1)
+                .mapToObj(i -> employee.toBuilder().email(i + "@domain.com").build())
+                .toList();
+        given(employeeRepository.upsertByEmail(any()))
+                .willAnswer(invocation -> new EmployeeUpsert(List.of(), List.of(), invocation.<List<?>>getArgument(0).size()));
+
+        // When
+        EmployeeUpsertCounts counts = employeeService.upsertEmployees(employees);
+
+        // Then
+        assertThat(counts.unchanged()).isEqualTo(employees.size());
+        verify(employeeRepository, times(2)).upsertByEmail(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("saveEmployee with the email of a deleted employee test")
+    public void givenEmailOfDeletedEmployee_whenSaveEmployee_thenArchiveDeletedAndRetry() {
+        // Given
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
+        given(employeeRepository.save(employee))
+                .willThrow(new DataIntegrityViolationException("uk_employees_email"))
+                .willReturn(employee);
+        given(employeeRepository.archiveDeletedByEmail(List.of(employee.getEmail()))).willReturn(1);
+
+        // When
+        Employee savedEmployee = employeeService.saveEmployee(employee);
+
+        // Then
+        assertThat(savedEmployee).isSameAs(employee);
+        verify(employeeRepository, times(2)).save(employee);
     }
 }
@@ -0,0 +1,77 @@
+package net.javaguides.springboot.service.invalidation;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.event.EmployeeChangedEvent;
+import net.javaguides.springboot.service.event.EmployeesChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeChangeBroadcasterTests {
+    @Mock
+    private EmployeeChangeBus employeeChangeBus;
+    private EmployeeChangeBroadcaster broadcaster;
+
+    @BeforeEach
+    void setup() {
+        InvalidationProperties properties = new InvalidationProperties();
+        properties.setMaxPublishedIds(2);
+        broadcaster = new EmployeeChangeBroadcaster(employeeChangeBus, properties);
+    }
+
+    @Test
+    @DisplayName("The changes of a batch are broadcast together")
+    public void givenBatch_whenChanged_thenIdsPublishedAtOnce() {
+        // When
+        broadcaster.onEmployeesChanged(new EmployeesChangedEvent(List.of(
+                EmployeeChangedEvent.saved(Employee.builder().id(1L).build()),
+                EmployeeChangedEvent.deleted(2L))));
+
+        // Then
+        verify(employeeChangeBus).publish(List.of(1L, 2L));
+        verify(employeeChangeBus, never()).publishAll();
+    }
+
+    @Test
+    @DisplayName("A batch larger than the threshold makes the other nodes invalidate everything")
+    public void givenLargeBatch_whenChanged_thenEverythingInvalidated() {
+        // When
+        broadcaster.onEmployeesChanged(new EmployeesChangedEvent(List.of(
+                EmployeeChangedEvent.deleted(1L),
+                EmployeeChangedEvent.deleted(2L),
+                EmployeeChangedEvent.deleted(3L))));
+
+        // Then
+        verify(employeeChangeBus, never()).publish(anyCollection());
+        verify(employeeChangeBus).publishAll();
+    }
+
+    @Test
+    @DisplayName("A change that can't be broadcast makes the other nodes invalidate everything")
+    public void givenUnreachableBus_whenChanged_thenNoFailureAndEverythingInvalidated() {
+        // Given
+        willThrow(new DataAccessResourceFailureException("down")).given(employeeChangeBus).publish(List.of(1L, 2L));
+
+        // When
+        assertThatNoException().isThrownBy(() -> broadcaster.onEmployeesChanged(new EmployeesChangedEvent(List.of(
+                EmployeeChangedEvent.deleted(1L),
+                EmployeeChangedEvent.deleted(2L)))));
+
+        // Then
+        verify(employeeChangeBus, times(1)).publishAll();
+    }
+}
@@ -0,0 +1,53 @@
+package net.javaguides.springboot.service.invalidation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InProcessEmployeeChangeBusTests {
+
+    @Test
+    @DisplayName("Changes are delivered to the other nodes of the network")
+    public void givenTwoNodes_whenChangePublished_thenOnlyOtherNodeInvalidates() {
+        // Given
+        List<Object> nodeAEvents = new ArrayList<>();
+        List<Object> nodeBEvents = new ArrayList<>();
+        InProcessEmployeeChangeBus.Network network = new InProcessEmployeeChangeBus.Network();
+        InProcessEmployeeChangeBus nodeA = new InProcessEmployeeChangeBus(nodeAEvents::add, network);
+        InProcessEmployeeChangeBus nodeB = new InProcessEmployeeChangeBus(nodeBEvents::add, network);
+        try {
+            // When
+            nodeA.publish(1L);
+            nodeB.destroy();
+            nodeA.publish(2L);
+
+            // Then
+            assertThat(nodeAEvents).isEmpty();
+            assertThat(nodeBEvents).containsExactly(EmployeeInvalidatedEvent.of(Set.of(1L)));
+        } finally {
+            nodeA.destroy();
+            nodeB.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Buses on different networks don't see each other's changes")
+    public void givenTwoNetworks_whenChangePublished_thenNoOtherNodeInvalidates() {
+        // Given
+        List<Object> nodeBEvents = new ArrayList<>();
+        InProcessEmployeeChangeBus nodeA = new InProcessEmployeeChangeBus(event -> { });
+        InProcessEmployeeChangeBus nodeB = new InProcessEmployeeChangeBus(nodeBEvents::add);
+
+        // When
+        nodeA.publish(1L);
+        nodeA.publishAll();
+
+        // Then
+        assertThat(nodeBEvents).isEmpty();
+    }
+}
@@ -0,0 +1,142 @@
+package net.javaguides.springboot.service.invalidation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// NOTE: an embedded H2 database stands in for the database shared by the nodes; polls are triggered by hand
+public class JdbcEmployeeChangeBusTests {
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private final InvalidationProperties.Jdbc settings = new InvalidationProperties.Jdbc();
+
+    private final List<Object> nodeAEvents = new ArrayList<>();
+    private final List<Object> nodeBEvents = new ArrayList<>();
+    private JdbcEmployeeChangeBus nodeA;
+    private JdbcEmployeeChangeBus nodeB;
+
+    @BeforeEach
+    private void setupNodes() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("db/invalidation/schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        settings.setPollInterval(Duration.ofHours(1));
+        nodeA = startNode("node-a", nodeAEvents);
+        nodeB = startNode("node-b", nodeBEvents);
+    }
+
+    @AfterEach
+    private void stopNodes() {
+        nodeA.stop();
+        nodeB.stop();
+        database.shutdown();
+    }
+
+    @DisplayName("Changes reach the other nodes only")
+    @Test
+    public void givenChangeOnOneNode_whenPolled_thenOnlyOtherNodeInvalidates() {
+        // given - precondition or setup
+        nodeA.publish(List.of(1L, 2L));
+
+        // when - action or the behavior that we are going to test
+        nodeA.poll();
+        nodeB.poll();
+        nodeB.poll();
+
+        // then - verify the output
+        assertThat(nodeAEvents).isEmpty();
+        assertThat(nodeBEvents).containsExactly(EmployeeInvalidatedEvent.of(Set.of(1L, 2L)));
+    }
+
+    @DisplayName("Changes committed out of order are not missed")
+    @Test
+    public void givenSequenceGap_whenMissingChangeCommittedLater_thenNextPollPicksItUp() {
+        // given - precondition or setup
+        insertChange(2, 20L);
+        nodeB.poll();
+
+        // when - action or the behavior that we are going to test
+        insertChange(1, 10L);
+        nodeB.poll();
+
+        // then - verify the output
+        assertThat(nodeBEvents).containsExactly(
+                EmployeeInvalidatedEvent.of(Set.of(20L)),
+                EmployeeInvalidatedEvent.of(Set.of(10L)));
+    }
+
+    @DisplayName("Batches larger than the batch size")
+    @Test
+    public void givenMoreChangesThanBatchSize_whenPolled_thenAllChangesRead() {
+        // given - precondition or setup
+        settings.setBatchSize(2);
+        for (long id = 1; id <= 5; id++) {
+            nodeA.publish(id);
+        }
+
+        // when - action or the behavior that we are going to test
+        nodeB.poll();
+
+        // then - verify the output
+        assertThat(nodeBEvents).containsExactly(EmployeeInvalidatedEvent.of(Set.of(1L, 2L, 3L, 4L, 5L)));
+    }
+
+    @DisplayName("Node that could not poll within the retention")
+    @Test
+    public void givenPollsMissedForLongerThanRetention_whenPolled_thenEverythingInvalidated() throws Exception {
+        // given - precondition or setup
+        settings.setRetention(Duration.ofMillis(1));
+        nodeA.publish(1L);
+        Thread.sleep(5);
+
+        // when - action or the behavior that we are going to test
+        nodeB.poll();
+
+        // then - verify the output
+        assertThat(nodeBEvents).containsExactly(EmployeeInvalidatedEvent.all());
+    }
+
+    @DisplayName("Node that lost changes")
+    @Test
+    public void givenNodeThatLostChanges_whenPolled_thenEverythingInvalidated() {
+        // given - precondition or setup
+        nodeA.publish(1L);
+        nodeA.publishAll();
+
+        // when - action or the behavior that we are going to test
+        nodeA.poll();
+        nodeB.poll();
+
+        // then - verify the output
+        assertThat(nodeAEvents).isEmpty();
+        assertThat(nodeBEvents).containsExactly(EmployeeInvalidatedEvent.all());
+    }
+
+    private JdbcEmployeeChangeBus startNode(String nodeId, List<Object> events) {
+        JdbcEmployeeChangeBus node = new JdbcEmployeeChangeBus(jdbcTemplate, events::add, nodeId, settings);
+        node.start();
+        return node;
+    }
+
+    private void insertChange(long seq, long employeeId) {
+        jdbcTemplate.update("insert into employee_changes (seq, employee_id, node_id, changed_at) values (?, ?, ?, ?)",
+                seq, employeeId, "node-a", Timestamp.from(Instant.now()));
+    }
+}
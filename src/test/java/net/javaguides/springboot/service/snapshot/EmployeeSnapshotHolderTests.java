@@ -0,0 +1,112 @@
+package net.javaguides.springboot.service.snapshot;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.inmemory.InMemoryEmployeeRepository;
+import net.javaguides.springboot.service.event.EmployeeChangedEvent;
+import net.javaguides.springboot.service.event.EmployeesChangedEvent;
+import net.javaguides.springboot.service.invalidation.EmployeeInvalidatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// NOTE: the in-memory engine stands in for the database
+public class EmployeeSnapshotHolderTests {
+    private InMemoryEmployeeRepository employeeRepository;
+    private EmployeeSnapshotHolder snapshotHolder;
+
+    private Employee dan;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository = new InMemoryEmployeeRepository();
+        snapshotHolder = new EmployeeSnapshotHolder(employeeRepository, Jackson2ObjectMapperBuilder.json().build());
+        dan = employeeRepository.save(Employee.builder().firstName("Dan").lastName("Sanchez").email("dan@domain.com").build());
+    }
+
+    @Test
+    @DisplayName("A save arriving after a newer one is dropped")
+    public void givenLoadedSnapshot_whenSavesArriveOutOfOrder_thenNewestVersionKept() {
+        // Given
+        snapshotHolder.get();
+        Employee first = dan.toBuilder().firstName("First").version(1).build();
+        Employee second = dan.toBuilder().firstName("Second").version(2).build();
+
+        // When
+        snapshotHolder.onEmployeeChanged(EmployeeChangedEvent.saved(second));
+        snapshotHolder.onEmployeeChanged(EmployeeChangedEvent.saved(first));
+
+        // Then
+        assertThat(snapshotHolder.get()).extracting(Employee::getFirstName).containsExactly("Second");
+    }
+
+    @Test
+    @DisplayName("A save arriving after the deletion doesn't bring the employee back")
+    public void givenDeletedEmployee_whenLateSaveArrives_thenStillDeleted() {
+        // Given
+        snapshotHolder.get();
+        Employee updated = dan.toBuilder().firstName("Updated").version(1).build();
+
+        // When
+        snapshotHolder.onEmployeeChanged(EmployeeChangedEvent.deleted(dan.getId()));
+        snapshotHolder.onEmployeeChanged(EmployeeChangedEvent.saved(updated));
+
+        // Then
+        assertThat(snapshotHolder.get()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A save of an employee deleted before the snapshot was loaded is dropped")
+    public void givenDeletionBeforeLoad_whenLateSaveArrives_thenNotInSnapshot() {
+        // Given
+        snapshotHolder.onEmployeeChanged(EmployeeChangedEvent.deleted(dan.getId()));
+        employeeRepository.deleteById(dan.getId());
+        snapshotHolder.get();
+
+        // When
+        snapshotHolder.onEmployeeChanged(EmployeeChangedEvent.saved(dan.toBuilder().version(1).build()));
+
+        // Then
+        assertThat(snapshotHolder.get()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("The changes of a batch are swapped in together")
+    public void givenLoadedSnapshot_whenBatchChanged_thenEveryChangeApplied() {
+        // Given
+        EmployeeSnapshot loaded = snapshotHolder.get();
+        Employee john = Employee.builder().id(2L).firstName("John").lastName("Cena").email("john@domain.com").build();
+        Employee eve = Employee.builder().id(3L).firstName("Eve").lastName("Cena").email("eve@domain.com").build();
+
+        // When
+        snapshotHolder.onEmployeesChanged(new EmployeesChangedEvent(List.of(
+                EmployeeChangedEvent.saved(john),
+                EmployeeChangedEvent.saved(eve),
+                EmployeeChangedEvent.saved(dan.toBuilder().firstName("DanUpdate").version(1).build()),
+                EmployeeChangedEvent.deleted(eve.getId()))));
+
+        // Then
+        assertThat(snapshotHolder.get()).extracting(Employee::getFirstName).containsExactly("DanUpdate", "John");
+        assertThat(loaded).extracting(Employee::getFirstName).containsExactly("Dan");
+    }
+
+    @Test
+    @DisplayName("Employees changed by another node are read again")
+    public void givenLoadedSnapshot_whenInvalidated_thenReadFromDatabase() {
+        // Given
+        snapshotHolder.get();
+        Employee john = employeeRepository.save(Employee.builder().firstName("John").lastName("Cena").email("john@domain.com").build());
+        employeeRepository.deleteById(dan.getId());
+
+        // When
+        snapshotHolder.onEmployeesInvalidated(EmployeeInvalidatedEvent.of(Set.of(dan.getId(), john.getId())));
+
+        // Then
+        assertThat(snapshotHolder.get()).extracting(Employee::getFirstName).containsExactly("John");
+    }
+}
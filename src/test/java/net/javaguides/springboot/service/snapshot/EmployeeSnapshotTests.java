@@ -0,0 +1,106 @@
+package net.javaguides.springboot.service.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.json.EmployeeJsonWriter;
+import net.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeSnapshotTests {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final EmployeeJsonWriter employeeJsonWriter = new EmployeeJsonWriter(objectMapper);
+
+    @Test
+    @DisplayName("Saving employees keeps id order and JSON in sync")
+    public void givenSnapshot_whenEmployeesSaved_thenNewSnapshotInIdOrder() throws Exception {
+        // Given
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(List.of(employee(1, "Dan"), employee(3, "John")), employeeJsonWriter);
+
+        // When
+        EmployeeSnapshot updated = snapshot
+                .withSaved(employee(2, "Jane"), employeeJsonWriter)
+                .withSaved(employee(4, "Joe"), employeeJsonWriter)
+                .withSaved(employee(1, "DanUpdate"), employeeJsonWriter);
+
+        // Then
+        assertThat(updated).extracting(Employee::getFirstName).containsExactly("DanUpdate", "Jane", "John", "Joe");
+        assertThat(new String(updated.json())).isEqualTo(objectMapper.writeValueAsString(List.copyOf(updated)));
+        assertThat(snapshot).extracting(Employee::getFirstName).containsExactly("Dan", "John");
+    }
+
+    @Test
+    @DisplayName("Deleting employees down to an empty snapshot")
+    public void givenSnapshot_whenEmployeesDeleted_thenRemovedFromListAndJson() throws Exception {
+        // Given
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(List.of(employee(1, "Dan"), employee(2, "John")), employeeJsonWriter);
+
+        // When
+        EmployeeSnapshot withoutDan = snapshot.withDeleted(1);
+        EmployeeSnapshot empty = withoutDan.withDeleted(2).withDeleted(99);
+
+        // Then
+        assertThat(withoutDan).extracting(Employee::getId).containsExactly(2L);
+        assertThat(new String(withoutDan.json())).isEqualTo(objectMapper.writeValueAsString(List.copyOf(withoutDan)));
+        assertThat(empty).isEmpty();
+        assertThat(new String(empty.json())).isEqualTo("[]");
+    }
+
+    @Test
+    @DisplayName("Applying a batch of saves and deletions at once")
+    public void givenSnapshot_whenChangesApplied_thenSameAsOneByOne() throws Exception {
+        // Given
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(
+                List.of(employee(1, "Dan"), employee(3, "John"), employee(5, "Eve")), employeeJsonWriter);
+
+        // When
+        EmployeeSnapshot changed = snapshot.withChanges(
+                List.of(employee(6, "Joe"), employee(2, "Jane"), employee(3, "JohnUpdate"), employee(5, "EveUpdate")),
+                Set.of(1L, 5L, 99L), employeeJsonWriter);
+
+        // Then
+        assertThat(changed).extracting(Employee::getFirstName).containsExactly("Jane", "JohnUpdate", "Joe");
+        assertThat(new String(changed.json())).isEqualTo(objectMapper.writeValueAsString(List.copyOf(changed)));
+        assertThat(snapshot).extracting(Employee::getFirstName).containsExactly("Dan", "John", "Eve");
+    }
+
+    @Test
+    @DisplayName("Only a newer version of an employee is older than the snapshot")
+    public void givenSnapshot_whenComparingVersions_thenOnlyNewerOrMissingEmployeesAreAhead() {
+        // Given
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(List.of(employee(1, "Dan").toBuilder().version(2).build()), employeeJsonWriter);
+
+        // When, Then
+        assertThat(snapshot.isOlderThan(employee(1, "Dan").toBuilder().version(3).build())).isTrue();
+        assertThat(snapshot.isOlderThan(employee(1, "Dan").toBuilder().version(2).build())).isFalse();
+        assertThat(snapshot.isOlderThan(employee(1, "Dan").toBuilder().version(1).build())).isFalse();
+        assertThat(snapshot.isOlderThan(employee(2, "John"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Snapshot elements are copies")
+    public void givenSnapshot_whenElementModified_thenSnapshotUnchanged() {
+        // Given
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(List.of(employee(1, "Dan")), employeeJsonWriter);
+
+        // When
+        snapshot.get(0).setFirstName("NotSaved");
+
+        // Then
+        assertThat(snapshot.get(0).getFirstName()).isEqualTo("Dan");
+    }
+
+    private static Employee employee(long id, String firstName) {
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName("Sanchez")
+                .email(firstName.toLowerCase() + "@domain.com")
+                .build();
+    }
+}
@@ -0,0 +1,184 @@
+package net.javaguides.springboot.service.stats;
+
+import net.javaguides.springboot.dto.EmployeeStats;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.inmemory.InMemoryEmployeeRepository;
+import net.javaguides.springboot.service.event.EmployeeChangedEvent;
+import net.javaguides.springboot.service.invalidation.EmployeeInvalidatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// NOTE: the in-memory engine stands in for the database, spied on to count the aggregations
+public class EmployeeStatsCacheTests {
+    private InMemoryEmployeeRepository employeeRepository;
+    private EmployeeStatsCache statsCache;
+
+    private Employee dan;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository = spy(new InMemoryEmployeeRepository());
+        statsCache = new EmployeeStatsCache(employeeRepository, Duration.ofMinutes(5));
+        dan = employeeRepository.save(employee("Dan", "Sanchez", "dan@domain.com"));
+        employeeRepository.save(employee("John", "Cena", "john@Other.com"));
+    }
+
+    @Test
+    @DisplayName("Headcounts are aggregated once, then served from memory")
+    public void givenStats_whenReadTwice_thenAggregatedOnce() {
+        // When
+        EmployeeStats first = statsCache.get();
+        EmployeeStats second = statsCache.get();
+
+        // Then
+        assertThat(first.total()).isEqualTo(2);
+        assertThat(first.byLastName()).containsExactly(Map.entry("Cena", 1L), Map.entry("Sanchez", 1L));
+        assertThat(first.byEmailDomain()).containsExactly(Map.entry("domain.com", 1L), Map.entry("other.com", 1L));
+        assertThat(second).isSameAs(first);
+        verify(employeeRepository, times(1)).headcountsByLastName();
+    }
+
+    @Test
+    @DisplayName("Creates, and changes of employees seen before, are applied without aggregating again")
+    public void givenLoadedStats_whenEmployeesCreatedUpdatedAndDeleted_thenCountsMovedIncrementally() {
+        // Given
+        statsCache.get();
+
+        // When
+        Employee ana = save(employee("Ana", "Sanchez", "ana@domain.com"));
+        save(ana.toBuilder().lastName("Lopez").email("ana@other.com").build());
+        Employee eve = save(employee("Eve", "Cena", "eve@new.com"));
+        employeeRepository.deleteById(eve.getId());
+        statsCache.onEmployeeChanged(EmployeeChangedEvent.deleted(eve.getId()));
+        EmployeeStats stats = statsCache.get();
+
+        // Then
+        assertThat(stats.total()).isEqualTo(3);
+        assertThat(stats.byLastName()).containsExactly(Map.entry("Cena", 1L), Map.entry("Lopez", 1L), Map.entry("Sanchez", 1L));
+        assertThat(stats.byEmailDomain()).containsExactly(Map.entry("domain.com", 1L), Map.entry("other.com", 2L));
+        verify(employeeRepository, times(1)).headcountsByLastName();
+    }
+
+    @Test
+    @DisplayName("Changing an employee whose keys are unknown aggregates again on the next read")
+    public void givenLoadedStats_whenUnseenEmployeeUpdated_thenAggregatedAgain() {
+        // Given
+        statsCache.get();
+
+        // When
+        save(employeeRepository.findById(dan.getId()).get().toBuilder().lastName("Lopez").build());
+        EmployeeStats stats = statsCache.get();
+        save(employeeRepository.findById(dan.getId()).get().toBuilder().lastName("Garcia").build());
+        EmployeeStats afterSecondUpdate = statsCache.get();
+
+        // Then
+        assertThat(stats.byLastName()).containsExactly(Map.entry("Cena", 1L), Map.entry("Lopez", 1L));
+        assertThat(afterSecondUpdate.byLastName()).containsExactly(Map.entry("Cena", 1L), Map.entry("Garcia", 1L));
+        verify(employeeRepository, times(2)).headcountsByLastName();
+    }
+
+    @Test
+    @DisplayName("Changes made by other nodes aggregate again on the next read")
+    public void givenLoadedStats_whenInvalidatedByAnotherNode_thenAggregatedAgain() {
+        // Given
+        statsCache.get();
+        employeeRepository.deleteById(dan.getId());
+
+        // When
+        statsCache.onEmployeesInvalidated(EmployeeInvalidatedEvent.of(Set.of(dan.getId())));
+        EmployeeStats stats = statsCache.get();
+
+        // Then
+        assertThat(stats.total()).isEqualTo(1);
+        assertThat(stats.byLastName()).containsExactly(Map.entry("Cena", 1L));
+        verify(employeeRepository, times(2)).headcountsByLastName();
+    }
+
+    @Test
+    @DisplayName("Headcounts older than the max age are aggregated again")
+    public void givenExpiredStats_whenRead_thenAggregatedAgain() {
+        // Given
+        statsCache = new EmployeeStatsCache(employeeRepository, Duration.ZERO);
+        statsCache.get();
+        employeeRepository.save(employee("Eve", "Cena", "eve@other.com"));
+
+        // When
+        EmployeeStats stats = statsCache.get();
+
+        // Then
+        assertThat(stats.byLastName()).containsEntry("Cena", 2L);
+        verify(employeeRepository, times(2)).headcountsByLastName();
+    }
+
+    @Test
+    @DisplayName("A change made while the headcounts are aggregated is not held up, and aggregates again")
+    public void givenAggregationRunning_whenEmployeeCreated_thenWriterNotBlockedAndCountedOnce() {
+        // Given
+        AtomicBoolean first = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (first.getAndSet(false)) {
+                // NOTE: on another thread, which would wait for the lock if the aggregation held it
+                CompletableFuture.runAsync(() -> save(employee("Eve", "Cena", "eve@other.com"))).get(10, TimeUnit.SECONDS);
+            }
+            return invocation.callRealMethod();
+        }).when(employeeRepository).headcountsByLastName();
+
+        // When
+        EmployeeStats aggregatedDuringChange = statsCache.get();
+        EmployeeStats stats = statsCache.get();
+
+        // Then
+        assertThat(aggregatedDuringChange.byLastName()).containsEntry("Cena", 2L);
+        assertThat(stats.total()).isEqualTo(3);
+        assertThat(stats.byLastName()).containsExactly(Map.entry("Cena", 2L), Map.entry("Sanchez", 1L));
+        verify(employeeRepository, times(2)).headcountsByLastName();
+    }
+
+    @Test
+    @DisplayName("Only the employees changed most recently are tracked")
+    public void givenManyEmployeesChanged_whenEarliestUpdated_thenAggregatedAgain() {
+        // Given
+        statsCache.get();
+        Employee earliest = save(employee("Ana", "Sanchez", "ana@domain.com"));
+        for (int i = 0; i < EmployeeStatsCache.MAX_TRACKED_EMPLOYEES; i++) {
+            save(employee("Eve" + i, "Cena", "eve" + i + "@other.com"));
+        }
+
+        // When
+        save(earliest.toBuilder().lastName("Lopez").build());
+        EmployeeStats stats = statsCache.get();
+
+        // Then
+        assertThat(stats.byLastName()).containsEntry("Lopez", 1L).containsEntry("Sanchez", 1L);
+        assertThat(stats.total()).isEqualTo(EmployeeStatsCache.MAX_TRACKED_EMPLOYEES + 3);
+        verify(employeeRepository, times(2)).headcountsByLastName();
+    }
+
+    private Employee save(Employee employee) {
+        Employee saved = employeeRepository.save(employee);
+        statsCache.onEmployeeChanged(EmployeeChangedEvent.saved(saved));
+        return saved;
+    }
+
+    private static Employee employee(String firstName, String lastName, String email) {
+        return Employee.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .build();
+    }
+}
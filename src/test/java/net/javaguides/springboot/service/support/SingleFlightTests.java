@@ -0,0 +1,131 @@
+package net.javaguides.springboot.service.support;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SingleFlightTests {
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    @DisplayName("Concurrent calls for the same key share one execution")
+    public void givenCallInFlight_whenSameKeyRequested_thenCallsAreCollapsed() throws Exception {
+        // Given
+        int followers = 5;
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(followers + 1);
+        try {
+            CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "Dan";
+            }), executor);
+            while (singleFlight.executedCount() == 0) {
+                Thread.onSpinWait();
+            }
+
+            // When
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (int i = 0; i < followers; i++) {
+                results.add(CompletableFuture.supplyAsync(() -> singleFlight.execute(1L, () -> {
+                    loads.incrementAndGet();
+                    return "not shared";
+                }), executor));
+            }
+            while (singleFlight.collapsedCount() < followers) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // Then
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("Dan");
+            for (CompletableFuture<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Dan");
+            }
+            assertThat(loads.get()).isEqualTo(1);
+            assertThat(singleFlight.executedCount()).isEqualTo(1);
+            assertThat(singleFlight.collapsedCount()).isEqualTo(followers);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Calls arriving after a key is forgotten do not join the older flight")
+    public void givenCallInFlight_whenKeyForgotten_thenNextCallRunsItsOwnExecution() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<String> before = CompletableFuture.supplyAsync(() -> singleFlight.execute(1L, () -> {
+                await(release);
+                return "Dan";
+            }), executor);
+            while (singleFlight.executedCount() == 0) {
+                Thread.onSpinWait();
+            }
+
+            // When
+            singleFlight.forget(1L);
+            String after = singleFlight.execute(1L, () -> "DanUpdate");
+            release.countDown();
+
+            // Then
+            assertThat(after).isEqualTo("DanUpdate");
+            assertThat(before.get(5, TimeUnit.SECONDS)).isEqualTo("Dan");
+            assertThat(singleFlight.executedCount()).isEqualTo(2);
+            assertThat(singleFlight.collapsedCount()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Completed calls are not cached")
+    public void givenCompletedCall_whenSameKeyRequestedAgain_thenLoaderRunsAgain() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        singleFlight.execute(1L, () -> "Dan" + loads.incrementAndGet());
+
+        // When
+        String result = singleFlight.execute(1L, () -> "Dan" + loads.incrementAndGet());
+
+        // Then
+        assertThat(result).isEqualTo("Dan2");
+        assertThat(singleFlight.collapsedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Failed calls propagate the loader exception")
+    public void givenFailingLoader_whenExecute_thenThrowsLoaderException() {
+        // When
+        IllegalStateException exception = Assertions.assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute(1L, () -> {
+                    throw new IllegalStateException("DB down");
+                }));
+
+        // Then
+        assertThat(exception).hasMessage("DB down");
+        assertThat(singleFlight.execute(1L, () -> "Dan")).isEqualTo("Dan");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package net.javaguides.springboot.tracing;
+
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// NOTE: tracing is disabled in tests unless @AutoConfigureObservability is present
+@SpringBootTest(properties = {"management.tracing.sampling.probability=1.0", "employees.tracing.exporter=none"})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@AutoConfigureObservability
+public class TracingIntegrationTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
+    private Employee employee;
+
+    @TestConfiguration
+    static class SpanCaptureConfig {
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAll();
+        employee = employeeRepository.save(Employee.builder()
+                .firstName("Dan")
+                .lastName("Sanchez")
+                .email("dan@domain.com")
+                .build());
+        finishedSpans();
+        spanExporter.reset();
+    }
+
+    @Test
+    @DisplayName("Request traced through every layer down to JDBC")
+    public void givenEmployee_whenGetEmployeeById_thenSpanPerLayerInOneTrace() throws Exception {
+        // When
+        String traceId = mockMvc.perform(get("/api/employees/{id}", employee.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(TraceIdResponseFilter.TRACE_ID_HEADER);
+
+        // Then
+        Map<String, SpanData> spans = finishedSpans().stream()
+                .filter(span -> span.getTraceId().equals(traceId))
+                .collect(Collectors.toMap(SpanData::getName, Function.identity(), (first, second) -> first));
+        SpanData controller = spans.get("employee-controller.get-employee-by-id");
+        SpanData service = spans.get("employee-service.get-employee-by-id");
+        SpanData repository = spans.get("employee-repository.find-by-id");
+        SpanData jdbc = spans.get("jdbc select");
+        assertThat(traceId).hasSize(32);
+        assertThat(service.getParentSpanId()).isEqualTo(controller.getSpanId());
+        assertThat(repository.getParentSpanId()).isEqualTo(service.getSpanId());
+        assertThat(repository.getAttributes().asMap()).containsValue("1");
+        assertThat(jdbc.getParentSpanId()).isEqualTo(repository.getSpanId());
+        assertThat(jdbc.getAttributes().asMap().toString()).contains("db.statement", "from employees");
+    }
+
+    private List<SpanData> finishedSpans() {
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        return spanExporter.getFinishedSpanItems();
+    }
+}